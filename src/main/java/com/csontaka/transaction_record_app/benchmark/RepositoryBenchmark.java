@@ -0,0 +1,229 @@
+package com.csontaka.transaction_record_app.benchmark;
+
+import com.csontaka.transaction_record_app.dao.AssetDAOImpl;
+import com.csontaka.transaction_record_app.dao.ConnectionPool;
+import com.csontaka.transaction_record_app.dao.InMemoryAssetRepository;
+import com.csontaka.transaction_record_app.dao.InMemoryPeriodRepository;
+import com.csontaka.transaction_record_app.dao.InMemoryTransactionRepository;
+import com.csontaka.transaction_record_app.dao.PeriodDAOImpl;
+import com.csontaka.transaction_record_app.dao.SchemaMigrator;
+import com.csontaka.transaction_record_app.dao.TransactionDAOImpl;
+import com.csontaka.transaction_record_app.dao.TransactionQuery;
+import com.csontaka.transaction_record_app.dao.TransactionRepository;
+import com.csontaka.transaction_record_app.entity.Asset;
+import com.csontaka.transaction_record_app.entity.AssetType;
+import com.csontaka.transaction_record_app.entity.Period;
+import com.csontaka.transaction_record_app.entity.Transaction;
+import com.csontaka.transaction_record_app.entity.TransactionRow;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the read times of the JDBC transaction repository with the
+ * {@link com.csontaka.transaction_record_app.dao.InMemoryTransactionRepository}
+ * loaded from it, and measures the heap the in-memory repositories take.
+ *
+ * <p>
+ * The benchmark fills an embedded h2 database in a temporary directory with
+ * generated assets, periods and transactions, loads the in-memory
+ * repositories from it, and runs the same reads on both: the transactions of
+ * every period and every asset, the totals of the periods, a count and the
+ * pages of a filtered query. Every read runs once to warm up and to check
+ * that both repositories find the same number of rows, and is timed the
+ * second time. The only argument is the number of transactions, 200000 by
+ * default.</p>
+ *
+ * @author Adrienn Csontak
+ */
+public final class RepositoryBenchmark {
+
+    private static final int ASSETS = 100;
+    private static final int MONTHS = 120;
+    private static final int BATCH_SIZE = 10000;
+    private static final int PAGE_SIZE = 200;
+    private static final int PAGES = 50;
+
+    /**
+     * A read of a repository, returning the number of found rows.
+     */
+    private interface Read {
+
+        int run(TransactionRepository repository) throws SQLException;
+    }
+
+    private final List<Asset> assets = new ArrayList<>();
+    private final List<Period> periods = new ArrayList<>();
+
+    private RepositoryBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of transactions, optional.
+     * @throws IOException If the temporary directory can not be created.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public static void main(String[] args) throws IOException, SQLException {
+        int transactions = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        Path directory = Files.createTempDirectory("transaction-benchmark");
+        Properties prop = new Properties();
+        prop.setProperty("backend", "h2");
+        prop.setProperty("h2_file", directory.resolve("benchmark").toString());
+        prop.setProperty("user", "benchmark");
+        prop.setProperty("password", "benchmark");
+        ConnectionPool pool = ConnectionPool.fromProperties(prop);
+        try {
+            new SchemaMigrator(pool).migrate();
+            new RepositoryBenchmark().run(pool, transactions);
+        } finally {
+            pool.close();
+        }
+    }
+
+    private void run(ConnectionPool pool, int transactions) throws SQLException {
+        AssetDAOImpl assetDao = new AssetDAOImpl(pool);
+        PeriodDAOImpl periodDao = new PeriodDAOImpl(pool);
+        TransactionDAOImpl transactionDao = new TransactionDAOImpl(pool);
+        long start = System.nanoTime();
+        fill(assetDao, periodDao, transactionDao, transactions);
+        System.out.printf("Inserted %d transactions in %d ms%n", transactions, millisSince(start));
+
+        long heapBefore = usedHeap();
+        start = System.nanoTime();
+        InMemoryAssetRepository memoryAssets = new InMemoryAssetRepository();
+        memoryAssets.loadFrom(assetDao);
+        InMemoryPeriodRepository memoryPeriods = new InMemoryPeriodRepository();
+        memoryPeriods.loadFrom(periodDao);
+        InMemoryTransactionRepository memoryTransactions
+                = new InMemoryTransactionRepository(memoryAssets, memoryPeriods);
+        memoryTransactions.loadFrom(transactionDao);
+        long loadMillis = millisSince(start);
+        long heapUsed = usedHeap() - heapBefore;
+        System.out.printf("Loaded the in-memory repositories in %d ms, %d bytes of heap"
+                + " (%.1f bytes per transaction)%n", loadMillis, heapUsed,
+                (double) heapUsed / Math.max(1, transactions));
+
+        System.out.printf("%-28s %12s %12s%n", "Read", "JDBC ms", "In-memory ms");
+        compare("Transactions by period", transactionDao, memoryTransactions,
+                repository -> {
+                    int found = 0;
+                    for (Period period : periods) {
+                        found += repository.findByPeriodId(period.getId()).size();
+                    }
+                    return found;
+                });
+        compare("Transactions by asset", transactionDao, memoryTransactions,
+                repository -> {
+                    int found = 0;
+                    for (Asset asset : assets) {
+                        found += repository.findByAssetId(asset.getId()).size();
+                    }
+                    return found;
+                });
+        compare("Totals of the periods", transactionDao, memoryTransactions,
+                repository -> repository.summarizeByPeriod(AssetType.PRODUCT,
+                        periods.get(0).getDate(), periods.get(periods.size() - 1).getDate())
+                        .size());
+        compare("Count of a query", transactionDao, memoryTransactions,
+                repository -> repository.count(query()));
+        compare("Pages of a query", transactionDao, memoryTransactions, this::readPages);
+    }
+
+    private void fill(AssetDAOImpl assetDao, PeriodDAOImpl periodDao,
+            TransactionDAOImpl transactionDao, int transactions) throws SQLException {
+        for (int i = 0; i < ASSETS; i++) {
+            Asset asset = new Asset("Asset " + i, "", i % 2 == 0 ? AssetType.PRODUCT
+                    : AssetType.EQUIPMENT);
+            asset.setStock(transactions);
+            assets.add(asset);
+        }
+        assetDao.saveAll(assets);
+        YearMonth first = YearMonth.now().minusMonths(MONTHS);
+        for (int i = 0; i < MONTHS; i++) {
+            periods.add(new Period(first.plusMonths(i)));
+        }
+        periodDao.saveAll(periods);
+
+        Random random = new Random(42);
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < transactions; i++) {
+            Transaction transaction = new Transaction(1 + random.nextInt(10),
+                    random.nextInt(100000));
+            transaction.setAssetId(assets.get(random.nextInt(ASSETS)).getId());
+            transaction.setPeriodId(periods.get(random.nextInt(MONTHS)).getId());
+            batch.add(transaction);
+            if (batch.size() == BATCH_SIZE) {
+                transactionDao.saveAll(batch);
+                batch.clear();
+            }
+        }
+        transactionDao.saveAll(batch);
+    }
+
+    private TransactionQuery query() {
+        TransactionQuery query = new TransactionQuery(AssetType.PRODUCT);
+        query.setFromDate(periods.get(MONTHS / 2).getDate());
+        query.setMinPrice(50000);
+        return query;
+    }
+
+    /**
+     * Reads the first pages of the query, every page continuing after the
+     * last row of the page before it.
+     */
+    private int readPages(TransactionRepository repository) throws SQLException {
+        TransactionQuery query = query();
+        query.setLimit(PAGE_SIZE);
+        int found = 0;
+        for (int page = 0; page < PAGES; page++) {
+            List<TransactionRow> rows = repository.find(query);
+            found += rows.size();
+            if (rows.size() < PAGE_SIZE) {
+                break;
+            }
+            query.continueAfter(rows.get(rows.size() - 1));
+        }
+        return found;
+    }
+
+    private void compare(String name, TransactionRepository jdbc,
+            TransactionRepository memory, Read read) throws SQLException {
+        int jdbcFound = read.run(jdbc);
+        long jdbcMillis = time(read, jdbc);
+        int memoryFound = read.run(memory);
+        long memoryMillis = time(read, memory);
+        if (jdbcFound != memoryFound) {
+            throw new IllegalStateException(name + ": the JDBC repository found " + jdbcFound
+                    + ", the in-memory repository " + memoryFound + ".");
+        }
+        System.out.printf("%-28s %12d %12d%n", name, jdbcMillis, memoryMillis);
+    }
+
+    private static long time(Read read, TransactionRepository repository)
+            throws SQLException {
+        long start = System.nanoTime();
+        read.run(repository);
+        return millisSince(start);
+    }
+
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -2,10 +2,15 @@ package com.csontaka.transaction_record_app.controller;
 
 import com.csontaka.transaction_record_app.dao.AssetDAOImpl;
 import com.csontaka.transaction_record_app.dao.AssetRepository;
+import com.csontaka.transaction_record_app.dao.CachingAssetRepository;
+import com.csontaka.transaction_record_app.dao.WriteBehindAssetRepository;
+import com.csontaka.transaction_record_app.dao.WriteBehindQueue;
 import com.csontaka.transaction_record_app.entity.Asset;
-import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.sql.DataSource;
 
 /**
  * Creates connection between
@@ -16,16 +21,42 @@ import java.util.List;
  */
 public class AssetController {
 
+    private static final int CACHE_SIZE = 1000;
     private AssetRepository daoImp;
 
     /**
-     * Initializes the repository object.
+     * Initializes the repository object. The assets found by id are cached
+     * until they are saved or deleted.
      *
-     * @param conn Connection object to make the connection with the database.
-     * @throws SQLException If an SQL exception occurs.
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     */
+    public AssetController(DataSource dataSource) {
+        this(new CachingAssetRepository(new AssetDAOImpl(dataSource), CACHE_SIZE));
+    }
+
+    /**
+     * Initializes the repository object. The assets found by id are cached
+     * until they are saved or deleted, and the changes of the existing assets
+     * are written to the database later by the specified queue.
+     *
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     * @param writeQueue A <code>WriteBehindQueue</code> writing the changes.
      */
-    public AssetController(Connection conn) throws SQLException {
-        daoImp = new AssetDAOImpl(conn);
+    public AssetController(DataSource dataSource, WriteBehindQueue writeQueue) {
+        this(new WriteBehindAssetRepository(new CachingAssetRepository(
+                new AssetDAOImpl(dataSource), CACHE_SIZE), writeQueue));
+    }
+
+    /**
+     * Initializes the controller with the specified repository.
+     *
+     * @param repository An <code>AssetRepository</code> object storing the
+     * assets.
+     */
+    public AssetController(AssetRepository repository) {
+        daoImp = repository;
     }
 
     /**
@@ -60,23 +91,49 @@ public class AssetController {
     }
 
     /**
-     * Invokes the findLatest method of the <code>AssetRepository</code>.
+     * Invokes the save method of the <code>AssetRepository</code>.
      *
-     * @return An Integer represents the id of an Asset.
+     * @param assetToSave An Asset object to save.
      * @throws SQLException If an SQL exception occurs.
      */
-    public Integer findLatest() throws SQLException {
-        return daoImp.findLatest();
+    public void save(Asset assetToSave) throws SQLException {
+        daoImp.save(assetToSave);
     }
 
     /**
-     * Invokes the save method of the <code>AssetRepository</code>.
+     * Invokes the adjustStock method of the <code>AssetRepository</code>.
      *
-     * @param assetToSave An Asset object to save.
+     * @param id An Integer containing the asset's id.
+     * @param delta An int containing the number to add to the stock.
+     * @return True if the asset exists, false if not.
      * @throws SQLException If an SQL exception occurs.
      */
-    public void save(Asset assetToSave) throws SQLException {
-        daoImp.save(assetToSave);
+    public boolean adjustStock(Integer id, int delta) throws SQLException {
+        return daoImp.adjustStock(id, delta);
+    }
+
+    /**
+     * Invokes the evict and the findById methods of the
+     * <code>AssetRepository</code>, so the asset is read from the database
+     * after its stock was changed with a transaction.
+     *
+     * @param id An Integer containing the asset's id.
+     * @return An Asset object.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public Asset refresh(Integer id) throws SQLException {
+        daoImp.evict(id);
+        return daoImp.findById(id);
+    }
+
+    /**
+     * Invokes the saveAll method of the <code>AssetRepository</code>.
+     *
+     * @param assetsToSave A Collection of Asset objects to save.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void saveAll(Collection<Asset> assetsToSave) throws SQLException {
+        daoImp.saveAll(assetsToSave);
     }
 
     /**
@@ -90,6 +147,49 @@ public class AssetController {
         return daoImp.delete(assetToDelete);
     }
 
+    /**
+     * Invokes the findById method of the <code>AssetRepository</code> on a
+     * background thread.
+     *
+     * @param id An Integer containing the asset's id.
+     * @return A <code>CompletableFuture</code> of an Asset object.
+     */
+    public CompletableFuture<Asset> findByIdAsync(Integer id) {
+        return DataAccessExecutor.supply(() -> daoImp.findById(id));
+    }
+
+    /**
+     * Invokes the findAllProducts method of the <code>AssetRepository</code>
+     * on a background thread.
+     *
+     * @return A <code>CompletableFuture</code> of a List of Asset objects.
+     */
+    public CompletableFuture<List<Asset>> findAllProductsAsync() {
+        return DataAccessExecutor.supply(() -> daoImp.findAllProducts());
+    }
+
+    /**
+     * Invokes the findAllEquipment method of the <code>AssetRepository</code>
+     * on a background thread.
+     *
+     * @return A <code>CompletableFuture</code> of a List of Asset objects.
+     */
+    public CompletableFuture<List<Asset>> findAllEquipmentAsync() {
+        return DataAccessExecutor.supply(() -> daoImp.findAllEquipment());
+    }
+
+    /**
+     * Invokes the save method of the <code>AssetRepository</code> on a
+     * background thread.
+     *
+     * @param assetToSave An Asset object to save.
+     * @return A <code>CompletableFuture</code> completed when the asset is
+     * saved.
+     */
+    public CompletableFuture<Void> saveAsync(Asset assetToSave) {
+        return DataAccessExecutor.run(() -> daoImp.save(assetToSave));
+    }
+
     /**
      * Invokes the close method of the <code>AssetRepository</code>.
      *
@@ -0,0 +1,154 @@
+package com.csontaka.transaction_record_app.controller;
+
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the database calls of the controllers on a small pool of background
+ * threads so they do not block the Event Dispatch Thread, and a slow call does
+ * not hold up the others. The calls may run at the same time, so a call that
+ * depends on another one has to be chained to its future. The calls submitted
+ * with {@link #initialize(SqlAction)} run one by one before every other call,
+ * so the schema can be brought up to date before the first load.
+ *
+ * <p>
+ * The pool has {@value #THREADS} threads, which leaves a connection of the
+ * default connection pool to the write-behind queue, and at most
+ * {@value #QUEUE_SIZE} waiting calls. A call submitted to a full queue fails
+ * with a <code>RejectedExecutionException</code>. Long imports run on their
+ * own thread, see {@link com.csontaka.transaction_record_app.importing.ImportService}.</p>
+ *
+ * @author Adrienn Csontak
+ */
+public final class DataAccessExecutor {
+
+    /**
+     * The number of threads running the database calls.
+     */
+    public static final int THREADS = 3;
+
+    /**
+     * The maximum number of calls waiting for a thread.
+     */
+    public static final int QUEUE_SIZE = 1000;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS,
+            30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable,
+                        "data-access-" + THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Completed when the calls submitted with {@link #initialize(SqlAction)}
+     * are finished, whether they failed or not.
+     */
+    private static volatile CompletableFuture<Void> initialized
+            = CompletableFuture.completedFuture(null);
+
+    /**
+     * A database call that returns a value.
+     *
+     * @param <T> The type of the returned value.
+     */
+    public interface SqlSupplier<T> {
+
+        /**
+         * Runs the database call.
+         *
+         * @return The result of the call.
+         * @throws SQLException If an SQL exception occurs.
+         */
+        T get() throws SQLException;
+    }
+
+    /**
+     * A database call that does not return a value.
+     */
+    public interface SqlAction {
+
+        /**
+         * Runs the database call.
+         *
+         * @throws SQLException If an SQL exception occurs.
+         */
+        void run() throws SQLException;
+    }
+
+    private DataAccessExecutor() {
+    }
+
+    /**
+     * Submits a database call that returns a value.
+     *
+     * @param <T> The type of the returned value.
+     * @param task The database call to run.
+     * @return A <code>CompletableFuture</code> completed with the result of
+     * the call, or exceptionally with the <code>SQLException</code> it threw.
+     */
+    public static <T> CompletableFuture<T> supply(SqlSupplier<T> task) {
+        return initialized.thenApplyAsync(ignored -> call(task), EXECUTOR);
+    }
+
+    /**
+     * Submits a database call that does not return a value.
+     *
+     * @param task The database call to run.
+     * @return A <code>CompletableFuture</code> completed when the call is
+     * finished, or exceptionally with the <code>SQLException</code> it threw.
+     */
+    public static CompletableFuture<Void> run(SqlAction task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Submits a database call that has to finish before the calls submitted
+     * after it start. The calls submitted with this method run one by one in
+     * the order they were submitted, and a failed one does not stop the
+     * others.
+     *
+     * @param task The database call to run.
+     * @return A <code>CompletableFuture</code> completed when the call is
+     * finished, or exceptionally with the <code>SQLException</code> it threw.
+     */
+    public static synchronized CompletableFuture<Void> initialize(SqlAction task) {
+        CompletableFuture<Void> done = initialized.thenApplyAsync(ignored -> call(() -> {
+            task.run();
+            return null;
+        }), EXECUTOR);
+        initialized = done.handle((result, ex) -> null);
+        return done;
+    }
+
+    private static <T> T call(SqlSupplier<T> task) {
+        try {
+            return task.get();
+        } catch (SQLException ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    /**
+     * Stops accepting new calls and waits for the submitted ones to finish.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public static void shutdown() throws InterruptedException {
+        EXECUTOR.shutdown();
+        EXECUTOR.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
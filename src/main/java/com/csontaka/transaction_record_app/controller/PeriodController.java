@@ -1,12 +1,16 @@
 package com.csontaka.transaction_record_app.controller;
 
+import com.csontaka.transaction_record_app.dao.CachingPeriodRepository;
 import com.csontaka.transaction_record_app.dao.PeriodDAOImpl;
 import com.csontaka.transaction_record_app.dao.PeriodRepository;
 import com.csontaka.transaction_record_app.entity.Period;
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.sql.DataSource;
 
 /**
  * Creates connection between {@link com.csontaka.transaction_record_app.dao.PeriodRepository}
@@ -16,16 +20,28 @@ import java.util.List;
  */
 public class PeriodController {
 
+    private static final int CACHE_SIZE = 500;
     private PeriodRepository daoImp;
 
     /**
-     * Initializes the repository object.
+     * Initializes the repository object. The periods found by id are cached
+     * until they are saved.
      *
-     * @param conn Connection object to make the connection with the database.
-     * @throws SQLException If an SQL exception occurs.
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     */
+    public PeriodController(DataSource dataSource) {
+        this(new CachingPeriodRepository(new PeriodDAOImpl(dataSource), CACHE_SIZE));
+    }
+
+    /**
+     * Initializes the controller with the specified repository.
+     *
+     * @param repository A <code>PeriodRepository</code> object storing the
+     * periods.
      */
-    public PeriodController(Connection conn) throws SQLException {
-        daoImp = new PeriodDAOImpl(conn);
+    public PeriodController(PeriodRepository repository) {
+        daoImp = repository;
     }
 
     /**
@@ -109,6 +125,80 @@ public class PeriodController {
         daoImp.save(newPeriod);
     }
 
+    /**
+     * Invokes the saveAll method of the
+     * <code>PeriodRepository</code>.
+     *
+     * @param newPeriods A Collection of Period objects to save.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void saveAll(Collection<Period> newPeriods) throws SQLException {
+        daoImp.saveAll(newPeriods);
+    }
+
+    /**
+     * Invokes the findAfterADate method of the
+     * <code>PeriodRepository</code> on a background thread.
+     *
+     * @param date A YearMonth object containing the specified date using for
+     * the comparison.
+     * @return A <code>CompletableFuture</code> of a List of Period objects.
+     */
+    public CompletableFuture<List<Period>> findAfterADateAsync(YearMonth date) {
+        return DataAccessExecutor.supply(() -> daoImp.findAfter(date));
+    }
+
+    /**
+     * Invokes the findBeforeADate method of the
+     * <code>PeriodRepository</code> on a background thread.
+     *
+     * @param date A YearMonth object containing the specified date using for
+     * the comparison.
+     * @return A <code>CompletableFuture</code> of a List of Period objects.
+     */
+    public CompletableFuture<List<Period>> findBeforeADateAsync(YearMonth date) {
+        return DataAccessExecutor.supply(() -> daoImp.findBefore(date));
+    }
+
+    /**
+     * Saves a new period for every month after the latest saved period up to
+     * and including the specified date. If there is no saved period, starts
+     * from the month before the previous month.
+     *
+     * @param lastDate A YearMonth object containing the date of the last
+     * period to create.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void createPeriodsUntil(YearMonth lastDate) throws SQLException {
+        Period lastPeriod = daoImp.findLatest();
+        YearMonth lastPeriodDate;
+        if (lastPeriod != null) {
+            lastPeriodDate = lastPeriod.getDate();
+        } else {
+            lastPeriodDate = YearMonth.now().minusMonths(2);
+        }
+
+        List<Period> newPeriods = new ArrayList<>();
+        while (lastPeriodDate.isBefore(lastDate)) {
+            YearMonth plusOneMonth = lastPeriodDate.plusMonths(1);
+            newPeriods.add(new Period(plusOneMonth));
+            lastPeriodDate = plusOneMonth;
+        }
+        daoImp.saveAll(newPeriods);
+    }
+
+    /**
+     * Invokes the createPeriodsUntil method on a background thread.
+     *
+     * @param lastDate A YearMonth object containing the date of the last
+     * period to create.
+     * @return A <code>CompletableFuture</code> completed when the periods are
+     * saved.
+     */
+    public CompletableFuture<Void> createPeriodsUntilAsync(YearMonth lastDate) {
+        return DataAccessExecutor.run(() -> createPeriodsUntil(lastDate));
+    }
+
     /**
      * Invokes the close method of the
      * <code>PeriodRepository</code>.
@@ -1,11 +1,20 @@
 package com.csontaka.transaction_record_app.controller;
 
 import com.csontaka.transaction_record_app.dao.TransactionDAOImpl;
+import com.csontaka.transaction_record_app.dao.TransactionQuery;
 import com.csontaka.transaction_record_app.dao.TransactionRepository;
+import com.csontaka.transaction_record_app.entity.AssetType;
+import com.csontaka.transaction_record_app.entity.PeriodTotals;
 import com.csontaka.transaction_record_app.entity.Transaction;
-import java.sql.Connection;
+import com.csontaka.transaction_record_app.entity.TransactionRow;
 import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
 
 /**
  * Creates connection between {@link com.csontaka.transaction_record_app.dao.TransactionRepository}
@@ -20,11 +29,21 @@ public class TransactionController {
     /**
      * Initializes the repository object.
      *
-     * @param conn Connection object to make the connection with the database.
-     * @throws SQLException If an SQL exception occurs.
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     */
+    public TransactionController(DataSource dataSource) {
+        this(new TransactionDAOImpl(dataSource));
+    }
+
+    /**
+     * Initializes the controller with the specified repository.
+     *
+     * @param repository A <code>TransactionRepository</code> object storing the
+     * transactions.
      */
-    public TransactionController(Connection conn) throws SQLException {
-        daoImpl = new TransactionDAOImpl(conn);
+    public TransactionController(TransactionRepository repository) {
+        daoImpl = repository;
     }
 
     /**
@@ -86,14 +105,90 @@ public class TransactionController {
     }
     
     /**
-     * Invokes the findLatest method of the
+     * Invokes the findAllIncomeRows method of the
+     * <code>TransactionRepository</code>.
+     *
+     * @return A List of TransactionRow object.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public List<TransactionRow> findAllIncomeRows() throws SQLException {
+        return daoImpl.findAllIncomeRows();
+    }
+
+    /**
+     * Invokes the findAllExpenseRows method of the
+     * <code>TransactionRepository</code>.
+     *
+     * @return A List of TransactionRow object.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public List<TransactionRow> findAllExpenseRows() throws SQLException {
+        return daoImpl.findAllExpenseRows();
+    }
+
+    /**
+     * Invokes the forEachRow method of the
+     * <code>TransactionRepository</code>.
+     *
+     * @param query A <code>TransactionQuery</code> object describing the
+     * filters.
+     * @param action The action to perform on every TransactionRow object.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void forEachRow(TransactionQuery query, Consumer<TransactionRow> action)
+            throws SQLException {
+        daoImpl.forEachRow(query, action);
+    }
+
+    /**
+     * Invokes the count method of the
+     * <code>TransactionRepository</code>.
+     *
+     * @param query A <code>TransactionQuery</code> object describing the
+     * transactions to count.
+     * @return An int representing the number of the matching transactions.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public int count(TransactionQuery query) throws SQLException {
+        return daoImpl.count(query);
+    }
+
+    /**
+     * Invokes the forEach method of the
+     * <code>TransactionRepository</code>.
+     *
+     * @param action The action to perform on every Transaction object.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void forEach(Consumer<Transaction> action) throws SQLException {
+        daoImpl.forEach(action);
+    }
+
+    /**
+     * Invokes the findRowById method of the
+     * <code>TransactionRepository</code>.
+     *
+     * @param id Integer containing the transaction's id.
+     * @return A TransactionRow object.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public TransactionRow findRowById(Integer id) throws SQLException {
+        return daoImpl.findRowById(id);
+    }
+
+    /**
+     * Invokes the summarizeByPeriod method of the
      * <code>TransactionRepository</code>.
      *
-     * @return An Integer representing the the id of the last saved transaction.
+     * @param type The <code>AssetType</code> of the transactions' assets.
+     * @param from A YearMonth object containing the date of the first period.
+     * @param to A YearMonth object containing the date of the last period.
+     * @return A Map of <code>PeriodTotals</code> objects by period id.
      * @throws SQLException If an SQL exception occurs.
      */
-    public Integer findLatest() throws SQLException{
-        return daoImpl.findLatest();
+    public Map<Integer, PeriodTotals> summarizeByPeriod(AssetType type,
+            YearMonth from, YearMonth to) throws SQLException {
+        return daoImpl.summarizeByPeriod(type, from, to);
     }
 
     /**
@@ -107,6 +202,41 @@ public class TransactionController {
         daoImpl.save(transToSave);
     }
 
+    /**
+     * Invokes the saveWithStock method of the
+     * <code>TransactionRepository</code>.
+     *
+     * @param transToSave A Transaction object to save.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void saveWithStock(Transaction transToSave) throws SQLException {
+        daoImpl.saveWithStock(transToSave);
+    }
+
+    /**
+     * Invokes the deleteWithStock method of the
+     * <code>TransactionRepository</code>.
+     *
+     * @param id An Integer containing the id of the Transaction object to
+     * delete.
+     * @return The deleted Transaction object, or null if it did not exist.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public Transaction deleteWithStock(Integer id) throws SQLException {
+        return daoImpl.deleteWithStock(id);
+    }
+
+    /**
+     * Invokes the saveAll method of the
+     * <code>TransactionRepository</code>.
+     *
+     * @param transToSave A Collection of Transaction objects to save.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void saveAll(Collection<Transaction> transToSave) throws SQLException {
+        daoImpl.saveAll(transToSave);
+    }
+
     /**
      * Invokes the delete method of the
      * <code>TransactionRepository</code>.
@@ -131,6 +261,57 @@ public class TransactionController {
         return daoImpl.findById(id);
     }
     
+    /**
+     * Invokes the find method of the
+     * <code>TransactionRepository</code> on a background thread.
+     *
+     * @param query A <code>TransactionQuery</code> object describing the
+     * filters, the first id, the offset and the limit.
+     * @return A <code>CompletableFuture</code> of a List of TransactionRow
+     * objects.
+     */
+    public CompletableFuture<List<TransactionRow>> findAsync(TransactionQuery query) {
+        return DataAccessExecutor.supply(() -> daoImpl.find(query));
+    }
+
+    /**
+     * Invokes the count method of the
+     * <code>TransactionRepository</code> on a background thread.
+     *
+     * @param query A <code>TransactionQuery</code> object describing the
+     * filters.
+     * @return A <code>CompletableFuture</code> of the number of transactions.
+     */
+    public CompletableFuture<Integer> countAsync(TransactionQuery query) {
+        return DataAccessExecutor.supply(() -> daoImpl.count(query));
+    }
+
+    /**
+     * Invokes the findRowById method of the
+     * <code>TransactionRepository</code> on a background thread.
+     *
+     * @param id Integer containing the transaction's id.
+     * @return A <code>CompletableFuture</code> of a TransactionRow object.
+     */
+    public CompletableFuture<TransactionRow> findRowByIdAsync(Integer id) {
+        return DataAccessExecutor.supply(() -> daoImpl.findRowById(id));
+    }
+
+    /**
+     * Invokes the summarizeByPeriod method of the
+     * <code>TransactionRepository</code> on a background thread.
+     *
+     * @param type The <code>AssetType</code> of the transactions' assets.
+     * @param from A YearMonth object containing the date of the first period.
+     * @param to A YearMonth object containing the date of the last period.
+     * @return A <code>CompletableFuture</code> of a Map of
+     * <code>PeriodTotals</code> objects by period id.
+     */
+    public CompletableFuture<Map<Integer, PeriodTotals>> summarizeByPeriodAsync(
+            AssetType type, YearMonth from, YearMonth to) {
+        return DataAccessExecutor.supply(() -> daoImpl.summarizeByPeriod(type, from, to));
+    }
+
     /**
      * Invokes the close method of the
      * <code>TransactionRepository</code>.
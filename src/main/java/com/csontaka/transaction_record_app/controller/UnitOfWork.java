@@ -0,0 +1,77 @@
+package com.csontaka.transaction_record_app.controller;
+
+import com.csontaka.transaction_record_app.dao.TransactionalDataSource;
+import com.csontaka.transaction_record_app.dao.WriteBehindQueue;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Groups the calls of the controllers that belong together, like saving a
+ * transaction and changing the stock of its assets, in one database
+ * transaction, which is committed once and rolled back when a call fails. The
+ * controllers must use the same
+ * {@link com.csontaka.transaction_record_app.dao.TransactionalDataSource}.
+ * The changes waiting in the write-behind queue are written before the unit of
+ * work starts, so they are not rolled back with it. The changes queued during
+ * the unit of work and written by it are queued again when it is rolled back.
+ *
+ * @author Adrienn Csontak
+ */
+public class UnitOfWork {
+
+    private final TransactionalDataSource dataSource;
+    private final WriteBehindQueue writeQueue;
+
+    /**
+     * Creates a UnitOfWork running the calls on the specified data source.
+     *
+     * @param dataSource The <code>TransactionalDataSource</code> of the
+     * controllers.
+     */
+    public UnitOfWork(TransactionalDataSource dataSource) {
+        this(dataSource, null);
+    }
+
+    /**
+     * Creates a UnitOfWork running the calls on the specified data source and
+     * flushing the specified queue first.
+     *
+     * @param dataSource The <code>TransactionalDataSource</code> of the
+     * controllers.
+     * @param writeQueue The <code>WriteBehindQueue</code> of the controllers,
+     * or null if they write at once.
+     */
+    public UnitOfWork(TransactionalDataSource dataSource, WriteBehindQueue writeQueue) {
+        this.dataSource = dataSource;
+        this.writeQueue = writeQueue;
+    }
+
+    /**
+     * Runs the specified calls in one database transaction on the calling
+     * thread.
+     *
+     * @param <T> The type of the returned value.
+     * @param work The calls to run.
+     * @return The result of the calls.
+     * @throws SQLException If an SQL exception occurs. Nothing is written then.
+     */
+    public <T> T run(DataAccessExecutor.SqlSupplier<T> work) throws SQLException {
+        if (writeQueue != null && !dataSource.isInTransaction()) {
+            writeQueue.flush();
+        }
+        return dataSource.inTransaction(work::get);
+    }
+
+    /**
+     * Runs the specified calls in one database transaction on a background
+     * thread.
+     *
+     * @param <T> The type of the returned value.
+     * @param work The calls to run.
+     * @return A <code>CompletableFuture</code> completed with the result of
+     * the calls.
+     */
+    public <T> CompletableFuture<T> runAsync(DataAccessExecutor.SqlSupplier<T> work) {
+        return DataAccessExecutor.supply(() -> run(work));
+    }
+}
@@ -6,99 +6,91 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import javax.sql.DataSource;
 
 /**
  * Class that implements the methods of
  * {@link com.csontaka.transaction_record_app.dao.AssetRepository} interface.
+ * Every call borrows its own connection and statement, so the object can be
+ * used from more than one thread.
  *
  * @author Adrienn Csontak
  */
 public class AssetDAOImpl implements AssetRepository {
 
-    private final Connection conn;
-    private final PreparedStatement findAllAssets;
-    private final PreparedStatement findAllProducts;
-    private final PreparedStatement findAllEquipment;
-    private final PreparedStatement findById;
-    private final PreparedStatement findLatest;
-    private final PreparedStatement addAsset;
-    private final PreparedStatement updateAsset;
-    private final PreparedStatement deleteAsset;
+    private static final String FIND_ALL_ASSETS = "SELECT * FROM assets";
+    private static final String FIND_ALL_PRODUCTS = "SELECT * FROM assets WHERE type = 1";
+    private static final String FIND_ALL_EQUIPMENT = "SELECT * FROM assets WHERE type = 0";
+    private static final String FIND_BY_ID = "SELECT * FROM assets WHERE id = ?";
+    private static final String ADD_ASSET = "INSERT INTO assets (name, feature, type, stock, material_cost) "
+            + "VALUES( ?,  ?,  ?, ?, ?)";
+    private static final String UPDATE_ASSET = "UPDATE assets SET "
+            + "name = ?, feature = ?, type = ?, material_cost = ? WHERE id = ?";
+    private static final String ADJUST_STOCK = "UPDATE assets SET stock = stock + ? WHERE id = ?";
+    private static final String DELETE_ASSET = "DELETE FROM assets WHERE id = ?";
+
+    private final DataSource dataSource;
+    private final BatchWriter<Asset> batchWriter;
+
+    /**
+     * Creates a AssetDAOImpl object with a specified data source.
+     *
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     */
+    public AssetDAOImpl(DataSource dataSource) {
+        this(dataSource, BatchWriter.DEFAULT_BATCH_SIZE);
+    }
 
     /**
-     * Creates a AssetDAOImpl object with a specified connection.
+     * Creates a AssetDAOImpl object with a specified data source and batch
+     * size.
      *
-     * @param conn Connection object to make the connection with the database.
-     * @throws SQLException If an SQL exception occurs.
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     * @param batchSize An int containing the number of statements sent
+     * together by saveAll.
      */
-    public AssetDAOImpl(Connection conn) throws SQLException {
-        this.conn = conn;
-        findAllAssets = conn.prepareStatement("SELECT * FROM assets");
-        findAllProducts = conn.prepareStatement("SELECT * FROM transaction_records.assets WHERE type = 1");
-        findAllEquipment = conn.prepareStatement("SELECT * FROM transaction_records.assets WHERE type = 0");
-        findById = conn.prepareStatement("SELECT * FROM transaction_records.assets WHERE id = ?");
-        findLatest = conn.prepareStatement("SELECT MAX(id) as id FROM assets");
-        addAsset = conn.prepareStatement("INSERT INTO assets (name, feature, type, stock, material_cost) "
-                + "VALUES( ?,  ?,  ?, ?, ?)");
-        updateAsset = conn.prepareStatement("UPDATE assets SET "
-                + "name = ?, feature = ?, type = ?, stock = ?, material_cost = ? WHERE id = ?");
-        deleteAsset = conn.prepareStatement("DELETE FROM assets WHERE id = ?");
+    public AssetDAOImpl(DataSource dataSource, int batchSize) {
+        this.dataSource = dataSource;
+        this.batchWriter = new BatchWriter<>(ADD_ASSET, this::bindInsert,
+                UPDATE_ASSET, this::bindUpdate, Asset::getId, Asset::setId, batchSize);
     }
 
     @Override
     public List<Asset> findAll() throws SQLException {
-        List<Asset> assets;
-        try (ResultSet allAssets = findAllAssets.executeQuery()) {
-            assets = makeList(allAssets);
-        }
-        return assets;
+        return findList(FIND_ALL_ASSETS);
     }
 
     @Override
     public List<Asset> findAllProducts() throws SQLException {
-        List<Asset> products;
-        try (ResultSet allProducts = findAllProducts.executeQuery()) {
-            products = makeList(allProducts);
-        }
-        return products;
+        return findList(FIND_ALL_PRODUCTS);
     }
 
     @Override
     public List<Asset> findAllEquipment() throws SQLException {
-        List<Asset> equipment;
-        try (ResultSet allEquipment = findAllEquipment.executeQuery()) {
-            equipment = makeList(allEquipment);
-        }
-        return equipment;
+        return findList(FIND_ALL_EQUIPMENT);
     }
 
     @Override
     public Asset findById(Integer id) throws SQLException {
-        findById.setInt(1, id);
         Asset asset = null;
-        try (ResultSet assetById = findById.executeQuery()) {
-            assetById.beforeFirst();
-            if (assetById.next()) {
-                asset = makeOne(assetById);
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement findById = conn.prepareStatement(FIND_BY_ID)) {
+            findById.setInt(1, id);
+            try (ResultSet assetById = findById.executeQuery()) {
+                if (assetById.next()) {
+                    asset = makeOne(assetById);
+                }
             }
         }
         return asset;
     }
 
-    @Override
-    public Integer findLatest() throws SQLException {
-        Integer id = null;
-        try (ResultSet latestAsset = findLatest.executeQuery()) {
-            latestAsset.beforeFirst();
-            if (latestAsset.next()) {
-                id = latestAsset.getInt("id");
-            }
-        }
-        return id;
-    }
-
     @Override
     public void save(Asset asset) throws SQLException {
         if (asset.getId() == null) {
@@ -110,41 +102,93 @@ public class AssetDAOImpl implements AssetRepository {
 
     private void add(Asset asset) throws SQLException {
         if (asset.getId() == null) {
-            addAsset.setString(1, asset.getName());
-            addAsset.setString(2, asset.getFeature());
-            AssetType type = asset.getType();
-            int typeNum = 1;
-            if (type.equals(AssetType.EQUIPMENT)) {
-                typeNum = 0;
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement addAsset = conn.prepareStatement(ADD_ASSET,
+                            Statement.RETURN_GENERATED_KEYS)) {
+                bindInsert(addAsset, asset);
+                addAsset.executeUpdate();
+                try (ResultSet generatedKeys = addAsset.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        asset.setId(generatedKeys.getInt(1));
+                        TransactionalDataSource.onRollback(() -> asset.setId(null));
+                    }
+                }
             }
-            addAsset.setInt(3, typeNum);
-            addAsset.setInt(4, asset.getStock());
-            addAsset.setInt(5, asset.getMaterialCost());
-            addAsset.executeUpdate();
         }
     }
 
     private void update(Asset asset) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement updateAsset = conn.prepareStatement(UPDATE_ASSET)) {
+            bindUpdate(updateAsset, asset);
+            updateAsset.executeUpdate();
+        }
+    }
+
+    @Override
+    public boolean adjustStock(Integer id, int delta) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return adjustStock(conn, id, delta);
+        }
+    }
+
+    /**
+     * Adds the specified number to the stock of the asset on the given
+     * connection, so it can be part of a longer database transaction.
+     */
+    static boolean adjustStock(Connection conn, Integer id, int delta) throws SQLException {
+        try (PreparedStatement adjustStock = conn.prepareStatement(ADJUST_STOCK)) {
+            adjustStock.setInt(1, delta);
+            adjustStock.setInt(2, id);
+            return adjustStock.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public void evict(Integer id) {
+    }
+
+    @Override
+    public void saveAll(Collection<Asset> assets) throws SQLException {
+        batchWriter.saveAll(dataSource, assets);
+    }
+
+    private void bindInsert(PreparedStatement statement, Asset asset) throws SQLException {
+        bindDescription(statement, asset);
+        statement.setInt(4, asset.getStock());
+        statement.setInt(5, asset.getMaterialCost());
+    }
+
+    /**
+     * Binds the columns of an update, which leaves the stock to
+     * {@link #adjustStock(java.lang.Integer, int)}.
+     */
+    private void bindUpdate(PreparedStatement statement, Asset asset) throws SQLException {
+        bindDescription(statement, asset);
+        statement.setInt(4, asset.getMaterialCost());
+        statement.setInt(5, asset.getId());
+    }
+
+    private void bindDescription(PreparedStatement statement, Asset asset) throws SQLException {
         AssetType type = asset.getType();
         int typeNum = 1;
         if (type.equals(AssetType.EQUIPMENT)) {
             typeNum = 0;
         }
-        updateAsset.setString(1, asset.getName());
-        updateAsset.setString(2, asset.getFeature());
-        updateAsset.setInt(3, typeNum);
-        updateAsset.setInt(4, asset.getStock());
-        updateAsset.setInt(5, asset.getMaterialCost());
-        updateAsset.setInt(6, asset.getId());
-        updateAsset.executeUpdate();
+        statement.setString(1, asset.getName());
+        statement.setString(2, asset.getFeature());
+        statement.setInt(3, typeNum);
     }
 
     @Override
     public boolean delete(Asset asset) throws SQLException {
         Integer id = asset.getId();
         if (id != null) {
-            this.deleteAsset.setInt(1, id);
-            this.deleteAsset.executeUpdate();
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement deleteAsset = conn.prepareStatement(DELETE_ASSET)) {
+                deleteAsset.setInt(1, id);
+                deleteAsset.executeUpdate();
+            }
             return true;
         }
         return false;
@@ -152,13 +196,16 @@ public class AssetDAOImpl implements AssetRepository {
 
     @Override
     public void close() throws SQLException {
-        findAllProducts.close();
-        findAllEquipment.close();
-        findById.close();
-        findLatest.close();
-        addAsset.close();
-        updateAsset.close();
-        deleteAsset.close();
+    }
+
+    private List<Asset> findList(String query) throws SQLException {
+        List<Asset> assets;
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement statement = conn.prepareStatement(query);
+                ResultSet rs = statement.executeQuery()) {
+            assets = makeList(rs);
+        }
+        return assets;
     }
 
     private List<Asset> makeList(ResultSet rs) throws
@@ -2,6 +2,7 @@ package com.csontaka.transaction_record_app.dao;
 
 import com.csontaka.transaction_record_app.entity.Asset;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -51,16 +52,10 @@ public interface AssetRepository {
     public Asset findById(Integer id) throws SQLException;
 
     /**
-     * Gets an <code>Asset</code> object with
-     * the highest id value.
-     *
-     * @return An <code>Asset</code> object.
-     * @throws SQLException If an SQL exception occurs.
-     */
-    public Integer findLatest() throws SQLException;
-
-    /**
-     * Saves the given <code>Asset</code> object to the database.
+     * Saves the given <code>Asset</code> object to the database. A new asset
+     * gets the id generated by the database. The stock of an existing asset is
+     * not written, because it is only changed with
+     * {@link #adjustStock(java.lang.Integer, int)}.
      *
      * @param asset An <code>Asset</code> object to save.
      * @throws SQLException If an SQL exception occurs.
@@ -77,7 +72,39 @@ public interface AssetRepository {
     public boolean delete(Asset asset) throws SQLException;
 
     /**
-     * Close the <code>PreparedStatement</code> objects of the class.
+     * Adds the specified number to the stock of the asset in the database in
+     * one statement, so changes made at the same time are not lost. A negative
+     * number decreases the stock.
+     *
+     * @param id An Integer containing the asset's id.
+     * @param delta An int containing the number to add to the stock.
+     * @return True if the asset exists, false if not.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public boolean adjustStock(Integer id, int delta) throws SQLException;
+
+    /**
+     * Drops the copy of the asset kept by the repository, so the next lookup
+     * reads it from the database. Used after the asset was changed in the
+     * database by another repository.
+     *
+     * @param id An Integer containing the asset's id.
+     */
+    public void evict(Integer id);
+
+    /**
+     * Saves the given <code>Asset</code> objects to the database in one
+     * transaction, sending the statements in batches. The new assets get the
+     * ids generated by the database. Nothing is saved if one of them fails.
+     * The stock of the existing assets is not written.
+     *
+     * @param assets A Collection of <code>Asset</code> objects to save.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void saveAll(Collection<Asset> assets) throws SQLException;
+
+    /**
+     * Releases the resources held by the repository.
      *
      * @throws SQLException If an SQL exception occurs.
      */
@@ -0,0 +1,174 @@
+package com.csontaka.transaction_record_app.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.sql.DataSource;
+
+/**
+ * Saves many entities of the same kind with JDBC batches in one database
+ * transaction. New entities are inserted and get the generated ids, the
+ * others are updated. The ids of the inserted entities are set back to null
+ * when the transaction is rolled back, also when it is the transaction of a
+ * unit of work of a {@link TransactionalDataSource}.
+ *
+ * @param <T> The type of the saved entities.
+ * @author Adrienn Csontak
+ */
+class BatchWriter<T> {
+
+    /**
+     * The number of statements sent together when the DAO does not set it.
+     */
+    static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * Sets the parameters of a statement from an entity.
+     *
+     * @param <T> The type of the entity.
+     */
+    interface Binder<T> {
+
+        /**
+         * Sets the parameters of the statement.
+         *
+         * @param statement The statement to set.
+         * @param item The entity holding the values.
+         * @throws SQLException If an SQL exception occurs.
+         */
+        void bind(PreparedStatement statement, T item) throws SQLException;
+    }
+
+    private final String insertSql;
+    private final Binder<T> insertBinder;
+    private final String updateSql;
+    private final Binder<T> updateBinder;
+    private final Function<T, Integer> idGetter;
+    private final BiConsumer<T, Integer> idSetter;
+    private final int batchSize;
+
+    /**
+     * Creates a BatchWriter with the statements and the accessors of an
+     * entity type.
+     *
+     * @param insertSql A String containing the INSERT statement.
+     * @param insertBinder Binds an entity to the INSERT statement.
+     * @param updateSql A String containing the UPDATE statement.
+     * @param updateBinder Binds an entity to the UPDATE statement.
+     * @param idGetter Gets the id of an entity.
+     * @param idSetter Sets the generated id of a new entity.
+     * @param batchSize An int containing the number of statements sent
+     * together.
+     */
+    BatchWriter(String insertSql, Binder<T> insertBinder, String updateSql,
+            Binder<T> updateBinder, Function<T, Integer> idGetter,
+            BiConsumer<T, Integer> idSetter, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive.");
+        }
+        this.insertSql = insertSql;
+        this.insertBinder = insertBinder;
+        this.updateSql = updateSql;
+        this.updateBinder = updateBinder;
+        this.idGetter = idGetter;
+        this.idSetter = idSetter;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Saves the given entities in one transaction. Nothing is saved if any
+     * statement fails.
+     *
+     * @param dataSource The DataSource providing the connection.
+     * @param items The entities to save.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    void saveAll(DataSource dataSource, Collection<? extends T> items) throws SQLException {
+        List<T> inserts = new ArrayList<>();
+        List<T> updates = new ArrayList<>();
+        for (T item : items) {
+            if (idGetter.apply(item) == null) {
+                inserts.add(item);
+            } else {
+                updates.add(item);
+            }
+        }
+        if (inserts.isEmpty() && updates.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (!inserts.isEmpty()) {
+                    insertAll(conn, inserts);
+                }
+                if (!updates.isEmpty()) {
+                    updateAll(conn, updates);
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException ex) {
+                TransactionalDataSource.rollback(conn, ex);
+                resetIds(inserts);
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        if (!inserts.isEmpty()) {
+            TransactionalDataSource.onRollback(() -> resetIds(inserts));
+        }
+    }
+
+    private void resetIds(List<T> inserts) {
+        for (T item : inserts) {
+            idSetter.accept(item, null);
+        }
+    }
+
+    private void insertAll(Connection conn, List<T> inserts) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(insertSql,
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int from = 0; from < inserts.size(); from += batchSize) {
+                List<T> chunk = inserts.subList(from,
+                        Math.min(from + batchSize, inserts.size()));
+                for (T item : chunk) {
+                    insertBinder.bind(insert, item);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                try (ResultSet generatedKeys = insert.getGeneratedKeys()) {
+                    for (T item : chunk) {
+                        if (!generatedKeys.next()) {
+                            break;
+                        }
+                        idSetter.accept(item, generatedKeys.getInt(1));
+                    }
+                }
+            }
+        }
+    }
+
+    private void updateAll(Connection conn, List<T> updates) throws SQLException {
+        try (PreparedStatement update = conn.prepareStatement(updateSql)) {
+            int count = 0;
+            for (T item : updates) {
+                updateBinder.bind(update, item);
+                update.addBatch();
+                if (++count % batchSize == 0) {
+                    update.executeBatch();
+                }
+            }
+            if (count % batchSize != 0) {
+                update.executeBatch();
+            }
+        }
+    }
+}
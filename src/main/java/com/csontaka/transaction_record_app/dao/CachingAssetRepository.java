@@ -0,0 +1,171 @@
+package com.csontaka.transaction_record_app.dao;
+
+import com.csontaka.transaction_record_app.entity.Asset;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that implements the methods of
+ * {@link com.csontaka.transaction_record_app.dao.AssetRepository} interface by
+ * keeping the recently used assets by id in an
+ * {@link com.csontaka.transaction_record_app.dao.LruCache} and delegating to
+ * another <code>AssetRepository</code> when an asset is not cached. The cache
+ * keeps its own copies and hands out copies, so a caller changing a returned
+ * asset does not change the cached one. The written assets are evicted after
+ * the write is committed, and a value read before that is not cached, because
+ * the cache starts a new generation with every eviction. Inside a unit of
+ * work the cache is not used, so the unit reads its own writes and the values
+ * it has not committed are never cached.
+ *
+ * @author Adrienn Csontak
+ */
+public class CachingAssetRepository implements AssetRepository {
+
+    private final AssetRepository delegate;
+    private final LruCache<Integer, Asset> cache;
+
+    /**
+     * Creates a CachingAssetRepository with the specified repository and cache
+     * size.
+     *
+     * @param delegate The <code>AssetRepository</code> reading and writing the
+     * database.
+     * @param maxSize An int containing the maximum number of cached assets.
+     */
+    public CachingAssetRepository(AssetRepository delegate, int maxSize) {
+        this.delegate = delegate;
+        this.cache = new LruCache<>(maxSize);
+    }
+
+    @Override
+    public List<Asset> findAll() throws SQLException {
+        long generation = cache.getGeneration();
+        return cacheAll(delegate.findAll(), generation);
+    }
+
+    @Override
+    public List<Asset> findAllProducts() throws SQLException {
+        long generation = cache.getGeneration();
+        return cacheAll(delegate.findAllProducts(), generation);
+    }
+
+    @Override
+    public List<Asset> findAllEquipment() throws SQLException {
+        long generation = cache.getGeneration();
+        return cacheAll(delegate.findAllEquipment(), generation);
+    }
+
+    @Override
+    public Asset findById(Integer id) throws SQLException {
+        if (TransactionalDataSource.isUnitOfWorkRunning()) {
+            return delegate.findById(id);
+        }
+        Asset asset = cache.get(id);
+        if (asset == null) {
+            long generation = cache.getGeneration();
+            asset = delegate.findById(id);
+            if (asset != null) {
+                cache.put(id, new Asset(asset), generation);
+            }
+            return asset;
+        }
+        return new Asset(asset);
+    }
+
+    @Override
+    public void save(Asset asset) throws SQLException {
+        try {
+            delegate.save(asset);
+        } finally {
+            forgetAfterCommit(asset);
+        }
+    }
+
+    @Override
+    public boolean adjustStock(Integer id, int delta) throws SQLException {
+        try {
+            return delegate.adjustStock(id, delta);
+        } finally {
+            TransactionalDataSource.onCommit(() -> cache.remove(id));
+        }
+    }
+
+    @Override
+    public void evict(Integer id) {
+        cache.remove(id);
+        delegate.evict(id);
+    }
+
+    @Override
+    public void saveAll(Collection<Asset> assets) throws SQLException {
+        try {
+            delegate.saveAll(assets);
+        } finally {
+            forgetAllAfterCommit(assets);
+        }
+    }
+
+    @Override
+    public boolean delete(Asset asset) throws SQLException {
+        try {
+            return delegate.delete(asset);
+        } finally {
+            forgetAfterCommit(asset);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        Logger.getLogger(CachingAssetRepository.class.getName()).log(Level.INFO,
+                "Asset cache hits: {0}, misses: {1}",
+                new Object[]{cache.getHits(), cache.getMisses()});
+        cache.clear();
+        delegate.close();
+    }
+
+    /**
+     * Gets the number of asset lookups served from the cache.
+     *
+     * @return A long representing the number of hits.
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Gets the number of asset lookups that had to query the database.
+     *
+     * @return A long representing the number of misses.
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    private void forgetAfterCommit(Asset asset) {
+        Integer id = asset.getId();
+        if (id != null) {
+            TransactionalDataSource.onCommit(() -> cache.remove(id));
+        }
+    }
+
+    private void forgetAllAfterCommit(Collection<Asset> assets) {
+        for (Asset asset : assets) {
+            forgetAfterCommit(asset);
+        }
+    }
+
+    /**
+     * Caches the assets read by the delegate after the specified generation.
+     */
+    private List<Asset> cacheAll(List<Asset> assets, long generation) {
+        if (!TransactionalDataSource.isUnitOfWorkRunning()) {
+            for (Asset asset : assets) {
+                cache.put(asset.getId(), new Asset(asset), generation);
+            }
+        }
+        return assets;
+    }
+}
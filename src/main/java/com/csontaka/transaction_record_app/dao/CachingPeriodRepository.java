@@ -0,0 +1,158 @@
+package com.csontaka.transaction_record_app.dao;
+
+import com.csontaka.transaction_record_app.entity.Period;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that implements the methods of
+ * {@link com.csontaka.transaction_record_app.dao.PeriodRepository} interface by
+ * keeping the recently used periods by id in an
+ * {@link com.csontaka.transaction_record_app.dao.LruCache} and delegating to
+ * another <code>PeriodRepository</code> when a period is not cached. The cache
+ * keeps its own copies and hands out copies, so a caller changing a returned
+ * period does not change the cached one. The written periods are evicted
+ * after the write is committed, and a value read before that is not cached,
+ * because the cache starts a new generation with every eviction. Inside a
+ * unit of work the cache is not used, so the unit reads its own writes and
+ * the values it has not committed are never cached.
+ *
+ * @author Adrienn Csontak
+ */
+public class CachingPeriodRepository implements PeriodRepository {
+
+    private final PeriodRepository delegate;
+    private final LruCache<Integer, Period> cache;
+
+    /**
+     * Creates a CachingPeriodRepository with the specified repository and
+     * cache size.
+     *
+     * @param delegate The <code>PeriodRepository</code> reading and writing the
+     * database.
+     * @param maxSize An int containing the maximum number of cached periods.
+     */
+    public CachingPeriodRepository(PeriodRepository delegate, int maxSize) {
+        this.delegate = delegate;
+        this.cache = new LruCache<>(maxSize);
+    }
+
+    @Override
+    public List<Period> findAll() throws SQLException {
+        long generation = cache.getGeneration();
+        return cacheAll(delegate.findAll(), generation);
+    }
+
+    @Override
+    public Period findById(Integer id) throws SQLException {
+        if (TransactionalDataSource.isUnitOfWorkRunning()) {
+            return delegate.findById(id);
+        }
+        Period period = cache.get(id);
+        if (period == null) {
+            long generation = cache.getGeneration();
+            period = delegate.findById(id);
+            if (period != null) {
+                cache.put(id, new Period(period), generation);
+            }
+            return period;
+        }
+        return new Period(period);
+    }
+
+    @Override
+    public Period findByDate(YearMonth yearMonth) throws SQLException {
+        return delegate.findByDate(yearMonth);
+    }
+
+    @Override
+    public List<Period> findAfter(YearMonth date) throws SQLException {
+        long generation = cache.getGeneration();
+        return cacheAll(delegate.findAfter(date), generation);
+    }
+
+    @Override
+    public List<Period> findBefore(YearMonth date) throws SQLException {
+        long generation = cache.getGeneration();
+        return cacheAll(delegate.findBefore(date), generation);
+    }
+
+    @Override
+    public Period findLatest() throws SQLException {
+        return delegate.findLatest();
+    }
+
+    @Override
+    public void save(Period period) throws SQLException {
+        try {
+            delegate.save(period);
+        } finally {
+            forgetAfterCommit(period);
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Period> periods) throws SQLException {
+        try {
+            delegate.saveAll(periods);
+        } finally {
+            forgetAllAfterCommit(periods);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        Logger.getLogger(CachingPeriodRepository.class.getName()).log(Level.INFO,
+                "Period cache hits: {0}, misses: {1}",
+                new Object[]{cache.getHits(), cache.getMisses()});
+        cache.clear();
+        delegate.close();
+    }
+
+    /**
+     * Gets the number of period lookups served from the cache.
+     *
+     * @return A long representing the number of hits.
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Gets the number of period lookups that had to query the database.
+     *
+     * @return A long representing the number of misses.
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    private void forgetAfterCommit(Period period) {
+        Integer id = period.getId();
+        if (id != null) {
+            TransactionalDataSource.onCommit(() -> cache.remove(id));
+        }
+    }
+
+    private void forgetAllAfterCommit(Collection<Period> periods) {
+        for (Period period : periods) {
+            forgetAfterCommit(period);
+        }
+    }
+
+    /**
+     * Caches the periods read by the delegate after the specified generation.
+     */
+    private List<Period> cacheAll(List<Period> periods, long generation) {
+        if (!TransactionalDataSource.isUnitOfWorkRunning()) {
+            for (Period period : periods) {
+                cache.put(period.getId(), new Period(period), generation);
+            }
+        }
+        return periods;
+    }
+}
@@ -0,0 +1,304 @@
+package com.csontaka.transaction_record_app.dao;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * A <code>DataSource</code> that keeps a bounded number of database
+ * connections open and lends them to the callers. Closing a borrowed
+ * connection gives it back to the pool instead of closing it. A connection is
+ * only checked with <code>isValid</code> when it was idle longer than
+ * {@value #VALIDATE_AFTER_IDLE_MILLIS} milliseconds, so a busy pool does not
+ * ping the server before every statement. The statements and the database
+ * metadata of a borrowed connection return the borrowed connection from
+ * <code>getConnection</code>, never the physical one.
+ *
+ * @author Adrienn Csontak
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    /**
+     * The number of connections used when the configuration does not set it.
+     */
+    public static final int DEFAULT_POOL_SIZE = 4;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    /**
+     * The idle time after which a connection is validated before it is lent.
+     */
+    public static final long VALIDATE_AFTER_IDLE_MILLIS = 30_000;
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+    /**
+     * The backend used when the configuration does not set it.
+     */
+    public static final String DEFAULT_BACKEND = "mysql";
+    private static final String DEFAULT_H2_FILE = "./transaction_records";
+    private static final String H2_OPTIONS = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE"
+            + ";NON_KEYWORDS=YEAR,MONTH";
+    private static final String MYSQL_OPTIONS = "?cachePrepStmts=true"
+            + "&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048&useServerPrepStmts=true"
+            + "&rewriteBatchedStatements=true";
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final BlockingQueue<IdleConnection> idle;
+    private final Semaphore permits;
+    private volatile boolean closed;
+
+    /**
+     * Creates a ConnectionPool with the specified JDBC url, credentials and
+     * maximum number of connections.
+     *
+     * @param url A String containing the JDBC url of the database.
+     * @param user A String containing the database user.
+     * @param password A String containing the password of the user.
+     * @param maxSize An int containing the maximum number of open
+     * connections.
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.idle = new LinkedBlockingQueue<>();
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Creates a ConnectionPool for the database selected by the backend
+     * property. The mysql backend connects to the server described by the
+     * server, port_number and database properties, and the driver is asked
+     * to cache the prepared statements of every connection and to send the
+     * batched inserts as multi-row statements. The h2 backend runs an
+     * embedded database in the application's process, stored in the file set
+     * by the h2_file property. Both use the user, password and the optional
+     * pool_size properties.
+     *
+     * @param prop A <code>Properties</code> object containing the
+     * configuration.
+     * @return A ConnectionPool object.
+     * @throws IllegalArgumentException If the backend is not known.
+     */
+    public static ConnectionPool fromProperties(Properties prop) {
+        String backend = prop.getProperty("backend", DEFAULT_BACKEND).trim();
+        String url;
+        if (backend.equalsIgnoreCase("mysql")) {
+            String server = prop.getProperty("server");
+            String portNumber = prop.getProperty("port_number");
+            String database = prop.getProperty("database");
+            url = "jdbc:mysql://" + server + ":" + portNumber + "/" + database
+                    + MYSQL_OPTIONS;
+        } else if (backend.equalsIgnoreCase("h2")) {
+            url = "jdbc:h2:file:" + prop.getProperty("h2_file", DEFAULT_H2_FILE)
+                    + H2_OPTIONS;
+        } else {
+            throw new IllegalArgumentException("Unknown database backend: " + backend);
+        }
+        int poolSize = Integer.parseInt(prop.getProperty("pool_size",
+                String.valueOf(DEFAULT_POOL_SIZE)));
+        return new ConnectionPool(url, prop.getProperty("user"),
+                prop.getProperty("password"), poolSize);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("The connection pool is closed.");
+        }
+        try {
+            if (!permits.tryAcquire(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new SQLException("Timed out waiting for a database connection.");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", ex);
+        }
+        try {
+            Connection physical = null;
+            IdleConnection candidate;
+            while (physical == null && (candidate = idle.poll()) != null) {
+                if (candidate.isUsable()) {
+                    physical = candidate.connection;
+                } else {
+                    closeQuietly(candidate.connection);
+                }
+            }
+            if (physical == null) {
+                physical = DriverManager.getConnection(url, user, password);
+            }
+            return borrow(physical);
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private Connection borrow(Connection physical) {
+        boolean[] returned = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("close")) {
+                        if (!returned[0]) {
+                            returned[0] = true;
+                            giveBack(physical);
+                        }
+                        return null;
+                    }
+                    if (name.equals("isClosed")) {
+                        return returned[0] || physical.isClosed();
+                    }
+                    if (returned[0]) {
+                        throw new SQLException("The connection has been returned to the pool.");
+                    }
+                    Object result = invoke(physical, method, args);
+                    return wrapChild(result, method.getReturnType(), (Connection) proxy);
+                });
+    }
+
+    /**
+     * Wraps the statements and the metadata created by a borrowed connection,
+     * so their getConnection method returns the borrowed connection.
+     */
+    private static Object wrapChild(Object child, Class<?> type, Connection pooled) {
+        if (child == null || !(Statement.class.isAssignableFrom(type)
+                || type == DatabaseMetaData.class)) {
+            return child;
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")
+                            && method.getParameterCount() == 0) {
+                        return pooled;
+                    }
+                    return invoke(child, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args)
+            throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private void giveBack(Connection physical) {
+        try {
+            if (closed || physical.isClosed()) {
+                closeQuietly(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            idle.offer(new IdleConnection(physical));
+        } catch (SQLException ex) {
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void closeQuietly(Connection physical) {
+        try {
+            physical.close();
+        } catch (SQLException ex) {
+            Logger.getLogger(ConnectionPool.class.getName()).fine(ex.getMessage());
+        }
+    }
+
+    /**
+     * Closes the idle connections and makes the pool refuse further requests.
+     * Borrowed connections are closed when they are given back.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        IdleConnection idleConnection;
+        while ((idleConnection = idle.poll()) != null) {
+            closeQuietly(idleConnection.connection);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The pool uses the configured user.");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A connection waiting in the pool and the time it was given back.
+     */
+    private static class IdleConnection {
+
+        private final Connection connection;
+        private final long since = System.currentTimeMillis();
+
+        IdleConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        boolean isUsable() {
+            if (System.currentTimeMillis() - since < VALIDATE_AFTER_IDLE_MILLIS) {
+                return true;
+            }
+            try {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException ex) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.csontaka.transaction_record_app.dao;
+
+import com.csontaka.transaction_record_app.entity.Asset;
+import com.csontaka.transaction_record_app.entity.AssetType;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Class that implements the methods of
+ * {@link com.csontaka.transaction_record_app.dao.AssetRepository} interface by
+ * keeping the assets in memory in the order of their id. The stored assets
+ * are copies, so changing a returned or saved object does not change the
+ * repository until it is saved again.
+ *
+ * @author Adrienn Csontak
+ */
+public class InMemoryAssetRepository implements AssetRepository {
+
+    private final TreeMap<Integer, Asset> assets = new TreeMap<>();
+    private int lastId;
+
+    /**
+     * Creates an empty InMemoryAssetRepository.
+     */
+    public InMemoryAssetRepository() {
+
+    }
+
+    /**
+     * Copies every asset of the specified repository with its id.
+     *
+     * @param source The <code>AssetRepository</code> to copy the assets from.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public synchronized void loadFrom(AssetRepository source) throws SQLException {
+        for (Asset asset : source.findAll()) {
+            assets.put(asset.getId(), copy(asset));
+            lastId = Math.max(lastId, asset.getId());
+        }
+    }
+
+    @Override
+    public synchronized List<Asset> findAll() throws SQLException {
+        List<Asset> found = new ArrayList<>(assets.size());
+        for (Asset asset : assets.values()) {
+            found.add(copy(asset));
+        }
+        return found;
+    }
+
+    @Override
+    public List<Asset> findAllProducts() throws SQLException {
+        return findByType(AssetType.PRODUCT);
+    }
+
+    @Override
+    public List<Asset> findAllEquipment() throws SQLException {
+        return findByType(AssetType.EQUIPMENT);
+    }
+
+    private synchronized List<Asset> findByType(AssetType type) {
+        List<Asset> found = new ArrayList<>();
+        for (Asset asset : assets.values()) {
+            if (asset.getType() == type) {
+                found.add(copy(asset));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized Asset findById(Integer id) throws SQLException {
+        Asset asset = assets.get(id);
+        return asset == null ? null : copy(asset);
+    }
+
+    /**
+     * {@inheritDoc} An asset with an id that is not in the repository is not
+     * saved, an <code>SQLException</code> is thrown instead.
+     */
+    @Override
+    public synchronized void save(Asset asset) throws SQLException {
+        if (asset.getId() == null) {
+            asset.setId(++lastId);
+            assets.put(asset.getId(), copy(asset));
+            return;
+        }
+        Asset old = require(asset);
+        Asset changed = copy(asset);
+        changed.setStock(old.getStock());
+        assets.put(asset.getId(), changed);
+    }
+
+    @Override
+    public synchronized boolean delete(Asset asset) throws SQLException {
+        Integer id = asset.getId();
+        if (id != null) {
+            assets.remove(id);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized boolean adjustStock(Integer id, int delta) throws SQLException {
+        Asset asset = assets.get(id);
+        if (asset == null) {
+            return false;
+        }
+        asset.setStock(asset.getStock() + delta);
+        return true;
+    }
+
+    @Override
+    public void evict(Integer id) {
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<Asset> toSave) throws SQLException {
+        for (Asset asset : toSave) {
+            if (asset.getId() != null) {
+                require(asset);
+            }
+        }
+        for (Asset asset : toSave) {
+            save(asset);
+        }
+    }
+
+    private Asset require(Asset asset) throws SQLException {
+        Asset old = assets.get(asset.getId());
+        if (old == null) {
+            throw new SQLException("No asset with id " + asset.getId() + ".");
+        }
+        return old;
+    }
+
+    @Override
+    public void close() throws SQLException {
+    }
+
+    private static Asset copy(Asset asset) {
+        Asset copy = new Asset(asset.getName(), asset.getFeature(), asset.getType());
+        copy.setId(asset.getId());
+        copy.setStock(asset.getStock());
+        copy.setMaterialCost(asset.getMaterialCost());
+        return copy;
+    }
+}
@@ -0,0 +1,145 @@
+package com.csontaka.transaction_record_app.dao;
+
+import com.csontaka.transaction_record_app.entity.Period;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Class that implements the methods of
+ * {@link com.csontaka.transaction_record_app.dao.PeriodRepository} interface by
+ * keeping the periods in memory in the order of their id, with an index
+ * ordered by date. The stored periods are copies, so changing a returned or saved object
+ * does not change the repository until it is saved again.
+ *
+ * @author Adrienn Csontak
+ */
+public class InMemoryPeriodRepository implements PeriodRepository {
+
+    private final TreeMap<Integer, Period> periods = new TreeMap<>();
+    private final TreeMap<YearMonth, Integer> idsByDate = new TreeMap<>();
+    private int lastId;
+
+    /**
+     * Creates an empty InMemoryPeriodRepository.
+     */
+    public InMemoryPeriodRepository() {
+
+    }
+
+    /**
+     * Copies every period of the specified repository with its id.
+     *
+     * @param source The <code>PeriodRepository</code> to copy the periods
+     * from.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public synchronized void loadFrom(PeriodRepository source) throws SQLException {
+        for (Period period : source.findAll()) {
+            put(period);
+            lastId = Math.max(lastId, period.getId());
+        }
+    }
+
+    @Override
+    public synchronized List<Period> findAll() throws SQLException {
+        return copyAll(periods.values());
+    }
+
+    @Override
+    public synchronized Period findById(Integer id) throws SQLException {
+        Period period = periods.get(id);
+        return period == null ? null : copy(period);
+    }
+
+    @Override
+    public synchronized Period findByDate(YearMonth yearMonth) throws SQLException {
+        Integer id = idsByDate.get(yearMonth);
+        return id == null ? null : copy(periods.get(id));
+    }
+
+    @Override
+    public synchronized List<Period> findAfter(YearMonth date) throws SQLException {
+        return copyByIds(idsByDate.tailMap(date, false).values());
+    }
+
+    @Override
+    public synchronized List<Period> findBefore(YearMonth date) throws SQLException {
+        return copyByIds(idsByDate.headMap(date, false).values());
+    }
+
+    @Override
+    public synchronized Period findLatest() throws SQLException {
+        return idsByDate.isEmpty() ? null : copy(periods.get(idsByDate.lastEntry().getValue()));
+    }
+
+    /**
+     * {@inheritDoc} A period with an id that is not in the repository is not
+     * saved, an <code>SQLException</code> is thrown instead.
+     */
+    @Override
+    public synchronized void save(Period period) throws SQLException {
+        if (period.getId() == null) {
+            period.setId(++lastId);
+        } else {
+            require(period);
+        }
+        put(period);
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<Period> toSave) throws SQLException {
+        for (Period period : toSave) {
+            if (period.getId() != null) {
+                require(period);
+            }
+        }
+        for (Period period : toSave) {
+            save(period);
+        }
+    }
+
+    private void require(Period period) throws SQLException {
+        if (!periods.containsKey(period.getId())) {
+            throw new SQLException("No period with id " + period.getId() + ".");
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+    }
+
+    private void put(Period period) {
+        Period old = periods.put(period.getId(), copy(period));
+        if (old != null) {
+            idsByDate.remove(old.getDate());
+        }
+        idsByDate.put(period.getDate(), period.getId());
+    }
+
+    private static List<Period> copyAll(Collection<Period> periods) {
+        List<Period> copies = new ArrayList<>(periods.size());
+        for (Period period : periods) {
+            copies.add(copy(period));
+        }
+        return copies;
+    }
+
+    private List<Period> copyByIds(Collection<Integer> ids) {
+        List<Period> copies = new ArrayList<>();
+        for (Integer id : ids) {
+            copies.add(copy(periods.get(id)));
+        }
+        return copies;
+    }
+
+    private static Period copy(Period period) {
+        Period copy = new Period(period.getDate());
+        copy.setId(period.getId());
+        copy.setGoal(period.getGoal());
+        return copy;
+    }
+}
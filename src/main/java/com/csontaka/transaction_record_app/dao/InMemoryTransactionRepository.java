@@ -0,0 +1,621 @@
+package com.csontaka.transaction_record_app.dao;
+
+import com.csontaka.transaction_record_app.entity.Asset;
+import com.csontaka.transaction_record_app.entity.AssetType;
+import com.csontaka.transaction_record_app.entity.Period;
+import com.csontaka.transaction_record_app.entity.PeriodTotals;
+import com.csontaka.transaction_record_app.entity.Transaction;
+import com.csontaka.transaction_record_app.entity.TransactionRow;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Class that implements the methods of
+ * {@link com.csontaka.transaction_record_app.dao.TransactionRepository}
+ * interface by keeping the transactions in memory.
+ *
+ * <p>
+ * The fields of the transactions are stored in parallel int arrays in the
+ * order of their id, so a transaction takes 20 bytes instead of a
+ * <code>Transaction</code> object with boxed fields. The rows of a period and
+ * of an asset are indexed, so finding them takes time proportional to the
+ * number of found transactions. The asset names, types and the period dates
+ * are read from the given asset and period repositories. Deleting a
+ * transaction moves the ones after it, so it takes time proportional to the
+ * number of transactions. A query ordered by another column than the id, or
+ * in descending order, sorts every matching transaction.</p>
+ *
+ * @author Adrienn Csontak
+ */
+public class InMemoryTransactionRepository implements TransactionRepository {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int CHUNK_SIZE = 1000;
+
+    private final AssetRepository assets;
+    private final PeriodRepository periods;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] periodIds = new int[INITIAL_CAPACITY];
+    private int[] assetIds = new int[INITIAL_CAPACITY];
+    private int[] amounts = new int[INITIAL_CAPACITY];
+    private int[] prices = new int[INITIAL_CAPACITY];
+    private int size;
+    private int lastId;
+    private final Map<Integer, IntList> rowsByPeriod = new HashMap<>();
+    private final Map<Integer, IntList> rowsByAsset = new HashMap<>();
+
+    /**
+     * Creates an empty InMemoryTransactionRepository reading the assets and
+     * the periods of the transactions from the specified repositories.
+     *
+     * @param assets The <code>AssetRepository</code> of the transactions'
+     * assets.
+     * @param periods The <code>PeriodRepository</code> of the transactions'
+     * periods.
+     */
+    public InMemoryTransactionRepository(AssetRepository assets, PeriodRepository periods) {
+        this.assets = assets;
+        this.periods = periods;
+    }
+
+    /**
+     * Copies every transaction of the specified repository with its id. The
+     * transactions are streamed from the source, so they are never held as
+     * objects at the same time.
+     *
+     * @param source The <code>TransactionRepository</code> to copy the
+     * transactions from.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public synchronized void loadFrom(TransactionRepository source) throws SQLException {
+        boolean[] sorted = {true};
+        source.forEach(transaction -> {
+            int id = transaction.getId();
+            if (size > 0 && id <= ids[size - 1]) {
+                sorted[0] = false;
+            }
+            append(id, transaction);
+            lastId = Math.max(lastId, id);
+        });
+        if (!sorted[0]) {
+            sortById();
+        }
+        rebuildIndexes();
+    }
+
+    @Override
+    public synchronized List<Transaction> findAll() throws SQLException {
+        List<Transaction> found = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            found.add(makeOne(row));
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized Transaction findById(Integer id) throws SQLException {
+        int row = rowOf(id);
+        return row < 0 ? null : makeOne(row);
+    }
+
+    @Override
+    public synchronized List<Transaction> findByAssetId(Integer assetId) throws SQLException {
+        return makeList(rowsByAsset.get(assetId));
+    }
+
+    @Override
+    public synchronized List<Transaction> findByPeriodId(Integer periodId) throws SQLException {
+        return makeList(rowsByPeriod.get(periodId));
+    }
+
+    @Override
+    public List<Transaction> findAllIncome() throws SQLException {
+        return findAllOfType(AssetType.PRODUCT);
+    }
+
+    @Override
+    public List<Transaction> findAllExpense() throws SQLException {
+        return findAllOfType(AssetType.EQUIPMENT);
+    }
+
+    private synchronized List<Transaction> findAllOfType(AssetType type) throws SQLException {
+        Lookup lookup = new Lookup();
+        List<Transaction> found = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            Asset asset = lookup.asset(assetIds[row]);
+            if (asset != null && asset.getType() == type) {
+                found.add(makeOne(row));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<TransactionRow> findAllIncomeRows() throws SQLException {
+        return find(new TransactionQuery(AssetType.PRODUCT));
+    }
+
+    @Override
+    public List<TransactionRow> findAllExpenseRows() throws SQLException {
+        return find(new TransactionQuery(AssetType.EQUIPMENT));
+    }
+
+    @Override
+    public synchronized List<TransactionRow> find(TransactionQuery query) throws SQLException {
+        Lookup lookup = new Lookup();
+        int skip = query.getOffset();
+        int limit = query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+        if (isSorted(query)) {
+            List<TransactionRow> sorted = sortedRows(query, lookup);
+            int from = Math.min(skip, sorted.size());
+            int to = (int) Math.min(sorted.size(), (long) from + limit);
+            return new ArrayList<>(sorted.subList(from, to));
+        }
+        List<TransactionRow> found = new ArrayList<>();
+        int start = query.getAfterId() == null ? 0 : firstRowAfter(query.getAfterId());
+        IntList candidates = indexedRows(query, start);
+        int end = candidates == null ? size : candidates.size;
+        for (int i = candidates == null ? start : 0; i < end && found.size() < limit; i++) {
+            int row = candidates == null ? i : candidates.values[i];
+            if (matches(row, query, lookup)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    found.add(makeRow(row, lookup));
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized int count(TransactionQuery query) throws SQLException {
+        Lookup lookup = new Lookup();
+        if (isSorted(query) && query.getAfterId() != null) {
+            return sortedRows(query, lookup).size();
+        }
+        int count = 0;
+        int start = query.getAfterId() == null ? 0 : firstRowAfter(query.getAfterId());
+        IntList candidates = indexedRows(query, start);
+        int end = candidates == null ? size : candidates.size;
+        for (int i = candidates == null ? start : 0; i < end; i++) {
+            int row = candidates == null ? i : candidates.values[i];
+            if (matches(row, query, lookup)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc} The rows are read in chunks, and the action is run
+     * without holding the lock of the repository.
+     */
+    @Override
+    public void forEachRow(TransactionQuery query, Consumer<TransactionRow> action)
+            throws SQLException {
+        TransactionQuery chunkQuery = new TransactionQuery(query);
+        chunkQuery.setOffset(0);
+        chunkQuery.setLimit(CHUNK_SIZE);
+        List<TransactionRow> chunk;
+        do {
+            chunk = find(chunkQuery);
+            for (TransactionRow row : chunk) {
+                action.accept(row);
+            }
+            if (!chunk.isEmpty()) {
+                chunkQuery.continueAfter(chunk.get(chunk.size() - 1));
+            }
+        } while (chunk.size() == CHUNK_SIZE);
+    }
+
+    private static boolean isSorted(TransactionQuery query) {
+        return query.getSortColumn() != TransactionQuery.SortColumn.ID || query.isDescending();
+    }
+
+    /**
+     * Gets the rows matching a query after its starting row, in the order of
+     * the query.
+     */
+    private List<TransactionRow> sortedRows(TransactionQuery query, Lookup lookup)
+            throws SQLException {
+        TransactionQuery.SortColumn column = query.getSortColumn();
+        int sign = query.isDescending() ? -1 : 1;
+        List<TransactionRow> rows = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if (matches(row, query, lookup)) {
+                TransactionRow found = makeRow(row, lookup);
+                if (query.getAfterId() == null
+                        || sign * compareKeys(column.valueOf(found), found.getId(),
+                                query.getAfterValue() != null ? query.getAfterValue()
+                                : query.getAfterId(), query.getAfterId()) > 0) {
+                    rows.add(found);
+                }
+            }
+        }
+        rows.sort((a, b) -> sign * compareKeys(column.valueOf(a), a.getId(),
+                column.valueOf(b), b.getId()));
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareKeys(Object value, int id, Object otherValue, int otherId) {
+        int result = ((Comparable<Object>) value).compareTo(otherValue);
+        return result != 0 ? result : Integer.compare(id, otherId);
+    }
+
+    /**
+     * {@inheritDoc} The transactions are read in chunks, and the action is
+     * run without holding the lock of the repository.
+     */
+    @Override
+    public void forEach(Consumer<Transaction> action) throws SQLException {
+        int afterId = 0;
+        List<Transaction> chunk;
+        do {
+            chunk = findChunk(afterId);
+            for (Transaction transaction : chunk) {
+                action.accept(transaction);
+            }
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == CHUNK_SIZE);
+    }
+
+    private synchronized List<Transaction> findChunk(int afterId) {
+        List<Transaction> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int row = firstRowAfter(afterId); row < size && chunk.size() < CHUNK_SIZE; row++) {
+            chunk.add(makeOne(row));
+        }
+        return chunk;
+    }
+
+    @Override
+    public synchronized TransactionRow findRowById(Integer id) throws SQLException {
+        int row = rowOf(id);
+        return row < 0 ? null : makeRow(row, new Lookup());
+    }
+
+    @Override
+    public synchronized Map<Integer, PeriodTotals> summarizeByPeriod(AssetType type,
+            YearMonth from, YearMonth to) throws SQLException {
+        Lookup lookup = new Lookup();
+        Map<Integer, PeriodTotals> totals = new HashMap<>();
+        for (YearMonth date = from; !date.isAfter(to); date = date.plusMonths(1)) {
+            Period period = periods.findByDate(date);
+            IntList rows = period == null ? null : rowsByPeriod.get(period.getId());
+            if (rows == null) {
+                continue;
+            }
+            PeriodTotals periodTotals = null;
+            for (int i = 0; i < rows.size; i++) {
+                int row = rows.values[i];
+                Asset asset = lookup.asset(assetIds[row]);
+                if (asset != null && asset.getType() == type) {
+                    if (periodTotals == null) {
+                        periodTotals = new PeriodTotals();
+                        totals.put(period.getId(), periodTotals);
+                    }
+                    periodTotals.add(amounts[row], prices[row]);
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * {@inheritDoc} A transaction with an id that is not in the repository
+     * is not saved, an <code>SQLException</code> is thrown instead.
+     */
+    @Override
+    public synchronized void save(Transaction transaction) throws SQLException {
+        if (transaction.getId() == null) {
+            int id = ++lastId;
+            append(id, transaction);
+            index(rowsByPeriod, transaction.getPeriodId()).add(size - 1);
+            index(rowsByAsset, transaction.getAssetId()).add(size - 1);
+            transaction.setId(id);
+        } else {
+            int row = requireRow(transaction);
+            if (periodIds[row] != transaction.getPeriodId()) {
+                rowsByPeriod.get(periodIds[row]).remove(row);
+                index(rowsByPeriod, transaction.getPeriodId()).insert(row);
+            }
+            if (assetIds[row] != transaction.getAssetId()) {
+                rowsByAsset.get(assetIds[row]).remove(row);
+                index(rowsByAsset, transaction.getAssetId()).insert(row);
+            }
+            periodIds[row] = transaction.getPeriodId();
+            assetIds[row] = transaction.getAssetId();
+            amounts[row] = transaction.getAmount();
+            prices[row] = transaction.getPrice();
+        }
+    }
+
+    @Override
+    public synchronized boolean delete(Integer id) throws SQLException {
+        if (id == null) {
+            return false;
+        }
+        int row = rowOf(id);
+        if (row >= 0) {
+            int moved = size - row - 1;
+            System.arraycopy(ids, row + 1, ids, row, moved);
+            System.arraycopy(periodIds, row + 1, periodIds, row, moved);
+            System.arraycopy(assetIds, row + 1, assetIds, row, moved);
+            System.arraycopy(amounts, row + 1, amounts, row, moved);
+            System.arraycopy(prices, row + 1, prices, row, moved);
+            size--;
+            rebuildIndexes();
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc} The stock is changed through the asset repository while
+     * this repository is locked.
+     */
+    @Override
+    public synchronized void saveWithStock(Transaction transaction) throws SQLException {
+        if (transaction.getId() != null) {
+            int row = requireRow(transaction);
+            assets.adjustStock(assetIds[row], amounts[row]);
+        }
+        save(transaction);
+        assets.adjustStock(transaction.getAssetId(), -transaction.getAmount());
+    }
+
+    @Override
+    public synchronized Transaction deleteWithStock(Integer id) throws SQLException {
+        Transaction old = findById(id);
+        if (old != null) {
+            delete(id);
+            assets.adjustStock(old.getAssetId(), old.getAmount());
+        }
+        return old;
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<Transaction> transactions) throws SQLException {
+        for (Transaction transaction : transactions) {
+            if (transaction.getId() != null) {
+                requireRow(transaction);
+            }
+        }
+        for (Transaction transaction : transactions) {
+            save(transaction);
+        }
+    }
+
+    private int requireRow(Transaction transaction) throws SQLException {
+        int row = rowOf(transaction.getId());
+        if (row < 0) {
+            throw new SQLException("No transaction with id " + transaction.getId() + ".");
+        }
+        return row;
+    }
+
+    @Override
+    public void close() throws SQLException {
+    }
+
+    /**
+     * Collects the rows of the assets matching the name prefix of the query
+     * from the start row through the asset index, in the order of their id.
+     * Returns null if the name prefix is not set, every row from the start
+     * has to be checked then.
+     */
+    private IntList indexedRows(TransactionQuery query, int start) throws SQLException {
+        String namePrefix = query.getNamePrefix();
+        if (namePrefix == null || namePrefix.isEmpty()) {
+            return null;
+        }
+        IntList candidates = new IntList();
+        String prefix = namePrefix.toLowerCase(Locale.ROOT);
+        for (Map.Entry<Integer, IntList> entry : rowsByAsset.entrySet()) {
+            Asset asset = assets.findById(entry.getKey());
+            if (asset == null || asset.getType() != query.getType()
+                    || !asset.getName().toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                continue;
+            }
+            IntList rows = entry.getValue();
+            for (int i = 0; i < rows.size; i++) {
+                if (rows.values[i] >= start) {
+                    candidates.add(rows.values[i]);
+                }
+            }
+        }
+        Arrays.sort(candidates.values, 0, candidates.size);
+        return candidates;
+    }
+
+    private boolean matches(int row, TransactionQuery query, Lookup lookup) throws SQLException {
+        Asset asset = lookup.asset(assetIds[row]);
+        if (asset == null || asset.getType() != query.getType()) {
+            return false;
+        }
+        String namePrefix = query.getNamePrefix();
+        if (namePrefix != null && !namePrefix.isEmpty() && !asset.getName()
+                .toLowerCase(Locale.ROOT).startsWith(namePrefix.toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+        if (query.getFromDate() != null || query.getToDate() != null) {
+            Period period = lookup.period(periodIds[row]);
+            if (period == null
+                    || (query.getFromDate() != null && period.getDate().isBefore(query.getFromDate()))
+                    || (query.getToDate() != null && period.getDate().isAfter(query.getToDate()))) {
+                return false;
+            }
+        }
+        return inRange(prices[row], query.getMinPrice(), query.getMaxPrice())
+                && inRange(amounts[row], query.getMinAmount(), query.getMaxAmount());
+    }
+
+    private boolean inRange(int value, Integer min, Integer max) {
+        return (min == null || value >= min) && (max == null || value <= max);
+    }
+
+    private int rowOf(Integer id) {
+        if (id == null) {
+            return -1;
+        }
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 ? -1 : row;
+    }
+
+    private int firstRowAfter(int id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 ? -row - 1 : row + 1;
+    }
+
+    private void append(int id, Transaction transaction) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            periodIds = Arrays.copyOf(periodIds, capacity);
+            assetIds = Arrays.copyOf(assetIds, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+        ids[size] = id;
+        periodIds[size] = transaction.getPeriodId();
+        assetIds[size] = transaction.getAssetId();
+        amounts[size] = transaction.getAmount();
+        prices[size] = transaction.getPrice();
+        size++;
+    }
+
+    /**
+     * Sorts the columns by id, using the id and the old row packed in a long
+     * as the sort key.
+     */
+    private void sortById() {
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = ((long) ids[row] << 32) | row;
+        }
+        Arrays.sort(keys);
+        int[] oldPeriodIds = periodIds.clone();
+        int[] oldAssetIds = assetIds.clone();
+        int[] oldAmounts = amounts.clone();
+        int[] oldPrices = prices.clone();
+        for (int row = 0; row < size; row++) {
+            int oldRow = (int) keys[row];
+            ids[row] = (int) (keys[row] >>> 32);
+            periodIds[row] = oldPeriodIds[oldRow];
+            assetIds[row] = oldAssetIds[oldRow];
+            amounts[row] = oldAmounts[oldRow];
+            prices[row] = oldPrices[oldRow];
+        }
+    }
+
+    private void rebuildIndexes() {
+        rowsByPeriod.clear();
+        rowsByAsset.clear();
+        for (int row = 0; row < size; row++) {
+            index(rowsByPeriod, periodIds[row]).add(row);
+            index(rowsByAsset, assetIds[row]).add(row);
+        }
+    }
+
+    private IntList index(Map<Integer, IntList> indexes, int key) {
+        return indexes.computeIfAbsent(key, k -> new IntList());
+    }
+
+    private List<Transaction> makeList(IntList rows) {
+        List<Transaction> found = new ArrayList<>();
+        if (rows != null) {
+            for (int i = 0; i < rows.size; i++) {
+                found.add(makeOne(rows.values[i]));
+            }
+        }
+        return found;
+    }
+
+    private Transaction makeOne(int row) {
+        Transaction transaction = new Transaction(amounts[row], prices[row]);
+        transaction.setId(ids[row]);
+        transaction.setAssetId(assetIds[row]);
+        transaction.setPeriodId(periodIds[row]);
+        return transaction;
+    }
+
+    private TransactionRow makeRow(int row, Lookup lookup) throws SQLException {
+        Asset asset = lookup.asset(assetIds[row]);
+        Period period = lookup.period(periodIds[row]);
+        return new TransactionRow(ids[row], period == null ? null : period.getDate(),
+                asset == null ? null : asset.getName(), assetIds[row], prices[row], amounts[row]);
+    }
+
+    /**
+     * Remembers the assets and periods read during one call, so each of them
+     * is looked up only once.
+     */
+    private final class Lookup {
+
+        private final Map<Integer, Asset> foundAssets = new HashMap<>();
+        private final Map<Integer, Period> foundPeriods = new HashMap<>();
+
+        private Asset asset(int id) throws SQLException {
+            Asset asset = foundAssets.get(id);
+            if (asset == null && !foundAssets.containsKey(id)) {
+                asset = assets.findById(id);
+                foundAssets.put(id, asset);
+            }
+            return asset;
+        }
+
+        private Period period(int id) throws SQLException {
+            Period period = foundPeriods.get(id);
+            if (period == null && !foundPeriods.containsKey(id)) {
+                period = periods.findById(id);
+                foundPeriods.put(id, period);
+            }
+            return period;
+        }
+    }
+
+    /**
+     * A growable list of row numbers kept in ascending order.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void insert(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            add(value);
+            System.arraycopy(values, index, values, index + 1, size - index - 1);
+            values[index] = value;
+        }
+
+        private void remove(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.csontaka.transaction_record_app.dao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size bounded cache that evicts the least recently used entry when the
+ * bound is reached and counts the hits and misses of the lookups. Every
+ * removal starts a new generation of the cache, so a value read from the
+ * source before a removal can be left out with
+ * {@link #put(java.lang.Object, java.lang.Object, long)} instead of bringing
+ * the removed value back.
+ *
+ * @author Adrienn Csontak
+ * @param <K> The type of the keys.
+ * @param <V> The type of the cached values.
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, V> entries;
+    private long hits;
+    private long misses;
+    private long generation;
+
+    /**
+     * Creates an LruCache with the specified maximum number of entries.
+     *
+     * @param maxSize An int containing the maximum number of entries.
+     */
+    public LruCache(final int maxSize) {
+        entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the value cached with the specified key and counts the lookup as a
+     * hit or a miss.
+     *
+     * @param key The key of the value.
+     * @return The cached value or null if the key is not cached.
+     */
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Caches the specified value with the specified key.
+     *
+     * @param key The key of the value.
+     * @param value The value to cache.
+     */
+    public synchronized void put(K key, V value) {
+        if (key != null && value != null) {
+            entries.put(key, value);
+        }
+    }
+
+    /**
+     * Caches the specified value with the specified key if no value was
+     * removed since the specified generation. A value read from the source
+     * is put with the generation read before it, so it is not cached if it
+     * may have been changed meanwhile.
+     *
+     * @param key The key of the value.
+     * @param value The value to cache.
+     * @param generation A long containing the generation of the value.
+     */
+    public synchronized void put(K key, V value, long generation) {
+        if (this.generation == generation) {
+            put(key, value);
+        }
+    }
+
+    /**
+     * Removes the value cached with the specified key and starts a new
+     * generation.
+     *
+     * @param key The key of the value to remove.
+     */
+    public synchronized void remove(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /**
+     * Gets the current generation, which changes with every removal.
+     *
+     * @return A long representing the generation.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Removes all the cached values.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of lookups that found a cached value.
+     *
+     * @return A long representing the number of hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that did not find a cached value.
+     *
+     * @return A long representing the number of misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+}
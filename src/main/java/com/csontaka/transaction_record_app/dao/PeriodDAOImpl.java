@@ -5,54 +5,72 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import javax.sql.DataSource;
 
 /**
  * Class that implements the methods of
  * {@link com.csontaka.transaction_record_app.dao.PeriodRepository} interface.
+ * Every call borrows its own connection and statement, so the object can be
+ * used from more than one thread.
  *
  * @author Adrienn Csontak
  */
 public class PeriodDAOImpl implements PeriodRepository {
 
-    private final Connection conn;
-    private final PreparedStatement findAllPeriods;
-    private final PreparedStatement findById;
-    private final PreparedStatement findByDate;
-    private final PreparedStatement findAfter;
-    private final PreparedStatement findBefore;
-    private final PreparedStatement findLatest;
-    private final PreparedStatement addPeriod;
-    private final PreparedStatement updatePeriod;
+    private static final String FIND_ALL_PERIODS = "SELECT * FROM periods";
+    private static final String FIND_BY_ID = "SELECT * FROM periods WHERE id = ?";
+    static final String FIND_BY_DATE = "SELECT * FROM periods WHERE "
+            + "year = ? AND month = ?";
+    private static final String FIND_AFTER = "SELECT * FROM periods WHERE "
+            + "year > ? OR (year = ? AND month > ?) ORDER BY year, month";
+    private static final String FIND_BEFORE = "SELECT * FROM periods WHERE "
+            + "year < ? OR (year = ? AND month < ?) ORDER BY year, month";
+    private static final String FIND_LATEST = "SELECT * FROM periods "
+            + "ORDER BY year DESC, month DESC LIMIT 1";
+    private static final String ADD_PERIOD = "INSERT INTO periods (year, month, goal) "
+            + "VALUES( ?,  ?,  ?)";
+    private static final String UPDATE_PERIOD = "UPDATE periods SET "
+            + "year = ?, month = ?, goal = ? WHERE id = ?";
+
+    private final DataSource dataSource;
+    private final BatchWriter<Period> batchWriter;
 
     /**
-     * Creates a PeriodDAOImpl object with a specified connection.
+     * Creates a PeriodDAOImpl object with a specified data source.
      *
-     * @param conn Connection object to make the connection with the database.
-     * @throws SQLException If an SQL exception occurs.
+     * @param dataSource DataSource object providing the connections with the
+     * database.
      */
-    public PeriodDAOImpl(Connection conn) throws SQLException {
-        this.conn = conn;
-        findAllPeriods = conn.prepareStatement("SELECT * FROM periods");
-        findById = conn.prepareStatement("SELECT * FROM periods WHERE id = ?");
-        findByDate = conn.prepareStatement("SELECT * FROM periods WHERE "
-                + "year = ? AND month = ?");
-        findAfter = conn.prepareStatement("SELECT * FROM periods WHERE id > ?");
-        findBefore = conn.prepareStatement("SELECT * FROM periods WHERE id < ?");
-        findLatest = conn.prepareStatement("SELECT * FROM periods WHERE "
-                + "id = (SELECT MAX(id) FROM periods);");
-        addPeriod = conn.prepareStatement("INSERT INTO periods (year, month, goal) "
-                + "VALUES( ?,  ?,  ?)");
-        updatePeriod = conn.prepareStatement("UPDATE periods SET "
-                + "year = ?, month = ?, goal = ? WHERE id = ?");
+    public PeriodDAOImpl(DataSource dataSource) {
+        this(dataSource, BatchWriter.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a PeriodDAOImpl object with a specified data source and batch
+     * size.
+     *
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     * @param batchSize An int containing the number of statements sent
+     * together by saveAll.
+     */
+    public PeriodDAOImpl(DataSource dataSource, int batchSize) {
+        this.dataSource = dataSource;
+        this.batchWriter = new BatchWriter<>(ADD_PERIOD, this::bindInsert,
+                UPDATE_PERIOD, this::bindUpdate, Period::getId, Period::setId, batchSize);
     }
 
     @Override
     public List<Period> findAll() throws SQLException {
         List<Period> periods;
-        try (ResultSet allPeriods = findAllPeriods.executeQuery()) {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement findAllPeriods = conn.prepareStatement(FIND_ALL_PERIODS);
+                ResultSet allPeriods = findAllPeriods.executeQuery()) {
             periods = makeList(allPeriods);
         }
         return periods;
@@ -60,12 +78,14 @@ public class PeriodDAOImpl implements PeriodRepository {
 
     @Override
     public Period findById(Integer id) throws SQLException {
-        findById.setInt(1, id);
         Period period = null;
-        try (ResultSet periodById = findById.executeQuery()) {
-            periodById.beforeFirst();
-            if (periodById.next()) {
-                period = makeOne(periodById);
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement findById = conn.prepareStatement(FIND_BY_ID)) {
+            findById.setInt(1, id);
+            try (ResultSet periodById = findById.executeQuery()) {
+                if (periodById.next()) {
+                    period = makeOne(periodById);
+                }
             }
         }
         return period;
@@ -73,56 +93,58 @@ public class PeriodDAOImpl implements PeriodRepository {
 
     @Override
     public Period findByDate(YearMonth yearMonth) throws SQLException {
-        findByDate.setInt(1, yearMonth.getYear());
-        findByDate.setInt(2, yearMonth.getMonthValue());
         Period period = null;
-        try (ResultSet periodByDate = findByDate.executeQuery()) {
-            periodByDate.beforeFirst();
-            if (periodByDate.next()) {
-                period = makeOne(periodByDate);
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement findByDate = conn.prepareStatement(FIND_BY_DATE)) {
+            findByDate.setInt(1, yearMonth.getYear());
+            findByDate.setInt(2, yearMonth.getMonthValue());
+            try (ResultSet periodByDate = findByDate.executeQuery()) {
+                if (periodByDate.next()) {
+                    period = makeOne(periodByDate);
+                }
             }
         }
         return period;
     }
 
+    /**
+     * {@inheritDoc} The periods are compared and ordered by their date, not
+     * by their id, because an import can add earlier months later.
+     */
     @Override
     public List<Period> findAfter(YearMonth date) throws SQLException {
-        List<Period> periods;
-        Period comparePeriod = findByDate(date);
-        if (comparePeriod != null) {
-            Integer compareId = comparePeriod.getId();
-            findAfter.setInt(1, compareId);
-            try (ResultSet periodsAfterADate = findAfter.executeQuery()) {
-                periods = makeList(periodsAfterADate);
-            }
-            return periods;
-        }
-        return new ArrayList<>();
-
+        return findByDateBound(FIND_AFTER, date);
     }
 
+    /**
+     * {@inheritDoc} The periods are compared and ordered by their date, not
+     * by their id, because an import can add earlier months later.
+     */
     @Override
     public List<Period> findBefore(YearMonth date) throws SQLException {
+        return findByDateBound(FIND_BEFORE, date);
+    }
+
+    private List<Period> findByDateBound(String query, YearMonth date) throws SQLException {
         List<Period> periods;
-        Period comparePeriod = findByDate(date);
-        if (comparePeriod != null) {
-            Integer compareId = comparePeriod.getId();
-            findBefore.setInt(1, compareId);
-            try (ResultSet periodsBeforeADate = findBefore.executeQuery()) {
-                periods = makeList(periodsBeforeADate);
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement statement = conn.prepareStatement(query)) {
+            statement.setInt(1, date.getYear());
+            statement.setInt(2, date.getYear());
+            statement.setInt(3, date.getMonthValue());
+            try (ResultSet rs = statement.executeQuery()) {
+                periods = makeList(rs);
             }
-            return periods;
         }
-        return new ArrayList<>();
-
+        return periods;
     }
 
     @Override
     public Period findLatest() throws SQLException {
-        Integer id;
         Period period = null;
-        try (ResultSet latestPeriod = findLatest.executeQuery()) {
-            latestPeriod.beforeFirst();
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement findLatest = conn.prepareStatement(FIND_LATEST);
+                ResultSet latestPeriod = findLatest.executeQuery()) {
             if (latestPeriod.next()) {
                 period = makeOne(latestPeriod);
             }
@@ -141,34 +163,48 @@ public class PeriodDAOImpl implements PeriodRepository {
 
     private void add(Period period) throws SQLException {
         if (period.getId() == null) {
-            addPeriod.setInt(1, period.getDate().getYear());
-            addPeriod.setInt(2, period.getDate().getMonthValue());
-            addPeriod.setDouble(3, period.getGoal());
-            addPeriod.executeUpdate();
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement addPeriod = conn.prepareStatement(ADD_PERIOD,
+                            Statement.RETURN_GENERATED_KEYS)) {
+                bindInsert(addPeriod, period);
+                addPeriod.executeUpdate();
+                try (ResultSet generatedKeys = addPeriod.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        period.setId(generatedKeys.getInt(1));
+                        TransactionalDataSource.onRollback(() -> period.setId(null));
+                    }
+                }
+            }
         }
     }
 
     private void update(Period period) throws SQLException {
-        Integer id = period.getId();
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement updatePeriod = conn.prepareStatement(UPDATE_PERIOD)) {
+            bindUpdate(updatePeriod, period);
+            updatePeriod.executeUpdate();
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Period> periods) throws SQLException {
+        batchWriter.saveAll(dataSource, periods);
+    }
+
+    private void bindInsert(PreparedStatement statement, Period period) throws SQLException {
         YearMonth date = period.getDate();
-        int goal = period.getGoal();
-        updatePeriod.setInt(1, date.getYear());
-        updatePeriod.setInt(2, date.getMonthValue());
-        updatePeriod.setDouble(3, goal);
-        updatePeriod.setInt(4, id);
-        updatePeriod.executeUpdate();
+        statement.setInt(1, date.getYear());
+        statement.setInt(2, date.getMonthValue());
+        statement.setInt(3, period.getGoal());
+    }
+
+    private void bindUpdate(PreparedStatement statement, Period period) throws SQLException {
+        bindInsert(statement, period);
+        statement.setInt(4, period.getId());
     }
 
     @Override
     public void close() throws SQLException {
-        findAllPeriods.close();
-        findById.close();
-        findByDate.close();
-        findAfter.close();
-        findBefore.close();
-        findLatest.close();
-        addPeriod.close();
-        updatePeriod.close();
     }
 
     private List<Period> makeList(ResultSet rs) throws
@@ -3,6 +3,7 @@ package com.csontaka.transaction_record_app.dao;
 import com.csontaka.transaction_record_app.entity.Period;
 import java.sql.SQLException;
 import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -44,7 +45,8 @@ public interface PeriodRepository {
 
     /**
      * Gets a List of <code>Period</code>
-     * objects from the database with year-month after a specified year-month.
+     * objects from the database with year-month after a specified year-month,
+     * in the order of their date.
      *
      * @param date A YearMonth object containing the date that the searched
      * period compare with.
@@ -55,7 +57,8 @@ public interface PeriodRepository {
     
     /**
      * Gets a List of <code>Period</code>
-     * objects from the database with year-month before a specified year-month.
+     * objects from the database with year-month before a specified year-month,
+     * in the order of their date.
      *
      * @param date A YearMonth object containing the date that the searched
      * period compare with.
@@ -65,8 +68,8 @@ public interface PeriodRepository {
     public List<Period> findBefore(YearMonth date) throws SQLException;
 
     /**
-     * Gets an <code>Period</code> object
-     * with the highest id value.
+     * Gets the <code>Period</code> object
+     * with the latest date.
      *
      * @return A <code>Period</code> object.
      * @throws SQLException If an SQL exception occurs.
@@ -74,7 +77,8 @@ public interface PeriodRepository {
     public Period findLatest() throws SQLException;
 
     /**
-     * Saves the given <code>Period</code> object to the database.
+     * Saves the given <code>Period</code> object to the database. A new period
+     * gets the id generated by the database.
      *
      * @param period A <code>Period</code> object to save.
      * @throws SQLException If an SQL exception occurs.
@@ -82,7 +86,17 @@ public interface PeriodRepository {
     public void save(Period period) throws SQLException;
 
     /**
-     * Close the <code>PreparedStatement</code> objects of the class.
+     * Saves the given <code>Period</code> objects to the database in one
+     * transaction, sending the statements in batches. The new periods get the
+     * ids generated by the database. Nothing is saved if one of them fails.
+     *
+     * @param periods A Collection of <code>Period</code> objects to save.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void saveAll(Collection<Period> periods) throws SQLException;
+
+    /**
+     * Releases the resources held by the repository.
      *
      * @throws SQLException If an SQL exception occurs.
      */
@@ -0,0 +1,404 @@
+package com.csontaka.transaction_record_app.dao;
+
+import com.csontaka.transaction_record_app.entity.AssetType;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Brings the database schema to the version the repositories expect. The
+ * applied versions are recorded in the schema_version table, and every
+ * migration only creates what is missing, so running it on a database that
+ * was set up by hand is safe.
+ *
+ * <p>
+ * A migrating instance holds a lock on the row of version 0 of the
+ * schema_version table until it is done, so two instances starting on the
+ * same database apply the migrations one after the other. Every step is
+ * committed together with its version, although MySQL and h2 commit the
+ * schema changes of a step at once.</p>
+ *
+ * <p>
+ * The {@link #checkQueryPlans()} method asks the database how it would run the
+ * frequent queries of the repositories and reports the ones reading a whole
+ * table.</p>
+ *
+ * @author Adrienn Csontak
+ */
+public class SchemaMigrator {
+
+    private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "version INT NOT NULL PRIMARY KEY, "
+            + "description VARCHAR(255) NOT NULL, "
+            + "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+    private static final String FIND_VERSION = "SELECT MAX(version) AS version FROM schema_version";
+    private static final String ADD_LOCK_ROW = "INSERT IGNORE INTO schema_version "
+            + "(version, description) VALUES( 0, 'lock of the migrations')";
+    private static final String LOCK_VERSIONS = "SELECT version FROM schema_version "
+            + "WHERE version = 0 FOR UPDATE";
+    private static final String ADD_VERSION = "INSERT INTO schema_version (version, description) "
+            + "VALUES( ?, ?)";
+    private static final String CREATE_ASSETS = "CREATE TABLE IF NOT EXISTS assets ("
+            + "id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+            + "name VARCHAR(255) NOT NULL, "
+            + "feature VARCHAR(255), "
+            + "type TINYINT NOT NULL, "
+            + "stock INT NOT NULL DEFAULT 0, "
+            + "material_cost INT NOT NULL DEFAULT 0)";
+    private static final String CREATE_PERIODS = "CREATE TABLE IF NOT EXISTS periods ("
+            + "id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+            + "year INT NOT NULL, "
+            + "month INT NOT NULL, "
+            + "goal INT NOT NULL DEFAULT 0)";
+    private static final String CREATE_TRANSACTIONS = "CREATE TABLE IF NOT EXISTS transactions ("
+            + "id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+            + "period_id INT NOT NULL, "
+            + "asset_id INT NOT NULL, "
+            + "amount INT NOT NULL, "
+            + "price INT NOT NULL, "
+            + "CONSTRAINT fk_transactions_period FOREIGN KEY (period_id) REFERENCES periods (id), "
+            + "CONSTRAINT fk_transactions_asset FOREIGN KEY (asset_id) REFERENCES assets (id))";
+    private static final String FIND_DUPLICATE_PERIODS = "SELECT year, month, MIN(id) AS id, "
+            + "MAX(goal) AS goal FROM periods GROUP BY year, month HAVING COUNT(*) > 1";
+    private static final String MOVE_DUPLICATE_TRANSACTIONS = "UPDATE transactions "
+            + "SET period_id = ? WHERE period_id IN "
+            + "(SELECT id FROM periods WHERE year = ? AND month = ? AND id <> ?)";
+    private static final String DELETE_DUPLICATE_PERIODS = "DELETE FROM periods "
+            + "WHERE year = ? AND month = ? AND id <> ?";
+    private static final String UPDATE_GOAL = "UPDATE periods SET goal = ? WHERE id = ?";
+
+    private static final List<HotQuery> HOT_QUERIES = new ArrayList<>();
+
+    static {
+        HOT_QUERIES.add(new HotQuery("transactions by period",
+                TransactionDAOImpl.FIND_BY_PERIOD_ID, Arrays.asList(1)));
+        HOT_QUERIES.add(new HotQuery("transactions by asset",
+                TransactionDAOImpl.FIND_BY_ASSET_ID, Arrays.asList(1)));
+        HOT_QUERIES.add(new HotQuery("period by date",
+                PeriodDAOImpl.FIND_BY_DATE, Arrays.asList(2000, 1)));
+        HOT_QUERIES.add(new HotQuery("period summary",
+                TransactionDAOImpl.SUMMARIZE_BY_PERIOD,
+                Arrays.asList(1, 2000, 2000, 1, 2000, 2000, 12)));
+
+        TransactionQuery filtered = new TransactionQuery(AssetType.PRODUCT);
+        filtered.setNamePrefix("a");
+        filtered.setFromDate(YearMonth.of(2000, 1));
+        filtered.setToDate(YearMonth.of(2000, 12));
+        filtered.setLimit(200);
+        List<Object> findParams = new ArrayList<>();
+        String findSql = TransactionDAOImpl.buildFindSql(filtered, findParams);
+        HOT_QUERIES.add(new HotQuery("filtered transaction page", findSql, findParams));
+        List<Object> countParams = new ArrayList<>();
+        String countSql = TransactionDAOImpl.buildCountSql(filtered, countParams);
+        HOT_QUERIES.add(new HotQuery("filtered transaction count", countSql, countParams));
+    }
+
+    private final DataSource dataSource;
+    private final List<Migration> migrations = new ArrayList<>();
+
+    /**
+     * A database call changing the schema.
+     */
+    private interface SqlStep {
+
+        void apply(Connection conn) throws SQLException;
+    }
+
+    /**
+     * A statement of a repository with sample parameters, explained by
+     * {@link SchemaMigrator#checkQueryPlans()}.
+     */
+    private static final class HotQuery {
+
+        private final String name;
+        private final String sql;
+        private final List<Object> params;
+
+        private HotQuery(String name, String sql, List<Object> params) {
+            this.name = name;
+            this.sql = sql;
+            this.params = params;
+        }
+
+        /**
+         * Gets the statement with the parameters written in as literals,
+         * because not every server can prepare an EXPLAIN statement.
+         */
+        private String withLiterals() {
+            StringBuilder literal = new StringBuilder();
+            int param = 0;
+            for (char c : sql.toCharArray()) {
+                if (c != '?') {
+                    literal.append(c);
+                    continue;
+                }
+                Object value = params.get(param++);
+                if (value instanceof Integer) {
+                    literal.append(value);
+                } else {
+                    literal.append('\'').append(value.toString().replace("\\", "\\\\")
+                            .replace("'", "''")).append('\'');
+                }
+            }
+            return literal.toString();
+        }
+    }
+
+    /**
+     * A described step of the schema. The version of a migration is its
+     * position in the list of migrations, starting from 1.
+     */
+    private static final class Migration {
+
+        private final String description;
+        private final SqlStep step;
+
+        private Migration(String description, SqlStep step) {
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    /**
+     * Creates a SchemaMigrator working on the database of the specified data
+     * source.
+     *
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     */
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+        migrations.add(new Migration("create the assets, periods and transactions tables", conn -> {
+            execute(conn, CREATE_ASSETS);
+            execute(conn, CREATE_PERIODS);
+            execute(conn, CREATE_TRANSACTIONS);
+        }));
+        migrations.add(new Migration("index the filtered and joined columns", conn -> {
+            createIndex(conn, "transactions", "idx_transactions_period_asset", false,
+                    "period_id", "asset_id");
+            createIndex(conn, "transactions", "idx_transactions_asset", false, "asset_id");
+            createIndex(conn, "assets", "idx_assets_type_name", false, "type", "name");
+            mergeDuplicatePeriods(conn);
+            createIndex(conn, "periods", "uq_periods_year_month", true, "year", "month");
+        }));
+    }
+
+    /**
+     * Gets the schema version the repositories expect.
+     *
+     * @return An int containing the latest version.
+     */
+    public int getLatestVersion() {
+        return migrations.size();
+    }
+
+    /**
+     * Applies the migrations that are newer than the version of the database
+     * in order, recording each of them in the same database transaction. The
+     * version is read after the lock of the migrations is taken, so an
+     * instance waiting for another one only applies what is still missing.
+     * The lock is held on a second connection, because the schema changes
+     * commit the connection they run on.
+     *
+     * @return An int containing the number of applied migrations.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public int migrate() throws SQLException {
+        int applied = 0;
+        try (Connection lock = dataSource.getConnection()) {
+            execute(lock, CREATE_VERSION_TABLE);
+            execute(lock, ADD_LOCK_ROW);
+            lock.setAutoCommit(false);
+            execute(lock, LOCK_VERSIONS);
+            try (Connection conn = dataSource.getConnection()) {
+                int version = findVersion(conn);
+                conn.setAutoCommit(false);
+                for (int i = version; i < migrations.size(); i++) {
+                    apply(conn, i);
+                    applied++;
+                }
+            }
+            lock.commit();
+        }
+        return applied;
+    }
+
+    private void apply(Connection conn, int index) throws SQLException {
+        Migration migration = migrations.get(index);
+        try {
+            migration.step.apply(conn);
+            try (PreparedStatement addVersion = conn.prepareStatement(ADD_VERSION)) {
+                addVersion.setInt(1, index + 1);
+                addVersion.setString(2, migration.description);
+                addVersion.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException ex) {
+            TransactionalDataSource.rollback(conn, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Explains the frequent statements of the repositories, built from the
+     * same SQL the repositories run, and collects a warning for each table
+     * one of them reads entirely instead of using an index. The check needs
+     * the MySQL EXPLAIN output, on other databases it returns no warnings.
+     *
+     * @return A List of Strings describing the queries doing a full scan.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public List<String> checkQueryPlans() throws SQLException {
+        List<String> warnings = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection()) {
+            String driverName = conn.getMetaData().getDriverName();
+            if (driverName == null || !driverName.contains("MySQL")) {
+                return warnings;
+            }
+            for (HotQuery query : HOT_QUERIES) {
+                try (Statement statement = conn.createStatement();
+                        ResultSet plan = statement.executeQuery("EXPLAIN " + query.withLiterals())) {
+                    while (plan.next()) {
+                        if ("ALL".equals(plan.getString("type"))) {
+                            warnings.add("The query of " + query.name
+                                    + " reads the whole " + plan.getString("table")
+                                    + " table: " + query.sql);
+                        }
+                    }
+                }
+            }
+        }
+        return warnings;
+    }
+
+    private int findVersion(Connection conn) throws SQLException {
+        int version = 0;
+        try (Statement statement = conn.createStatement();
+                ResultSet result = statement.executeQuery(FIND_VERSION)) {
+            if (result.next()) {
+                version = result.getInt("version");
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Merges the periods of the same month, which a database set up by hand
+     * may have, so the unique index of the months can be created. The
+     * transactions of a month are moved to its period with the smallest id,
+     * which keeps the largest goal, and the other periods are deleted.
+     */
+    private void mergeDuplicatePeriods(Connection conn) throws SQLException {
+        List<String> merged = new ArrayList<>();
+        try (Statement statement = conn.createStatement();
+                ResultSet duplicates = statement.executeQuery(FIND_DUPLICATE_PERIODS);
+                PreparedStatement move = conn.prepareStatement(MOVE_DUPLICATE_TRANSACTIONS);
+                PreparedStatement delete = conn.prepareStatement(DELETE_DUPLICATE_PERIODS);
+                PreparedStatement updateGoal = conn.prepareStatement(UPDATE_GOAL)) {
+            while (duplicates.next()) {
+                int year = duplicates.getInt("year");
+                int month = duplicates.getInt("month");
+                int id = duplicates.getInt("id");
+                move.setInt(1, id);
+                move.setInt(2, year);
+                move.setInt(3, month);
+                move.setInt(4, id);
+                move.executeUpdate();
+                delete.setInt(1, year);
+                delete.setInt(2, month);
+                delete.setInt(3, id);
+                delete.executeUpdate();
+                updateGoal.setInt(1, duplicates.getInt("goal"));
+                updateGoal.setInt(2, id);
+                updateGoal.executeUpdate();
+                merged.add(YearMonth.of(year, month).toString());
+            }
+        }
+        if (!merged.isEmpty()) {
+            Logger.getLogger(SchemaMigrator.class.getName()).log(Level.WARNING,
+                    "Merged the duplicate periods of {0}", merged);
+        }
+    }
+
+    private void createIndex(Connection conn, String table, String name, boolean unique,
+            String... columns) throws SQLException {
+        if (hasIndex(conn, table, unique, columns)) {
+            return;
+        }
+        execute(conn, "CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + name
+                + " ON " + table + " (" + String.join(", ", columns) + ")");
+    }
+
+    /**
+     * Checks whether the table has an index starting with the specified
+     * columns in the same order, whatever its name is. A unique index is only
+     * matched by a unique index of exactly these columns, because a
+     * non-unique or a longer index does not keep the rows unique.
+     */
+    private boolean hasIndex(Connection conn, String table, boolean unique,
+            String... columns) throws SQLException {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        Set<String> uniqueIndexes = new HashSet<>();
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet info = metaData.getIndexInfo(conn.getCatalog(), null, table, false, false)) {
+            while (info.next()) {
+                String indexName = info.getString("INDEX_NAME");
+                String column = info.getString("COLUMN_NAME");
+                if (indexName == null || column == null) {
+                    continue;
+                }
+                if (!info.getBoolean("NON_UNIQUE")) {
+                    uniqueIndexes.add(indexName);
+                }
+                List<String> indexColumns = indexes.computeIfAbsent(indexName,
+                        key -> new ArrayList<>());
+                int position = info.getShort("ORDINAL_POSITION");
+                while (indexColumns.size() < position) {
+                    indexColumns.add(null);
+                }
+                indexColumns.set(position - 1, column);
+            }
+        }
+        for (Map.Entry<String, List<String>> index : indexes.entrySet()) {
+            List<String> indexColumns = index.getValue();
+            if (indexColumns.size() < columns.length) {
+                continue;
+            }
+            if (unique && (!uniqueIndexes.contains(index.getKey())
+                    || indexColumns.size() != columns.length)) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < columns.length; i++) {
+                if (!columns[i].equalsIgnoreCase(indexColumns.get(i))) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void execute(Connection conn, String sql) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -1,77 +1,126 @@
 package com.csontaka.transaction_record_app.dao;
 
+import com.csontaka.transaction_record_app.entity.AssetType;
+import com.csontaka.transaction_record_app.entity.PeriodTotals;
 import com.csontaka.transaction_record_app.entity.Transaction;
+import com.csontaka.transaction_record_app.entity.TransactionRow;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
 
 /**
  * Class that implements the methods of
  * {@link com.csontaka.transaction_record_app.dao.TransactionRepository}
- * interface.
+ * interface. Every call borrows its own connection and statement, so the
+ * object can be used from more than one thread.
  *
  * @author Adrienn Csontak
  */
 public class TransactionDAOImpl implements TransactionRepository {
 
-    private final Connection conn;
-    private final PreparedStatement findAllTransaction;
-    private final PreparedStatement findById;
-    private final PreparedStatement findByAssetId;
-    private final PreparedStatement findByPeriodId;
-    private final PreparedStatement findAllIncome;
-    private final PreparedStatement findAllExpense;
-    private final PreparedStatement findLatest;
-    private final PreparedStatement addTransaction;
-    private final PreparedStatement updateTransaction;
-    private final PreparedStatement deleteTransaction;
+    private static final String FIND_ALL_TRANSACTION = "SELECT * FROM transactions";
+    private static final String FIND_BY_ID = "SELECT * FROM transactions WHERE id = ?";
+    static final String FIND_BY_ASSET_ID = "SELECT * FROM transactions WHERE asset_id = ?";
+    static final String FIND_BY_PERIOD_ID = "SELECT * FROM transactions WHERE period_id = ?";
+    private static final String FIND_ALL_INCOME = "SELECT transactions.id, transactions.period_id, "
+            + "transactions.asset_id, transactions.amount, transactions.price FROM transactions "
+            + "INNER JOIN assets ON transactions.asset_id = assets.id WHERE assets.type = 1";
+    private static final String FIND_ALL_EXPENSE = "SELECT transactions.id, transactions.period_id, "
+            + "transactions.asset_id, transactions.amount, transactions.price FROM transactions "
+            + "INNER JOIN assets ON transactions.asset_id = assets.id WHERE assets.type = 0";
+    private static final String ROW_QUERY = "SELECT transactions.id, transactions.asset_id, "
+            + "transactions.amount, transactions.price, assets.name, periods.year, periods.month "
+            + "FROM transactions "
+            + "INNER JOIN assets ON transactions.asset_id = assets.id "
+            + "INNER JOIN periods ON transactions.period_id = periods.id ";
+    private static final String FIND_ALL_INCOME_ROWS = ROW_QUERY + "WHERE assets.type = 1";
+    private static final String FIND_ALL_EXPENSE_ROWS = ROW_QUERY + "WHERE assets.type = 0";
+    private static final String FIND_ROW_BY_ID = ROW_QUERY + "WHERE transactions.id = ?";
+    private static final String COUNT_QUERY = "SELECT COUNT(*) AS count FROM transactions "
+            + "INNER JOIN assets ON transactions.asset_id = assets.id "
+            + "INNER JOIN periods ON transactions.period_id = periods.id ";
+    /**
+     * Matches the periods from a date on: the year and month columns are
+     * compared as they are, so the database can use the (year, month) index.
+     * Parameters: year, year, month.
+     */
+    private static final String PERIOD_FROM =
+            "(periods.year > ? OR (periods.year = ? AND periods.month >= ?)) ";
+    /**
+     * Matches the periods until a date. Parameters: year, year, month.
+     */
+    private static final String PERIOD_TO =
+            "(periods.year < ? OR (periods.year = ? AND periods.month <= ?)) ";
+    static final String SUMMARIZE_BY_PERIOD = "SELECT transactions.period_id, "
+            + "SUM(transactions.amount) AS amount, "
+            + "SUM(transactions.amount * transactions.price) AS income FROM transactions "
+            + "INNER JOIN assets ON transactions.asset_id = assets.id "
+            + "INNER JOIN periods ON transactions.period_id = periods.id "
+            + "WHERE assets.type = ? AND " + PERIOD_FROM + "AND " + PERIOD_TO
+            + "GROUP BY transactions.period_id";
+    private static final String ADD_TRANSACTION = "INSERT INTO transactions (period_id, asset_id, amount, price) "
+            + "VALUES( ?,  ?,  ?, ?)";
+    private static final String UPDATE_TRANSACTION = "UPDATE transactions SET "
+            + "period_id = ?, asset_id = ?, amount = ?, price = ? WHERE id = ?";
+    private static final String DELETE_TRANSACTION = "DELETE FROM transactions WHERE id = ?";
+    private static final String LOCK_BY_ID = "SELECT * FROM transactions WHERE id = ? FOR UPDATE";
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private final BatchWriter<Transaction> batchWriter;
+
+    /**
+     * Creates a TransactionDAOImpl object with a specified data source.
+     *
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     */
+    public TransactionDAOImpl(DataSource dataSource) {
+        this(dataSource, BatchWriter.DEFAULT_BATCH_SIZE);
+    }
 
     /**
-     * Creates a TransactionDAOImpl object with a specified connection.
+     * Creates a TransactionDAOImpl object with a specified data source and
+     * batch size.
      *
-     * @param conn Connection object to make the connection with the database.
-     * @throws SQLException If an SQL exception occurs.
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     * @param batchSize An int containing the number of statements sent
+     * together by saveAll.
      */
-    public TransactionDAOImpl(Connection conn) throws SQLException {
-        this.conn = conn;
-        findAllTransaction = conn.prepareStatement("SELECT * FROM transactions");
-        findById = conn.prepareStatement("SELECT * FROM transactions WHERE id = ?");
-        findByAssetId = conn.prepareStatement("SELECT * FROM transactions WHERE asset_id = ?");
-        findByPeriodId = conn.prepareStatement("SELECT * FROM transactions WHERE period_id = ?");
-        findAllIncome = conn.prepareStatement("SELECT transactions.id, transactions.period_id, "
-                + "transactions.asset_id, transactions.amount, transactions.price FROM transactions "
-                + "INNER JOIN assets ON transactions.asset_id = assets.id WHERE assets.type = 1");
-        findAllExpense = conn.prepareStatement("SELECT transactions.id, transactions.period_id, "
-                + "transactions.asset_id, transactions.amount, transactions.price FROM transactions "
-                + "INNER JOIN assets ON transactions.asset_id = assets.id WHERE assets.type = 0");
-        findLatest = conn.prepareStatement("SELECT MAX(id) as id FROM transactions");
-        addTransaction = conn.prepareStatement("INSERT INTO transactions (period_id, asset_id, amount, price) "
-                + "VALUES( ?,  ?,  ?, ?)");
-        updateTransaction = conn.prepareStatement("UPDATE transactions SET "
-                + "period_id = ?, asset_id = ?, amount = ?, price = ? WHERE id = ?");
-        deleteTransaction = conn.prepareStatement("DELETE FROM transactions WHERE id = ?");
+    public TransactionDAOImpl(DataSource dataSource, int batchSize) {
+        this.dataSource = dataSource;
+        this.batchWriter = new BatchWriter<>(ADD_TRANSACTION, this::bindInsert,
+                UPDATE_TRANSACTION, this::bindUpdate, Transaction::getId,
+                Transaction::setId, batchSize);
     }
 
     @Override
     public List<Transaction> findAll() throws SQLException {
-        List<Transaction> transactions;
-        try (ResultSet allTransaction = findAllTransaction.executeQuery()) {
-            transactions = makeList(allTransaction);
-        }
-        return transactions;
+        return findList(FIND_ALL_TRANSACTION);
     }
 
     @Override
     public Transaction findById(Integer id) throws SQLException {
-        findById.setInt(1, id);
         Transaction transaction = null;
-        try (ResultSet transById = findById.executeQuery()) {
-            transById.beforeFirst();
-            if (transById.next()) {
-                transaction = makeOne(transById);
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement findById = conn.prepareStatement(FIND_BY_ID)) {
+            findById.setInt(1, id);
+            try (ResultSet transById = findById.executeQuery()) {
+                if (transById.next()) {
+                    transaction = makeOne(transById);
+                }
             }
         }
         return transaction;
@@ -79,52 +128,287 @@ public class TransactionDAOImpl implements TransactionRepository {
 
     @Override
     public List<Transaction> findByAssetId(Integer assetId) throws SQLException {
-        List<Transaction> transactions;
-        findByAssetId.setInt(1, assetId);
-        try (ResultSet transAssetById = findByAssetId.executeQuery()) {
-            transactions = makeList(transAssetById);
-        }
-        return transactions;
+        return findList(FIND_BY_ASSET_ID, assetId);
     }
 
     @Override
     public List<Transaction> findByPeriodId(Integer periodId) throws SQLException {
-        List<Transaction> transactions;
-        findByPeriodId.setInt(1, periodId);
-        try (ResultSet transPeriodById = findByPeriodId.executeQuery()) {
-            transactions = makeList(transPeriodById);
-        }
-        return transactions;
+        return findList(FIND_BY_PERIOD_ID, periodId);
     }
 
     @Override
     public List<Transaction> findAllIncome() throws SQLException {
-        List<Transaction> transactions;
-        try (ResultSet allIncome = findAllIncome.executeQuery()) {
-            transactions = makeList(allIncome);
-        }
-        return transactions;
+        return findList(FIND_ALL_INCOME);
     }
 
     @Override
     public List<Transaction> findAllExpense() throws SQLException {
-        List<Transaction> transactions;
-        try (ResultSet allExpense = findAllExpense.executeQuery()) {
-            transactions = makeList(allExpense);
+        return findList(FIND_ALL_EXPENSE);
+    }
+
+    @Override
+    public List<TransactionRow> findAllIncomeRows() throws SQLException {
+        return findRowList(FIND_ALL_INCOME_ROWS);
+    }
+
+    @Override
+    public List<TransactionRow> findAllExpenseRows() throws SQLException {
+        return findRowList(FIND_ALL_EXPENSE_ROWS);
+    }
+
+    @Override
+    public List<TransactionRow> find(TransactionQuery query) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = buildFindSql(query, params);
+        List<TransactionRow> rows;
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement find = conn.prepareStatement(sql)) {
+            bindParams(find, params);
+            try (ResultSet result = find.executeQuery()) {
+                rows = makeRowList(result);
+            }
         }
-        return transactions;
+        return rows;
+    }
+
+    @Override
+    public int count(TransactionQuery query) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = buildCountSql(query, params);
+        int count = 0;
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement countRows = conn.prepareStatement(sql)) {
+            bindParams(countRows, params);
+            try (ResultSet result = countRows.executeQuery()) {
+                if (result.next()) {
+                    count = result.getInt("count");
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void forEachRow(TransactionQuery query, Consumer<TransactionRow> action)
+            throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = buildRowSql(query, params);
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement statement = prepareStreaming(conn, sql)) {
+            bindParams(statement, params);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(makeRow(rs));
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the statement reading the rows of the transactions matching a
+     * query in its order, and collects its parameters.
+     *
+     * @param query A <code>TransactionQuery</code> object describing the
+     * filters.
+     * @param params A List the parameters of the statement are added to.
+     * @return A String containing the SQL statement.
+     */
+    static String buildRowSql(TransactionQuery query, List<Object> params) {
+        StringBuilder sql = new StringBuilder(ROW_QUERY);
+        appendConditions(sql, params, query);
+        String direction = query.isDescending() ? " DESC" : "";
+        sql.append("ORDER BY ");
+        if (query.getSortColumn() != TransactionQuery.SortColumn.ID) {
+            sql.append(query.getSortColumn().getExpression()).append(direction).append(", ");
+        }
+        sql.append("transactions.id").append(direction);
+        return sql.toString();
+    }
+
+    /**
+     * Builds the statement of {@link #find(TransactionQuery)}: the rows of
+     * {@link #buildRowSql(TransactionQuery, List)} limited to a page.
+     *
+     * @param query A <code>TransactionQuery</code> object describing the
+     * filters, the offset and the limit.
+     * @param params A List the parameters of the statement are added to.
+     * @return A String containing the SQL statement.
+     */
+    static String buildFindSql(TransactionQuery query, List<Object> params) {
+        String sql = buildRowSql(query, params);
+        if (query.getLimit() > 0 || query.getOffset() > 0) {
+            sql += " LIMIT ? OFFSET ?";
+            params.add(query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE);
+            params.add(query.getOffset());
+        }
+        return sql;
+    }
+
+    /**
+     * Builds the statement counting the transactions matching a query, and
+     * collects its parameters.
+     *
+     * @param query A <code>TransactionQuery</code> object describing the
+     * filters.
+     * @param params A List the parameters of the statement are added to.
+     * @return A String containing the SQL statement.
+     */
+    static String buildCountSql(TransactionQuery query, List<Object> params) {
+        StringBuilder sql = new StringBuilder(COUNT_QUERY);
+        appendConditions(sql, params, query);
+        return sql.toString();
+    }
+
+    /**
+     * Appends the WHERE clause of the used filters of the query and collects
+     * their parameters. The name is matched by its beginning and the periods
+     * by comparing the year and month columns themselves, not an expression
+     * of them, so the database can find the matching assets and periods by
+     * their indexes and the transactions through the asset_id and period_id
+     * indexes.
+     */
+    private static void appendConditions(StringBuilder sql, List<Object> params,
+            TransactionQuery query) {
+        int typeNum = 1;
+        if (query.getType().equals(AssetType.EQUIPMENT)) {
+            typeNum = 0;
+        }
+        sql.append("WHERE assets.type = ? ");
+        params.add(typeNum);
+        String namePrefix = query.getNamePrefix();
+        if (namePrefix != null && !namePrefix.isEmpty()) {
+            sql.append("AND assets.name LIKE ? ");
+            params.add(namePrefix.replace("\\", "\\\\").replace("%", "\\%")
+                    .replace("_", "\\_") + "%");
+        }
+        if (query.getFromDate() != null) {
+            sql.append("AND ").append(PERIOD_FROM);
+            addYearMonth(params, query.getFromDate());
+        }
+        if (query.getToDate() != null) {
+            sql.append("AND ").append(PERIOD_TO);
+            addYearMonth(params, query.getToDate());
+        }
+        appendRange(sql, params, "transactions.price", query.getMinPrice(), query.getMaxPrice());
+        appendRange(sql, params, "transactions.amount", query.getMinAmount(), query.getMaxAmount());
+        if (query.getAfterId() != null) {
+            String after = query.isDescending() ? " < ?" : " > ?";
+            if (query.getAfterValue() != null) {
+                String column = query.getSortColumn().getExpression();
+                sql.append("AND (").append(column).append(after).append(" OR (")
+                        .append(column).append(" = ? AND transactions.id").append(after)
+                        .append(")) ");
+                params.add(query.getAfterValue());
+                params.add(query.getAfterValue());
+            } else {
+                sql.append("AND transactions.id").append(after).append(" ");
+            }
+            params.add(query.getAfterId());
+        }
+    }
+
+    private static void addYearMonth(List<Object> params, YearMonth date) {
+        params.add(date.getYear());
+        params.add(date.getYear());
+        params.add(date.getMonthValue());
+    }
+
+    private static void appendRange(StringBuilder sql, List<Object> params, String column,
+            Integer min, Integer max) {
+        if (min != null) {
+            sql.append("AND ").append(column).append(" >= ? ");
+            params.add(min);
+        }
+        if (max != null) {
+            sql.append("AND ").append(column).append(" <= ? ");
+            params.add(max);
+        }
+    }
+
+    private void bindParams(PreparedStatement statement, List<Object> params)
+            throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object param = params.get(i);
+            if (param instanceof Integer) {
+                statement.setInt(i + 1, (Integer) param);
+            } else {
+                statement.setString(i + 1, (String) param);
+            }
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Transaction> action) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement statement = prepareStreaming(conn, FIND_ALL_TRANSACTION);
+                ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                action.accept(makeOne(rs));
+            }
+        }
+    }
+
+    /**
+     * Prepares a forward only, read only statement whose rows are fetched
+     * while they are read instead of all at once. The MySQL driver streams
+     * the rows one by one when the fetch size is Integer.MIN_VALUE, other
+     * drivers get a bounded fetch size.
+     */
+    private PreparedStatement prepareStreaming(Connection conn, String query)
+            throws SQLException {
+        PreparedStatement statement = conn.prepareStatement(query,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        String driverName = conn.getMetaData().getDriverName();
+        if (driverName != null && driverName.contains("MySQL")) {
+            statement.setFetchSize(Integer.MIN_VALUE);
+        } else {
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+        }
+        return statement;
+    }
+
+    @Override
+    public TransactionRow findRowById(Integer id) throws SQLException {
+        TransactionRow row = null;
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement findRowById = conn.prepareStatement(FIND_ROW_BY_ID)) {
+            findRowById.setInt(1, id);
+            try (ResultSet rowById = findRowById.executeQuery()) {
+                if (rowById.next()) {
+                    row = makeRow(rowById);
+                }
+            }
+        }
+        return row;
     }
 
     @Override
-    public Integer findLatest() throws SQLException {
-        Integer id = null;
-        try (ResultSet latestTransaction = findLatest.executeQuery()) {
-            latestTransaction.beforeFirst();
-            if (latestTransaction.next()) {
-                id = latestTransaction.getInt("id");
+    public Map<Integer, PeriodTotals> summarizeByPeriod(AssetType type,
+            YearMonth from, YearMonth to) throws SQLException {
+        int typeNum = 1;
+        if (type.equals(AssetType.EQUIPMENT)) {
+            typeNum = 0;
+        }
+        Map<Integer, PeriodTotals> totals = new HashMap<>();
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement summarizeByPeriod = conn.prepareStatement(SUMMARIZE_BY_PERIOD)) {
+            summarizeByPeriod.setInt(1, typeNum);
+            summarizeByPeriod.setInt(2, from.getYear());
+            summarizeByPeriod.setInt(3, from.getYear());
+            summarizeByPeriod.setInt(4, from.getMonthValue());
+            summarizeByPeriod.setInt(5, to.getYear());
+            summarizeByPeriod.setInt(6, to.getYear());
+            summarizeByPeriod.setInt(7, to.getMonthValue());
+            try (ResultSet summary = summarizeByPeriod.executeQuery()) {
+                while (summary.next()) {
+                    Integer periodId = summary.getInt("period_id");
+                    int amount = summary.getInt("amount");
+                    long income = summary.getLong("income");
+                    totals.put(periodId, new PeriodTotals(amount, income));
+                }
             }
         }
-        return id;
+        return totals;
     }
 
     @Override
@@ -140,34 +424,139 @@ public class TransactionDAOImpl implements TransactionRepository {
 
     private void add(Transaction transaction) throws SQLException {
         if (transaction.getId() == null) {
-            addTransaction.setInt(1, transaction.getPeriodId());
-            addTransaction.setInt(2, transaction.getAssetId());
-            addTransaction.setInt(3, transaction.getAmount());
-            addTransaction.setDouble(4, transaction.getPrice());
+            try (Connection conn = dataSource.getConnection()) {
+                add(conn, transaction);
+            }
+        }
+    }
+
+    private void add(Connection conn, Transaction transaction) throws SQLException {
+        try (PreparedStatement addTransaction = conn.prepareStatement(ADD_TRANSACTION,
+                Statement.RETURN_GENERATED_KEYS)) {
+            bindInsert(addTransaction, transaction);
             addTransaction.executeUpdate();
+            try (ResultSet generatedKeys = addTransaction.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    transaction.setId(generatedKeys.getInt(1));
+                    TransactionalDataSource.onRollback(() -> transaction.setId(null));
+                }
+            }
         }
     }
 
     private void update(Transaction transaction) throws SQLException {
-        Integer id = transaction.getId();
-        Integer periodId = transaction.getPeriodId();
-        Integer assetId = transaction.getAssetId();
-        int amount = transaction.getAmount();
-        int price = transaction.getPrice();
+        try (Connection conn = dataSource.getConnection()) {
+            update(conn, transaction);
+        }
+    }
+
+    private void update(Connection conn, Transaction transaction) throws SQLException {
+        try (PreparedStatement updateTransaction = conn.prepareStatement(UPDATE_TRANSACTION)) {
+            bindUpdate(updateTransaction, transaction);
+            updateTransaction.executeUpdate();
+        }
+    }
 
-        updateTransaction.setInt(1, periodId);
-        updateTransaction.setInt(2, assetId);
-        updateTransaction.setInt(3, amount);
-        updateTransaction.setDouble(4, price);
-        updateTransaction.setInt(5, id);
-        updateTransaction.executeUpdate();
+    @Override
+    public void saveWithStock(Transaction transaction) throws SQLException {
+        boolean insert = transaction.getId() == null;
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (insert) {
+                    add(conn, transaction);
+                    AssetDAOImpl.adjustStock(conn, transaction.getAssetId(), -transaction.getAmount());
+                } else {
+                    Transaction old = lockById(conn, transaction.getId());
+                    if (old == null) {
+                        throw new SQLException("No transaction with id "
+                                + transaction.getId() + ".");
+                    }
+                    AssetDAOImpl.adjustStock(conn, old.getAssetId(), old.getAmount());
+                    update(conn, transaction);
+                    AssetDAOImpl.adjustStock(conn, transaction.getAssetId(),
+                            -transaction.getAmount());
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException ex) {
+                TransactionalDataSource.rollback(conn, ex);
+                if (insert) {
+                    transaction.setId(null);
+                }
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public Transaction deleteWithStock(Integer id) throws SQLException {
+        if (id == null) {
+            return null;
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Transaction old = lockById(conn, id);
+                if (old != null) {
+                    try (PreparedStatement deleteTransaction = conn.prepareStatement(DELETE_TRANSACTION)) {
+                        deleteTransaction.setInt(1, id);
+                        deleteTransaction.executeUpdate();
+                    }
+                    AssetDAOImpl.adjustStock(conn, old.getAssetId(), old.getAmount());
+                }
+                conn.commit();
+                return old;
+            } catch (SQLException | RuntimeException ex) {
+                TransactionalDataSource.rollback(conn, ex);
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Reads the transaction and locks its row until the end of the database
+     * transaction, so its old asset and amount cannot change meanwhile.
+     */
+    private Transaction lockById(Connection conn, Integer id) throws SQLException {
+        try (PreparedStatement lock = conn.prepareStatement(LOCK_BY_ID)) {
+            lock.setInt(1, id);
+            try (ResultSet rs = lock.executeQuery()) {
+                return rs.next() ? makeOne(rs) : null;
+            }
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Transaction> transactions) throws SQLException {
+        batchWriter.saveAll(dataSource, transactions);
+    }
+
+    private void bindInsert(PreparedStatement statement, Transaction transaction)
+            throws SQLException {
+        statement.setInt(1, transaction.getPeriodId());
+        statement.setInt(2, transaction.getAssetId());
+        statement.setInt(3, transaction.getAmount());
+        statement.setInt(4, transaction.getPrice());
+    }
+
+    private void bindUpdate(PreparedStatement statement, Transaction transaction)
+            throws SQLException {
+        bindInsert(statement, transaction);
+        statement.setInt(5, transaction.getId());
     }
 
     @Override
     public boolean delete(Integer id) throws SQLException {
         if (id != null) {
-            this.deleteTransaction.setInt(1, id);
-            this.deleteTransaction.executeUpdate();
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement deleteTransaction = conn.prepareStatement(DELETE_TRANSACTION)) {
+                deleteTransaction.setInt(1, id);
+                deleteTransaction.executeUpdate();
+            }
             return true;
         }
         return false;
@@ -175,16 +564,38 @@ public class TransactionDAOImpl implements TransactionRepository {
 
     @Override
     public void close() throws SQLException {
-        findAllTransaction.close();
-        findById.close();
-        findByAssetId.close();
-        findByPeriodId.close();
-        findAllIncome.close();
-        findAllExpense.close();
-        findLatest.close();
-        addTransaction.close();
-        updateTransaction.close();
-        deleteTransaction.close();
+    }
+
+    private List<Transaction> findList(String query) throws SQLException {
+        List<Transaction> transactions;
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement statement = conn.prepareStatement(query);
+                ResultSet rs = statement.executeQuery()) {
+            transactions = makeList(rs);
+        }
+        return transactions;
+    }
+
+    private List<Transaction> findList(String query, Integer id) throws SQLException {
+        List<Transaction> transactions;
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement statement = conn.prepareStatement(query)) {
+            statement.setInt(1, id);
+            try (ResultSet rs = statement.executeQuery()) {
+                transactions = makeList(rs);
+            }
+        }
+        return transactions;
+    }
+
+    private List<TransactionRow> findRowList(String query) throws SQLException {
+        List<TransactionRow> rows;
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement statement = conn.prepareStatement(query);
+                ResultSet rs = statement.executeQuery()) {
+            rows = makeRowList(rs);
+        }
+        return rows;
     }
 
     private List<Transaction> makeList(ResultSet rs) throws
@@ -210,4 +621,23 @@ public class TransactionDAOImpl implements TransactionRepository {
         return transaction;
     }
 
+    private List<TransactionRow> makeRowList(ResultSet rs) throws
+            SQLException {
+        List<TransactionRow> ret = new ArrayList<>();
+        while (rs.next()) {
+            ret.add(makeRow(rs));
+        }
+        return ret;
+    }
+
+    private TransactionRow makeRow(ResultSet rs) throws SQLException {
+        Integer id = rs.getInt("id");
+        YearMonth date = YearMonth.of(rs.getInt("year"), rs.getInt("month"));
+        String assetName = rs.getString("name");
+        Integer assetId = rs.getInt("asset_id");
+        int price = rs.getInt("price");
+        int amount = rs.getInt("amount");
+        return new TransactionRow(id, date, assetName, assetId, price, amount);
+    }
+
 }
@@ -0,0 +1,386 @@
+package com.csontaka.transaction_record_app.dao;
+
+import com.csontaka.transaction_record_app.entity.AssetType;
+import com.csontaka.transaction_record_app.entity.TransactionRow;
+import java.time.YearMonth;
+
+/**
+ * Describes which transactions of an asset type to read from the database.
+ * Every filter is optional, a null value means the filter is not used. The
+ * matching transactions are returned in the order of a
+ * {@link SortColumn}, by default in the order of their id.
+ *
+ * @author Adrienn Csontak
+ */
+public class TransactionQuery {
+
+    /**
+     * The columns the transactions can be ordered by. The transactions with
+     * the same value are ordered by their id, so the order is always the
+     * same and a page can be continued from the last row of the page before
+     * it. Only the id order is read through an index, the others sort the
+     * matching transactions for every page.
+     */
+    public enum SortColumn {
+
+        /**
+         * The id of the transaction.
+         */
+        ID("transactions.id"),
+        /**
+         * The date of the period, compared as year * 12 + month.
+         */
+        DATE("periods.year * 12 + periods.month"),
+        /**
+         * The name of the asset.
+         */
+        NAME("assets.name"),
+        /**
+         * The price of the transaction.
+         */
+        PRICE("transactions.price"),
+        /**
+         * The amount of the transaction.
+         */
+        AMOUNT("transactions.amount");
+
+        private final String expression;
+
+        private SortColumn(String expression) {
+            this.expression = expression;
+        }
+
+        /**
+         * Gets the SQL expression of the column.
+         *
+         * @return A String containing the expression.
+         */
+        String getExpression() {
+            return expression;
+        }
+
+        /**
+         * Gets the value of the column in a row, as it is compared by the
+         * database.
+         *
+         * @param row A <code>TransactionRow</code> object.
+         * @return An Integer or a String containing the value.
+         */
+        public Object valueOf(TransactionRow row) {
+            switch (this) {
+                case DATE:
+                    return row.getDate().getYear() * 12 + row.getDate().getMonthValue();
+                case NAME:
+                    return row.getAssetName();
+                case PRICE:
+                    return row.getPrice();
+                case AMOUNT:
+                    return row.getAmount();
+                default:
+                    return row.getId();
+            }
+        }
+    }
+
+    private final AssetType type;
+    private YearMonth fromDate;
+    private YearMonth toDate;
+    private String namePrefix;
+    private Integer minPrice;
+    private Integer maxPrice;
+    private Integer minAmount;
+    private Integer maxAmount;
+    private SortColumn sortColumn = SortColumn.ID;
+    private boolean descending;
+    private Object afterValue;
+    private Integer afterId;
+    private int offset;
+    private int limit;
+
+    /**
+     * Creates a TransactionQuery returning every transaction of the specified
+     * asset type.
+     *
+     * @param type The <code>AssetType</code> of the transactions' assets.
+     */
+    public TransactionQuery(AssetType type) {
+        this.type = type;
+    }
+
+    /**
+     * Creates a copy of the specified TransactionQuery.
+     *
+     * @param query The TransactionQuery to copy.
+     */
+    public TransactionQuery(TransactionQuery query) {
+        this.type = query.type;
+        this.fromDate = query.fromDate;
+        this.toDate = query.toDate;
+        this.namePrefix = query.namePrefix;
+        this.minPrice = query.minPrice;
+        this.maxPrice = query.maxPrice;
+        this.minAmount = query.minAmount;
+        this.maxAmount = query.maxAmount;
+        this.sortColumn = query.sortColumn;
+        this.descending = query.descending;
+        this.afterValue = query.afterValue;
+        this.afterId = query.afterId;
+        this.offset = query.offset;
+        this.limit = query.limit;
+    }
+
+    /**
+     * Gets the asset type of the transactions.
+     *
+     * @return The <code>AssetType</code> of the transactions' assets.
+     */
+    public AssetType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the first period of the transactions.
+     *
+     * @return A YearMonth object or null.
+     */
+    public YearMonth getFromDate() {
+        return fromDate;
+    }
+
+    /**
+     * Sets the first period of the transactions, inclusive.
+     *
+     * @param fromDate A YearMonth object or null.
+     */
+    public void setFromDate(YearMonth fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    /**
+     * Gets the last period of the transactions.
+     *
+     * @return A YearMonth object or null.
+     */
+    public YearMonth getToDate() {
+        return toDate;
+    }
+
+    /**
+     * Sets the last period of the transactions, inclusive.
+     *
+     * @param toDate A YearMonth object or null.
+     */
+    public void setToDate(YearMonth toDate) {
+        this.toDate = toDate;
+    }
+
+    /**
+     * Gets the beginning of the asset names.
+     *
+     * @return A String or null.
+     */
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    /**
+     * Sets the beginning of the asset names. An empty String means no
+     * filter.
+     *
+     * @param namePrefix A String or null.
+     */
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    /**
+     * Gets the lowest price in cents.
+     *
+     * @return An Integer or null.
+     */
+    public Integer getMinPrice() {
+        return minPrice;
+    }
+
+    /**
+     * Sets the lowest price in cents, inclusive.
+     *
+     * @param minPrice An Integer or null.
+     */
+    public void setMinPrice(Integer minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    /**
+     * Gets the highest price in cents.
+     *
+     * @return An Integer or null.
+     */
+    public Integer getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Sets the highest price in cents, inclusive.
+     *
+     * @param maxPrice An Integer or null.
+     */
+    public void setMaxPrice(Integer maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    /**
+     * Gets the lowest amount.
+     *
+     * @return An Integer or null.
+     */
+    public Integer getMinAmount() {
+        return minAmount;
+    }
+
+    /**
+     * Sets the lowest amount, inclusive.
+     *
+     * @param minAmount An Integer or null.
+     */
+    public void setMinAmount(Integer minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    /**
+     * Gets the highest amount.
+     *
+     * @return An Integer or null.
+     */
+    public Integer getMaxAmount() {
+        return maxAmount;
+    }
+
+    /**
+     * Sets the highest amount, inclusive.
+     *
+     * @param maxAmount An Integer or null.
+     */
+    public void setMaxAmount(Integer maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    /**
+     * Gets the column the transactions are ordered by.
+     *
+     * @return The <code>SortColumn</code> of the order.
+     */
+    public SortColumn getSortColumn() {
+        return sortColumn;
+    }
+
+    /**
+     * Sets the column the transactions are ordered by.
+     *
+     * @param sortColumn The <code>SortColumn</code> of the order.
+     */
+    public void setSortColumn(SortColumn sortColumn) {
+        this.sortColumn = sortColumn;
+    }
+
+    /**
+     * Gets whether the transactions are returned in descending order.
+     *
+     * @return True if the order is descending, false if ascending.
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Sets whether the transactions are returned in descending order.
+     *
+     * @param descending True for descending, false for ascending order.
+     */
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    /**
+     * Gets the id after which the transactions start.
+     *
+     * @return An Integer or null.
+     */
+    public Integer getAfterId() {
+        return afterId;
+    }
+
+    /**
+     * Sets the id after which the transactions start, when they are ordered
+     * by id. Continuing from the last id of a page finds the next page
+     * through the primary key index.
+     *
+     * @param afterId An Integer or null.
+     */
+    public void setAfterId(Integer afterId) {
+        this.afterId = afterId;
+        this.afterValue = null;
+    }
+
+    /**
+     * Gets the value of the sort column after which the transactions start.
+     *
+     * @return An Integer, a String or null.
+     */
+    public Object getAfterValue() {
+        return afterValue;
+    }
+
+    /**
+     * Makes the transactions start after the specified row in the order of
+     * the query, so the next page is found from the last row of a page
+     * without skipping the rows before it.
+     *
+     * @param row The <code>TransactionRow</code> to continue after, or null
+     * to start from the first transaction.
+     */
+    public void continueAfter(TransactionRow row) {
+        if (row == null) {
+            setAfterId(null);
+        } else {
+            this.afterId = row.getId();
+            this.afterValue = sortColumn == SortColumn.ID ? null : sortColumn.valueOf(row);
+        }
+    }
+
+    /**
+     * Gets the number of matching transactions to skip.
+     *
+     * @return An int containing the offset.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Sets the number of matching transactions to skip.
+     *
+     * @param offset An int containing the offset.
+     */
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Gets the maximum number of returned transactions.
+     *
+     * @return An int containing the limit, 0 means no limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the maximum number of returned transactions.
+     *
+     * @param limit An int containing the limit, 0 means no limit.
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
@@ -1,8 +1,15 @@
 package com.csontaka.transaction_record_app.dao;
 
+import com.csontaka.transaction_record_app.entity.AssetType;
+import com.csontaka.transaction_record_app.entity.PeriodTotals;
 import com.csontaka.transaction_record_app.entity.Transaction;
+import com.csontaka.transaction_record_app.entity.TransactionRow;
 import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Collects, inserts, updates and deletes {@link com.csontaka.transaction_records.entity.Transaction}
@@ -71,16 +78,102 @@ public interface TransactionRepository {
     public List<Transaction> findAllExpense() throws SQLException;
 
     /**
-     * Gets an <code>Transaction</code>
-     * object with the highest id value.
+     * Retrieves all transactions from the database where the connected asset's
+     * type is product(1), joined with the date of their period and the name
+     * of their asset.
+     *
+     * @return A List of <code>TransactionRow</code> objects
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public List<TransactionRow> findAllIncomeRows() throws SQLException;
+
+    /**
+     * Retrieves all transactions from the database where the connected asset's
+     * type is equipment(0), joined with the date of their period and the name
+     * of their asset.
+     *
+     * @return A List of <code>TransactionRow</code> objects
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public List<TransactionRow> findAllExpenseRows() throws SQLException;
+
+    /**
+     * Gets the transactions matching the specified query, joined with the
+     * date of their period and the name of their asset, in the order of their
+     * id. The filters are evaluated by the database, so only the matching
+     * rows are read. A query continuing after a known id finds its rows
+     * through the primary key index.
+     *
+     * @param query A <code>TransactionQuery</code> object describing the
+     * filters, the first id, the offset and the limit.
+     * @return A List of <code>TransactionRow</code> objects.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public List<TransactionRow> find(TransactionQuery query) throws SQLException;
+
+    /**
+     * Counts the transactions matching the specified query. The offset and the
+     * limit of the query are not used.
+     *
+     * @param query A <code>TransactionQuery</code> object describing the
+     * filters.
+     * @return An int containing the number of transactions.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public int count(TransactionQuery query) throws SQLException;
+
+    /**
+     * Passes the transactions matching the specified query, joined with the
+     * date of their period and the name of their asset, to an action one by
+     * one while reading them from the database, without collecting them in a
+     * List. The rows are streamed from the server in the order of their id.
      *
-     * @return A Transaction object.
+     * @param query A <code>TransactionQuery</code> object describing the
+     * filters.
+     * @param action The action to perform on every <code>TransactionRow</code>.
      * @throws SQLException If an SQL exception occurs.
      */
-    public Integer findLatest() throws SQLException;
+    public void forEachRow(TransactionQuery query, Consumer<TransactionRow> action)
+            throws SQLException;
 
     /**
-     * Saves the given <code>Transaction</code> object to the database.
+     * Passes every transaction of the database to an action one by one while
+     * reading them, without collecting them in a List. The rows are streamed
+     * from the server, so the memory use does not depend on the number of
+     * transactions.
+     *
+     * @param action The action to perform on every <code>Transaction</code>.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void forEach(Consumer<Transaction> action) throws SQLException;
+
+    /**
+     * Gets a <code>TransactionRow</code> object from the database with a
+     * specified transaction id.
+     *
+     * @param id An Integer containing the transaction's id.
+     * @return A <code>TransactionRow</code> object.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public TransactionRow findRowById(Integer id) throws SQLException;
+
+    /**
+     * Sums the amount and the income of the transactions by period in the
+     * database, where the connected asset's type is the specified type and the
+     * period is between the specified year-months, both inclusive.
+     *
+     * @param type The <code>AssetType</code> of the transactions' assets.
+     * @param from A YearMonth object containing the date of the first period.
+     * @param to A YearMonth object containing the date of the last period.
+     * @return A Map of <code>PeriodTotals</code> objects by period id.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public Map<Integer, PeriodTotals> summarizeByPeriod(AssetType type,
+            YearMonth from, YearMonth to) throws SQLException;
+
+    /**
+     * Saves the given <code>Transaction</code> object to the database. A new
+     * transaction gets the id generated by the database.
      *
      * @param transaction A <code>Transaction</code> object to save.
      * @throws SQLException If an SQL exception occurs.
@@ -98,7 +191,43 @@ public interface TransactionRepository {
     public boolean delete(Integer id) throws SQLException;
 
     /**
-     * Close the <code>PreparedStatement</code> objects of the class.
+     * Saves the given <code>Transaction</code> object and changes the stock of
+     * its asset in one database transaction. The amount of a new transaction
+     * is taken from the stock of its asset. The amount of an existing
+     * transaction, as stored in the database, is given back to the stock of
+     * its old asset first. The stock is changed by the database, so changes
+     * made at the same time are not lost.
+     *
+     * @param transaction A <code>Transaction</code> object to save.
+     * @throws SQLException If an SQL exception occurs, or the transaction has
+     * an id that is not in the repository.
+     */
+    public void saveWithStock(Transaction transaction) throws SQLException;
+
+    /**
+     * Deletes the <code>Transaction</code> object specified by id and gives
+     * its amount back to the stock of its asset in one database transaction.
+     *
+     * @param id An Integer containing the id of the Transaction object to
+     * delete.
+     * @return The deleted <code>Transaction</code> object, or null if there
+     * was no transaction with the id.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public Transaction deleteWithStock(Integer id) throws SQLException;
+
+    /**
+     * Saves the given <code>Transaction</code> objects to the database in one
+     * transaction, sending the statements in batches. The new transactions get the
+     * ids generated by the database. Nothing is saved if one of them fails.
+     *
+     * @param transactions A Collection of <code>Transaction</code> objects to save.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void saveAll(Collection<Transaction> transactions) throws SQLException;
+
+    /**
+     * Releases the resources held by the repository.
      *
      * @throws SQLException If an SQL exception occurs.
      */
@@ -0,0 +1,272 @@
+package com.csontaka.transaction_record_app.dao;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * A <code>DataSource</code> that lets a unit of work run the calls of several
+ * repositories in one database transaction. While
+ * {@link #inTransaction(com.csontaka.transaction_record_app.dao.TransactionalDataSource.Work)}
+ * runs, every connection asked for on the same thread is the connection of
+ * the unit of work, so the statements are committed once, or rolled back
+ * together when one of them fails. The repositories committing their own
+ * statements join the unit of work: their commits and rollbacks are left to
+ * it. Outside a unit of work the connections come from the wrapped
+ * <code>DataSource</code>. The repositories keeping changes in memory, like
+ * the write-behind repositories, can register an action with
+ * {@link #onRollback(java.lang.Runnable)} to take back what they dropped
+ * after writing it in a unit of work that is rolled back, and the caches can
+ * drop the written values with {@link #onCommit(java.lang.Runnable)} when
+ * the other threads can read the new ones.
+ *
+ * @author Adrienn Csontak
+ */
+public class TransactionalDataSource implements DataSource {
+
+    /**
+     * Database calls run in one transaction.
+     *
+     * @param <T> The type of the returned value.
+     */
+    public interface Work<T> {
+
+        /**
+         * Runs the database calls.
+         *
+         * @return The result of the calls.
+         * @throws SQLException If an SQL exception occurs.
+         */
+        T execute() throws SQLException;
+    }
+
+    /**
+     * The actions registered during the outermost unit of work of a thread.
+     */
+    private static final class Actions {
+
+        private final List<Runnable> commit = new ArrayList<>();
+        private final List<Runnable> rollback = new ArrayList<>();
+    }
+
+    private static final ThreadLocal<Actions> ACTIONS = new ThreadLocal<>();
+
+    private final DataSource dataSource;
+    private final ThreadLocal<Connection> current = new ThreadLocal<>();
+
+    /**
+     * Creates a TransactionalDataSource lending the connections of the
+     * specified data source.
+     *
+     * @param dataSource DataSource object providing the connections with the
+     * database.
+     */
+    public TransactionalDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Runs the specified work in one database transaction. The transaction is
+     * committed when the work returns and rolled back when it throws. Work
+     * started inside another unit of work joins it. The actions registered
+     * with {@link #onRollback(java.lang.Runnable)} run after every rollback,
+     * even if the rollback itself fails, and the exception of the work is
+     * thrown with the failures of the rollback and the actions suppressed.
+     *
+     * @param <T> The type of the returned value.
+     * @param work The database calls to run.
+     * @return The result of the work.
+     * @throws SQLException If an SQL exception occurs. Nothing is written then.
+     */
+    public <T> T inTransaction(Work<T> work) throws SQLException {
+        if (current.get() != null) {
+            return work.execute();
+        }
+        boolean ownsActions = ACTIONS.get() == null;
+        Actions actions = new Actions();
+        if (ownsActions) {
+            ACTIONS.set(actions);
+        }
+        T result;
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            current.set(conn);
+            try {
+                result = work.execute();
+                conn.commit();
+            } catch (SQLException | RuntimeException ex) {
+                rollback(conn, ex);
+                for (Runnable action : actions.rollback) {
+                    try {
+                        action.run();
+                    } catch (RuntimeException actionEx) {
+                        ex.addSuppressed(actionEx);
+                    }
+                }
+                throw ex;
+            } finally {
+                current.remove();
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            if (ownsActions) {
+                ACTIONS.remove();
+            }
+        }
+        for (Runnable action : actions.commit) {
+            action.run();
+        }
+        return result;
+    }
+
+    /**
+     * Rolls back the connection after the specified failure. A failure of the
+     * rollback is added to it as suppressed, so the exception that made the
+     * work fail is the one thrown.
+     *
+     * @param conn The Connection to roll back.
+     * @param cause The Exception the work failed with.
+     */
+    static void rollback(Connection conn, Exception cause) {
+        try {
+            conn.rollback();
+        } catch (SQLException ex) {
+            cause.addSuppressed(ex);
+        }
+    }
+
+    /**
+     * Registers an action run after the unit of work of the calling thread
+     * is rolled back. Outside a unit of work the action is never run,
+     * because the statements were committed at once.
+     *
+     * @param action The Runnable to run after a rollback.
+     */
+    public static void onRollback(Runnable action) {
+        Actions actions = ACTIONS.get();
+        if (actions != null) {
+            actions.rollback.add(action);
+        }
+    }
+
+    /**
+     * Registers an action run after the unit of work of the calling thread
+     * is committed. Outside a unit of work the action is run at once, because
+     * the statements were committed at once.
+     *
+     * @param action The Runnable to run after the commit.
+     */
+    public static void onCommit(Runnable action) {
+        Actions actions = ACTIONS.get();
+        if (actions != null) {
+            actions.commit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Gets whether the calling thread is running a unit of work of any
+     * <code>TransactionalDataSource</code>. The values read in a unit of work
+     * may not be committed yet.
+     *
+     * @return True inside a unit of work, false if not.
+     */
+    public static boolean isUnitOfWorkRunning() {
+        return ACTIONS.get() != null;
+    }
+
+    /**
+     * Gets whether the calling thread is running a unit of work.
+     *
+     * @return True inside a unit of work, false if not.
+     */
+    public boolean isInTransaction() {
+        return current.get() != null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection conn = current.get();
+        if (conn == null) {
+            return dataSource.getConnection();
+        }
+        return join(conn);
+    }
+
+    /**
+     * Wraps the connection of the unit of work, so closing it, committing or
+     * rolling it back and changing its auto-commit mode are left to the unit
+     * of work.
+     */
+    private Connection join(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                        case "commit":
+                        case "rollback":
+                        case "setAutoCommit":
+                            return null;
+                        case "getAutoCommit":
+                            return false;
+                        default:
+                            try {
+                                return method.invoke(conn, args);
+                            } catch (InvocationTargetException ex) {
+                                throw ex.getCause();
+                            }
+                    }
+                });
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The data source uses the configured user.");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return dataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return dataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+    }
+}
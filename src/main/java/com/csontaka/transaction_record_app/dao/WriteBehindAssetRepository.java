@@ -0,0 +1,214 @@
+package com.csontaka.transaction_record_app.dao;
+
+import com.csontaka.transaction_record_app.entity.Asset;
+import com.csontaka.transaction_record_app.entity.AssetType;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that implements the methods of
+ * {@link com.csontaka.transaction_record_app.dao.AssetRepository} interface by
+ * collecting the changes of the existing assets, like their stock, and
+ * letting a {@link com.csontaka.transaction_record_app.dao.WriteBehindQueue}
+ * write them to another <code>AssetRepository</code> later. Only the last
+ * change of an asset is written. The found assets show the pending changes,
+ * so the callers see their own changes before they are written. The stock
+ * is not part of a change: it is always read from the database and changed
+ * there with {@link #adjustStock(java.lang.Integer, int)}. New assets
+ * and deletes are written at once, because the callers need the id generated
+ * by the database.
+ *
+ * @author Adrienn Csontak
+ */
+public class WriteBehindAssetRepository implements AssetRepository, WriteBehindQueue.Pending {
+
+    private final AssetRepository delegate;
+    private final WriteBehindQueue queue;
+    private final Map<Integer, Asset> pending = new LinkedHashMap<>();
+
+    /**
+     * Creates a WriteBehindAssetRepository with the specified repository and
+     * queue.
+     *
+     * @param delegate The <code>AssetRepository</code> writing the database.
+     * @param queue The <code>WriteBehindQueue</code> flushing the changes.
+     */
+    public WriteBehindAssetRepository(AssetRepository delegate, WriteBehindQueue queue) {
+        this.delegate = delegate;
+        this.queue = queue;
+        queue.register(this);
+    }
+
+    @Override
+    public List<Asset> findAll() throws SQLException {
+        return overlay(delegate.findAll(), null);
+    }
+
+    @Override
+    public List<Asset> findAllProducts() throws SQLException {
+        return overlay(delegate.findAllProducts(), AssetType.PRODUCT);
+    }
+
+    @Override
+    public List<Asset> findAllEquipment() throws SQLException {
+        return overlay(delegate.findAllEquipment(), AssetType.EQUIPMENT);
+    }
+
+    @Override
+    public Asset findById(Integer id) throws SQLException {
+        Asset asset = delegate.findById(id);
+        if (asset == null) {
+            return null;
+        }
+        synchronized (this) {
+            Asset changed = pending.get(id);
+            return changed == null ? asset : copy(changed, asset.getStock());
+        }
+    }
+
+    @Override
+    public void save(Asset asset) throws SQLException {
+        if (asset.getId() == null) {
+            delegate.save(asset);
+            return;
+        }
+        synchronized (this) {
+            pending.put(asset.getId(), copy(asset));
+        }
+        queue.schedule();
+    }
+
+    @Override
+    public boolean delete(Asset asset) throws SQLException {
+        Asset dropped;
+        synchronized (this) {
+            dropped = pending.remove(asset.getId());
+        }
+        if (dropped != null) {
+            TransactionalDataSource.onRollback(() -> restore(Collections.singletonList(dropped)));
+        }
+        return delegate.delete(asset);
+    }
+
+    /**
+     * {@inheritDoc} The pending changes do not contain the stock, so they are
+     * not written first.
+     */
+    @Override
+    public boolean adjustStock(Integer id, int delta) throws SQLException {
+        return delegate.adjustStock(id, delta);
+    }
+
+    @Override
+    public void evict(Integer id) {
+        delegate.evict(id);
+    }
+
+    /**
+     * {@inheritDoc} A Collection containing a new asset is written at once,
+     * and the pending changes of its existing assets are dropped, so they do
+     * not overwrite it later.
+     */
+    @Override
+    public void saveAll(Collection<Asset> assets) throws SQLException {
+        boolean hasNew = false;
+        for (Asset asset : assets) {
+            hasNew |= asset.getId() == null;
+        }
+        if (hasNew) {
+            List<Asset> dropped = new ArrayList<>();
+            synchronized (this) {
+                for (Asset asset : assets) {
+                    Asset old = asset.getId() == null ? null : pending.remove(asset.getId());
+                    if (old != null) {
+                        dropped.add(old);
+                    }
+                }
+            }
+            if (!dropped.isEmpty()) {
+                TransactionalDataSource.onRollback(() -> restore(dropped));
+            }
+            delegate.saveAll(assets);
+            return;
+        }
+        synchronized (this) {
+            for (Asset asset : assets) {
+                pending.put(asset.getId(), copy(asset));
+            }
+        }
+        queue.schedule();
+    }
+
+    @Override
+    public void flushPending() throws SQLException {
+        List<Asset> changes;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            changes = new ArrayList<>(pending.values());
+        }
+        delegate.saveAll(changes);
+        synchronized (this) {
+            for (Asset asset : changes) {
+                pending.remove(asset.getId(), asset);
+            }
+        }
+        TransactionalDataSource.onRollback(() -> restore(changes));
+    }
+
+    /**
+     * Makes the changes written in a rolled back unit of work pending again,
+     * unless a newer change of the same asset is pending.
+     */
+    private void restore(List<Asset> changes) {
+        synchronized (this) {
+            for (Asset asset : changes) {
+                pending.putIfAbsent(asset.getId(), asset);
+            }
+        }
+        queue.schedule();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        delegate.close();
+    }
+
+    /**
+     * Replaces the found assets with their pending changes. An asset whose
+     * changed type is not the required type is left out.
+     */
+    private synchronized List<Asset> overlay(List<Asset> assets, AssetType type) {
+        if (pending.isEmpty()) {
+            return assets;
+        }
+        List<Asset> result = new ArrayList<>(assets.size());
+        for (Asset asset : assets) {
+            Asset changed = pending.get(asset.getId());
+            if (changed == null) {
+                result.add(asset);
+            } else if (type == null || changed.getType() == type) {
+                result.add(copy(changed, asset.getStock()));
+            }
+        }
+        return result;
+    }
+
+    private static Asset copy(Asset asset) {
+        return copy(asset, asset.getStock());
+    }
+
+    private static Asset copy(Asset asset, int stock) {
+        Asset copy = new Asset(asset.getName(), asset.getFeature(), asset.getType());
+        copy.setId(asset.getId());
+        copy.setStock(stock);
+        copy.setMaterialCost(asset.getMaterialCost());
+        return copy;
+    }
+}
@@ -0,0 +1,183 @@
+package com.csontaka.transaction_record_app.dao;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes the changes collected by the write-behind repositories to the
+ * database on a background thread. A flush is scheduled after the first
+ * change and runs after a delay, so the changes made in the meantime are
+ * written together in batches. A failed flush is retried, and when every
+ * retry fails the error listener is notified and the changes stay pending
+ * until the next flush.
+ *
+ * @author Adrienn Csontak
+ */
+public class WriteBehindQueue implements AutoCloseable {
+
+    /**
+     * The delay of a scheduled flush in milliseconds used by default.
+     */
+    public static final long DEFAULT_DELAY_MILLIS = 500;
+
+    /**
+     * The number of retries of a failed flush used by default.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    /**
+     * The changes of a write-behind repository waiting to be written.
+     */
+    interface Pending {
+
+        /**
+         * Writes the pending changes to the database. The changes that were
+         * not written stay pending.
+         *
+         * @throws SQLException If an SQL exception occurs.
+         */
+        void flushPending() throws SQLException;
+    }
+
+    private final long delayMillis;
+    private final int maxRetries;
+    private final List<Pending> pendings = new CopyOnWriteArrayList<>();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Consumer<SQLException> errorListener;
+    private boolean scheduled;
+    private boolean closed;
+
+    /**
+     * Creates a WriteBehindQueue with the default delay and number of
+     * retries.
+     */
+    public WriteBehindQueue() {
+        this(DEFAULT_DELAY_MILLIS, DEFAULT_MAX_RETRIES);
+    }
+
+    /**
+     * Creates a WriteBehindQueue with the specified delay and number of
+     * retries.
+     *
+     * @param delayMillis A long containing the milliseconds between a change
+     * and the flush writing it.
+     * @param maxRetries An int containing the number of times a failed flush
+     * is retried.
+     */
+    public WriteBehindQueue(long delayMillis, int maxRetries) {
+        this.delayMillis = delayMillis;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Sets the listener notified on the background thread when a scheduled
+     * flush failed after every retry.
+     *
+     * @param errorListener A Consumer of the last <code>SQLException</code>.
+     */
+    public void setErrorListener(Consumer<SQLException> errorListener) {
+        this.errorListener = errorListener;
+    }
+
+    /**
+     * Registers the pending changes of a repository. The repositories are
+     * flushed in the order of their registration.
+     */
+    void register(Pending pending) {
+        pendings.add(pending);
+    }
+
+    /**
+     * Schedules a flush unless one is already scheduled.
+     */
+    synchronized void schedule() {
+        if (scheduled || closed) {
+            return;
+        }
+        scheduled = true;
+        timer.schedule(this::flushScheduled, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flushScheduled() {
+        synchronized (this) {
+            scheduled = false;
+        }
+        try {
+            flushWithRetries();
+        } catch (SQLException ex) {
+            Consumer<SQLException> listener = errorListener;
+            if (listener != null) {
+                listener.accept(ex);
+            } else {
+                Logger.getLogger(WriteBehindQueue.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushWithRetries() throws SQLException, InterruptedException {
+        for (int attempt = 0;; attempt++) {
+            try {
+                flush();
+                return;
+            } catch (SQLException ex) {
+                if (attempt >= maxRetries) {
+                    throw ex;
+                }
+                Logger.getLogger(WriteBehindQueue.class.getName()).log(Level.WARNING,
+                        "Flush failed, retrying.", ex);
+                Thread.sleep(delayMillis * (attempt + 1));
+            }
+        }
+    }
+
+    /**
+     * Writes every pending change to the database on the calling thread. The
+     * flushes run one at a time, but the repositories can collect new changes
+     * while a flush is writing. A flush waits for the database locks of the
+     * running units of work, so it must not be called inside a unit of work:
+     * the repositories never call it from their write methods.
+     *
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void flush() throws SQLException {
+        synchronized (flushLock) {
+            for (Pending pending : pendings) {
+                pending.flushPending();
+            }
+        }
+    }
+
+    /**
+     * Stops the scheduling of flushes and writes the pending changes to the
+     * database, retrying a failed flush.
+     *
+     * @throws SQLException If the pending changes could not be written.
+     */
+    @Override
+    public void close() throws SQLException {
+        synchronized (this) {
+            closed = true;
+        }
+        timer.shutdownNow();
+        try {
+            flushWithRetries();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while writing the pending changes.", ex);
+        }
+    }
+}
@@ -36,6 +36,20 @@ public class Asset {
         this.type = type;
     }
 
+    /**
+     * Creates a copy of the specified asset.
+     *
+     * @param other The Asset to copy.
+     */
+    public Asset(Asset other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.feature = other.feature;
+        this.type = other.type;
+        this.stock = other.stock;
+        this.materialCost = other.materialCost;
+    }
+
     /**
      * Sets the asset's unique id.
      *
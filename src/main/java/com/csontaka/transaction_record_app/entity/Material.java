@@ -1,9 +1,5 @@
 package com.csontaka.transaction_record_app.entity;
 
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
-import java.util.Locale;
-
 /**
  * Represents the material cost of a product.
  *
@@ -11,16 +7,12 @@ import java.util.Locale;
  */
 public class Material extends Cost {
 
-    private final Locale LOCALE = new Locale("en", "UK");
-    private final DecimalFormat DECIMAL_FORMAT = (DecimalFormat) NumberFormat.getNumberInstance(LOCALE);
-
     /**
      * Calls the super class basic constructor.
      *
      */
     public Material() {
         super();
-        DECIMAL_FORMAT.applyPattern("##0.00");
     }
 
     /**
@@ -32,12 +24,12 @@ public class Material extends Cost {
      */
     public Material(String name, int expenditure) {
         super(name, expenditure);
-        DECIMAL_FORMAT.applyPattern("##0.00");
     }
 
     @Override
     public String toString() {
-        return super.getName() + "  £" + DECIMAL_FORMAT.format(super.getExpenditure() / 100.0);
+        return MoneyFormat.appendTo(new StringBuilder().append(super.getName()).append("  £"),
+                super.getExpenditure()).toString();
     }
 
 }
@@ -0,0 +1,84 @@
+package com.csontaka.transaction_record_app.entity;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats the amounts of money stored in pence, like the prices, the material
+ * costs and the goals, the way the application shows them: with two decimals
+ * and the decimal separator of the application's locale, without grouping.
+ * The methods are thread safe and do not create a <code>DecimalFormat</code>.
+ * The Strings of the amounts below {@value #CACHED_VALUES} pence are created
+ * once and reused.
+ *
+ * @author Adrienn Csontak
+ */
+public final class MoneyFormat {
+
+    /**
+     * The locale of the shown amounts.
+     */
+    public static final Locale LOCALE = new Locale("en", "UK");
+
+    /**
+     * The number of the non-negative amounts whose Strings are cached.
+     */
+    public static final int CACHED_VALUES = 10000;
+    private static final char SEPARATOR = DecimalFormatSymbols.getInstance(LOCALE)
+            .getDecimalSeparator();
+    private static final String[] CACHE = new String[CACHED_VALUES];
+
+    private MoneyFormat() {
+    }
+
+    /**
+     * Gets the decimal separator of the shown amounts.
+     *
+     * @return A char containing the decimal separator.
+     */
+    public static char getDecimalSeparator() {
+        return SEPARATOR;
+    }
+
+    /**
+     * Formats an amount of money.
+     *
+     * @param pence A long containing the amount in pence.
+     * @return A String containing the amount with two decimals, for example
+     * 12.05 for 1205.
+     */
+    public static String format(long pence) {
+        if (pence < 0 || pence >= CACHED_VALUES) {
+            return appendTo(new StringBuilder(14), pence).toString();
+        }
+        // Strings are immutable, so a String cached by another thread is safe
+        // to read, and a String created twice is only a wasted copy.
+        String formatted = CACHE[(int) pence];
+        if (formatted == null) {
+            formatted = appendTo(new StringBuilder(8), pence).toString();
+            CACHE[(int) pence] = formatted;
+        }
+        return formatted;
+    }
+
+    /**
+     * Appends a formatted amount of money to a <code>StringBuilder</code>
+     * without creating a String.
+     *
+     * @param builder The <code>StringBuilder</code> to append to.
+     * @param pence A long containing the amount in pence.
+     * @return The received <code>StringBuilder</code>.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, long pence) {
+        if (pence < 0) {
+            builder.append('-');
+        }
+        // divided before Math.abs, so Long.MIN_VALUE does not overflow
+        builder.append(Math.abs(pence / 100)).append(SEPARATOR);
+        long fraction = Math.abs(pence % 100);
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction);
+    }
+}
@@ -29,6 +29,17 @@ public class Period {
         this.date = date;
     }
 
+    /**
+     * Creates a copy of the specified period.
+     *
+     * @param other The Period to copy.
+     */
+    public Period(Period other) {
+        this.id = other.id;
+        this.date = other.date;
+        this.goal = other.goal;
+    }
+
     /**
      * Gets the period’s date in years and months.
      *
@@ -0,0 +1,62 @@
+package com.csontaka.transaction_record_app.entity;
+
+/**
+ * Represents the summed amount and income of the transactions in a one-month
+ * period.
+ *
+ * @author Adrienn Csontak
+ */
+public class PeriodTotals {
+
+    private int amount;
+    private long income;
+
+    /**
+     * Default constructor, sets the amount and the income to 0.
+     */
+    public PeriodTotals() {
+        this(0, 0);
+    }
+
+    /**
+     * Creates a PeriodTotals with specified amount and income.
+     *
+     * @param amount The amount of assets sold or bought in the period.
+     * @param income The summed price of the transactions in the period.
+     */
+    public PeriodTotals(int amount, long income) {
+        this.amount = amount;
+        this.income = income;
+    }
+
+    /**
+     * Adds a transaction's amount and price to the totals.
+     *
+     * @param transAmount An int containing the amount of the transaction.
+     * @param transPrice An int containing the price of the asset in the
+     * transaction.
+     */
+    public void add(int transAmount, int transPrice) {
+        amount += transAmount;
+        income += (long) transAmount * transPrice;
+    }
+
+    /**
+     * Gets the amount of assets sold or bought in the period.
+     *
+     * @return An int representing the amount of assets in the period.
+     */
+    public int getAmount() {
+        return amount;
+    }
+
+    /**
+     * Gets the summed price of the transactions in the period.
+     *
+     * @return A long representing the income of the period.
+     */
+    public long getIncome() {
+        return income;
+    }
+
+}
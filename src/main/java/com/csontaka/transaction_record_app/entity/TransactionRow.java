@@ -0,0 +1,99 @@
+package com.csontaka.transaction_record_app.entity;
+
+import java.time.YearMonth;
+
+/**
+ * Represents a transaction together with the date of its period and the name
+ * of its asset, as it is shown in a table. The objects of this class are
+ * immutable.
+ *
+ * @author Adrienn Csontak
+ */
+public final class TransactionRow {
+
+    private final Integer id;
+    private final YearMonth date;
+    private final String assetName;
+    private final Integer assetId;
+    private final int price;
+    private final int amount;
+
+    /**
+     * Creates a TransactionRow with the specified values.
+     *
+     * @param id The transaction's unique id.
+     * @param date The date of the period that the transaction happened in.
+     * @param assetName The name of the asset sold or bought through the
+     * transaction.
+     * @param assetId The id of the asset sold or bought through the
+     * transaction.
+     * @param price The price of the asset in this transaction.
+     * @param amount The amount of assets sold or bought through the
+     * transaction.
+     */
+    public TransactionRow(Integer id, YearMonth date, String assetName,
+            Integer assetId, int price, int amount) {
+        this.id = id;
+        this.date = date;
+        this.assetName = assetName;
+        this.assetId = assetId;
+        this.price = price;
+        this.amount = amount;
+    }
+
+    /**
+     * Gets the transaction's unique id.
+     *
+     * @return An Integer representing the transaction's unique id.
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Gets the date of the period that the transaction happened in.
+     *
+     * @return A YearMonth representing the period's date.
+     */
+    public YearMonth getDate() {
+        return date;
+    }
+
+    /**
+     * Gets the name of the asset sold or bought through the transaction.
+     *
+     * @return A String representing the asset's name.
+     */
+    public String getAssetName() {
+        return assetName;
+    }
+
+    /**
+     * Gets the id of the asset sold or bought through the transaction.
+     *
+     * @return An Integer representing the asset's id.
+     */
+    public Integer getAssetId() {
+        return assetId;
+    }
+
+    /**
+     * Gets the price of the asset in this transaction.
+     *
+     * @return An int representing the price of the asset in this transaction.
+     */
+    public int getPrice() {
+        return price;
+    }
+
+    /**
+     * Gets the amount of assets sold or bought through the transaction.
+     *
+     * @return An int representing the amount of assets sold or bought through
+     * the transaction.
+     */
+    public int getAmount() {
+        return amount;
+    }
+
+}
@@ -1,15 +1,20 @@
 package com.csontaka.transaction_record_app.exporting;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.dao.TransactionQuery;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.SQLException;
 import javax.swing.JTable;
 import javax.swing.table.TableModel;
 
 /**
  * Exports the values shown in the table to a csv file. Implements the
  * {@link com.csontaka.transaction_record_app.exporting.TableExport} interface export
- * method.
+ * method. The lines are written one by one, so the whole file is never held
+ * in memory.
  *
  * @author Adrienn Csontak
  */
@@ -28,52 +33,40 @@ public class CsvExportImpl implements TableExport {
     }
 
     @Override
-    public void export(JTable table, String fileName) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(fileName))) {
-            bw.write(makeHeader(table));
-            bw.newLine();
-            bw.write(makeLines(table));
-            bw.flush();
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
-    }
-
-    private String makeHeader(JTable table) {
-        TableModel tableModel = table.getModel();
-        int columns = tableModel.getColumnCount();
-
-        StringBuilder header = new StringBuilder();
-        for (int column = 0; column < columns; column++) {
-            header.append(tableModel.getColumnName(column));
-            header.append(separator);
-        }
-        header.deleteCharAt(header.lastIndexOf(separator));
-        return header.toString();
-    }
-
-    private StringBuilder makeLine(JTable table, int row) {
-        int columns = table.getColumnCount();
+    public void export(JTable table, String fileName, ExportProgress progress)
+            throws IOException {
+        RowCounter counter = new RowCounter(progress);
+        try (CsvWriter csv = new CsvWriter(Files.newBufferedWriter(Paths.get(fileName),
+                StandardCharsets.UTF_8), separator)) {
+            TableModel tableModel = table.getModel();
+            int columns = tableModel.getColumnCount();
+            Object[] values = new Object[columns];
+            for (int column = 0; column < columns; column++) {
+                values[column] = tableModel.getColumnName(column);
+            }
+            csv.writeLine(values);
 
-        StringBuilder line = new StringBuilder();
-        for (int column = 0; column < columns; column++) {
-            line.append(table.getValueAt(row, column));
-            line.append(separator);
+            int rows = table.getRowCount();
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    values[column] = table.getValueAt(row, column);
+                }
+                csv.writeLine(values);
+                counter.increment();
+            }
+            counter.finish();
         }
-        line.deleteCharAt(line.lastIndexOf(separator));
-        return line;
     }
 
-    private String makeLines(JTable table) throws IOException {
-        int rows = table.getRowCount();
-        StringBuilder lines = new StringBuilder();
-        for (int row = 0; row < rows; row++) {
-            lines.append(makeLine(table, row));
-            if (row != rows - 1) {
-                lines.append("\n");
-            }
-        }
-        return lines.toString();
+    /**
+     * {@inheritDoc} The rows are written while they are read, so the heap
+     * usage does not depend on the number of transactions.
+     */
+    @Override
+    public void exportTransactions(TransactionController transController,
+            TransactionQuery query, String fileName, ExportProgress progress)
+            throws IOException, SQLException {
+        ExportPipeline.writeAll(transController, query, new CsvRowSink(fileName), progress);
     }
 
 }
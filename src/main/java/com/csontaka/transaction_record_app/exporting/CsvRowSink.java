@@ -0,0 +1,48 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import com.csontaka.transaction_record_app.entity.TransactionRow;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Writes transaction rows to a csv file with the columns of the transaction
+ * tables.
+ *
+ * @author Adrienn Csontak
+ */
+class CsvRowSink implements RowSink {
+
+    private final String fileName;
+    private CsvWriter csv;
+
+    /**
+     * Creates a CsvRowSink writing the specified file.
+     *
+     * @param fileName A String object containing fully qualified file name of
+     * a file.
+     */
+    CsvRowSink(String fileName) {
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void open() throws IOException {
+        csv = new CsvWriter(Files.newBufferedWriter(Paths.get(fileName),
+                StandardCharsets.UTF_8), CsvExportImpl.separator);
+        csv.writeLine((Object[]) TransactionColumns.NAMES);
+    }
+
+    @Override
+    public void write(TransactionRow row) throws IOException {
+        csv.writeLine(TransactionColumns.values(row));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (csv != null) {
+            csv.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes csv lines one by one to a <code>Writer</code>. A value containing
+ * the separator, a double quote or a line break is enclosed in double quotes
+ * and its double quotes are doubled.
+ *
+ * @author Adrienn Csontak
+ */
+public class CsvWriter implements Closeable {
+
+    private final BufferedWriter writer;
+    private final String separator;
+
+    /**
+     * Creates a CsvWriter writing to the specified writer with the specified
+     * separator.
+     *
+     * @param writer The <code>Writer</code> to write the lines to.
+     * @param separator A String containing the sign that separates the
+     * values.
+     */
+    public CsvWriter(Writer writer, String separator) {
+        if (writer instanceof BufferedWriter) {
+            this.writer = (BufferedWriter) writer;
+        } else {
+            this.writer = new BufferedWriter(writer);
+        }
+        this.separator = separator;
+    }
+
+    /**
+     * Writes the values as one line.
+     *
+     * @param values The values of the line. A null value is written as an
+     * empty value.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeLine(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(separator);
+            }
+            if (values[i] != null) {
+                writer.write(quote(values[i].toString()));
+            }
+        }
+        writer.newLine();
+    }
+
+    private String quote(String value) {
+        if (value.contains(separator) || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
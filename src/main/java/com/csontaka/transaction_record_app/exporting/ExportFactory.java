@@ -22,4 +22,27 @@ public class ExportFactory {
         }
         return null;
     }
+
+    /**Provides a <code>RowSink</code> writing transaction rows to a file
+     * based on the received String.
+     *
+     * @param exportType A String object containing the type of the export:
+     * csv, pdf or trs for a binary file of transaction rows.
+     * @param fileName A String object containing fully qualified file name of
+     * a file.
+     * @return A <code>RowSink</code> object based on the received type, or
+     * null if the type is unknown.
+     */
+    public static RowSink getRowSink(String exportType, String fileName) {
+        if (exportType.equalsIgnoreCase("csv")) {
+            return new CsvRowSink(fileName);
+        }
+        if (exportType.equalsIgnoreCase("pdf")) {
+            return new PdfRowSink(fileName);
+        }
+        if (exportType.equalsIgnoreCase("trs")) {
+            return new SnapshotRowSink(fileName);
+        }
+        return null;
+    }
 }
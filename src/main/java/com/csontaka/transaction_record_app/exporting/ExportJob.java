@@ -0,0 +1,119 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An export running on the background thread of the
+ * {@link com.csontaka.transaction_record_app.exporting.ExportService}. It
+ * knows the number of the rows written so far and the number of all rows, and
+ * can be cancelled. A cancelled export stops at the next progress report and
+ * its file is deleted.
+ *
+ * @author Adrienn Csontak
+ */
+public class ExportJob {
+
+    /**
+     * Listener notified on the export thread about the progress of the job.
+     */
+    public interface Listener {
+
+        /**
+         * Called when the number of the written rows changes.
+         *
+         * @param rows An int containing the number of rows written so far.
+         * @param total An int containing the number of all rows, or -1 if it
+         * is not known yet.
+         */
+        void progressed(int rows, int total);
+    }
+
+    private final Listener listener;
+    private final CompletableFuture<Integer> result = new CompletableFuture<>();
+    private volatile boolean cancelled;
+    private volatile int rowsWritten;
+    private volatile int total = -1;
+
+    /**
+     * Creates an ExportJob notifying the specified listener.
+     *
+     * @param listener The <code>Listener</code> to notify, or null.
+     */
+    ExportJob(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Asks the job to stop. The result of the job is completed with a
+     * <code>CancellationException</code> when it stopped.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Gets whether the job was asked to stop.
+     *
+     * @return True if the job was cancelled, false if not.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the number of the rows written so far.
+     *
+     * @return An int representing the number of written rows.
+     */
+    public int getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Gets the number of the rows to write.
+     *
+     * @return An int representing the number of all rows, or -1 if it is not
+     * known yet.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the result of the job, completed with the number of the written
+     * rows, or exceptionally with the exception stopping the job.
+     *
+     * @return A <code>CompletableFuture</code> of the number of written rows.
+     */
+    public CompletableFuture<Integer> getResult() {
+        return result;
+    }
+
+    void setTotal(int total) {
+        this.total = total;
+        notifyListener();
+    }
+
+    /**
+     * Records the written rows. Used as the <code>ExportProgress</code> of the
+     * exporter, so it stops the export of a cancelled job.
+     */
+    void rowsWritten(int rows) {
+        rowsWritten = rows;
+        notifyListener();
+        checkCancelled();
+    }
+
+    void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("The export was cancelled.");
+        }
+    }
+
+    private void notifyListener() {
+        if (listener != null) {
+            listener.progressed(rowsWritten, total);
+        }
+    }
+}
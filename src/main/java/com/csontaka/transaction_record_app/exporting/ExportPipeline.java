@@ -0,0 +1,240 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.dao.TransactionQuery;
+import com.csontaka.transaction_record_app.entity.TransactionRow;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports the transactions matching a query to several files with one read of
+ * the database. The calling thread reads the rows and puts every row in the
+ * queue of every {@link com.csontaka.transaction_record_app.exporting.RowSink},
+ * and every sink writes its file on its own worker thread. The queues hold at
+ * most {@value #QUEUE_CAPACITY} rows, so a slow sink slows down the reading
+ * instead of filling the heap. When a sink fails, the reading stops, the other
+ * sinks are closed and the exception of the sink is thrown.
+ *
+ * @author Adrienn Csontak
+ */
+public class ExportPipeline {
+
+    /**
+     * The number of rows a queue of a sink can hold.
+     */
+    public static final int QUEUE_CAPACITY = 1000;
+
+    /**
+     * Put in the queues after the last row.
+     */
+    private static final TransactionRow END = new TransactionRow(null, null, null, null, 0, 0);
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    private final List<RowSink> sinks;
+
+    /**
+     * Creates an ExportPipeline writing to the specified sinks.
+     *
+     * @param sinks A List of <code>RowSink</code> objects. The pipeline opens
+     * and closes them.
+     */
+    public ExportPipeline(List<RowSink> sinks) {
+        this.sinks = new ArrayList<>(sinks);
+    }
+
+    /**
+     * Reads the transactions matching a query once and writes them to every
+     * sink.
+     *
+     * @param transController A <code>TransactionController</code> object to
+     * read the transactions with.
+     * @param query A <code>TransactionQuery</code> object describing the
+     * transactions to export.
+     * @param progress An <code>ExportProgress</code> object notified about
+     * the number of the read rows. An exception thrown by it stops the export.
+     * @throws IOException If a file can not be written.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void run(TransactionController transController, TransactionQuery query,
+            ExportProgress progress) throws IOException, SQLException {
+        if (sinks.size() == 1) {
+            writeAll(transController, query, sinks.get(0), progress);
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(sinks.size(), runnable -> {
+            Thread thread = new Thread(runnable, "export-sink-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Worker> workers = new ArrayList<>();
+        for (RowSink sink : sinks) {
+            Worker worker = new Worker(sink);
+            workers.add(worker);
+            executor.execute(worker);
+        }
+        executor.shutdown();
+
+        RowCounter counter = new RowCounter(progress);
+        Exception readFailure = null;
+        try {
+            transController.forEachRow(query, (TransactionRow row) -> {
+                for (Worker worker : workers) {
+                    worker.put(row);
+                }
+                counter.increment();
+            });
+        } catch (SQLException | RuntimeException ex) {
+            readFailure = ex;
+        }
+        for (Worker worker : workers) {
+            worker.put(END);
+        }
+        IOException sinkFailure = awaitWorkers(executor, workers);
+
+        if (sinkFailure != null) {
+            throw sinkFailure;
+        }
+        if (readFailure instanceof SQLException) {
+            throw (SQLException) readFailure;
+        }
+        if (readFailure != null) {
+            throw (RuntimeException) readFailure;
+        }
+        counter.finish();
+    }
+
+    /**
+     * Writes the transactions matching a query to one sink on the calling
+     * thread.
+     *
+     * @param transController A <code>TransactionController</code> object to
+     * read the transactions with.
+     * @param query A <code>TransactionQuery</code> object describing the
+     * transactions to export.
+     * @param sink The <code>RowSink</code> to write to.
+     * @param progress An <code>ExportProgress</code> object notified about
+     * the number of the written rows.
+     * @throws IOException If the file can not be written.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    static void writeAll(TransactionController transController, TransactionQuery query,
+            RowSink sink, ExportProgress progress) throws IOException, SQLException {
+        RowCounter counter = new RowCounter(progress);
+        try (RowSink target = sink) {
+            target.open();
+            transController.forEachRow(query, (TransactionRow row) -> {
+                try {
+                    target.write(row);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                counter.increment();
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        counter.finish();
+    }
+
+    private IOException awaitWorkers(ExecutorService executor, List<Worker> workers)
+            throws InterruptedIOException {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // the sinks are still finishing their files
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The export was interrupted.");
+        }
+        for (Worker worker : workers) {
+            if (worker.failure != null) {
+                return worker.failure;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the rows of its queue to a sink until the end mark. After a
+     * failure it keeps taking the rows without writing them, so the reading
+     * thread is never blocked by it.
+     */
+    private static class Worker implements Runnable {
+
+        private final RowSink sink;
+        private final BlockingQueue<TransactionRow> queue =
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile IOException failure;
+        private volatile boolean finished;
+
+        Worker(RowSink sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * Puts a row in the queue, waiting while it is full. Throws the
+         * failure of the sink, so the reading stops.
+         */
+        void put(TransactionRow row) {
+            try {
+                while (!queue.offer(row, 100, TimeUnit.MILLISECONDS)) {
+                    if (finished) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(
+                        new InterruptedIOException("The export was interrupted."));
+            }
+            if (failure != null && row != END) {
+                throw new UncheckedIOException(failure);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                sink.open();
+            } catch (IOException | RuntimeException ex) {
+                fail(ex);
+            }
+            try {
+                TransactionRow row;
+                while ((row = queue.take()) != END) {
+                    if (failure == null) {
+                        try {
+                            sink.write(row);
+                        } catch (IOException | RuntimeException ex) {
+                            fail(ex);
+                        }
+                    }
+                }
+            } catch (InterruptedException ex) {
+                fail(new InterruptedIOException("The export was interrupted."));
+            } finally {
+                finished = true;
+                try {
+                    sink.close();
+                } catch (IOException | RuntimeException ex) {
+                    fail(ex);
+                }
+            }
+        }
+
+        private void fail(Exception ex) {
+            if (failure == null) {
+                failure = ex instanceof IOException ? (IOException) ex : new IOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.csontaka.transaction_record_app.exporting;
+
+/**
+ * Listener notified about the progress of an export. It is called on the
+ * thread running the export.
+ *
+ * @author Adrienn Csontak
+ */
+public interface ExportProgress {
+
+    /**
+     * A listener that ignores the progress.
+     */
+    public static final ExportProgress NONE = rows -> {
+    };
+
+    /**
+     * Called after a number of rows were written and when the export is
+     * finished.
+     *
+     * @param rows An int containing the number of rows written so far.
+     */
+    public void rowsWritten(int rows);
+}
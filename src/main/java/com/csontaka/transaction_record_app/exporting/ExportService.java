@@ -0,0 +1,191 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.dao.TransactionQuery;
+import java.awt.Component;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JLabel;
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * Runs the exports of the {@link com.csontaka.transaction_record_app.exporting.TableExport}
+ * objects as {@link com.csontaka.transaction_record_app.exporting.ExportJob}s
+ * on a background thread, so a long export does not block the Event Dispatch
+ * Thread or the database calls of the controllers. The jobs run one by one in
+ * the order they were submitted. The file of a failed or cancelled job is
+ * deleted.
+ *
+ * @author Adrienn Csontak
+ */
+public final class ExportService {
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * An export writing a file.
+     */
+    private interface ExportTask {
+
+        void run() throws IOException, SQLException;
+    }
+
+    private ExportService() {
+    }
+
+    /**
+     * Submits the export of the transactions matching a query. The number of
+     * the transactions is counted first, so the progress has a total.
+     *
+     * @param export The <code>TableExport</code> writing the file.
+     * @param transController A <code>TransactionController</code> object to
+     * read the transactions with.
+     * @param query A <code>TransactionQuery</code> object describing the
+     * transactions to export. It is copied, so it can be changed afterwards.
+     * @param fileName A String object containing fully qualified file name of
+     * a file.
+     * @param listener An <code>ExportJob.Listener</code> notified about the
+     * progress, or null.
+     * @return The submitted <code>ExportJob</code>.
+     */
+    public static ExportJob exportTransactions(TableExport export,
+            TransactionController transController, TransactionQuery query,
+            String fileName, ExportJob.Listener listener) {
+        ExportJob job = new ExportJob(listener);
+        TransactionQuery jobQuery = new TransactionQuery(query);
+        submit(job, Collections.singletonList(fileName), () -> {
+            job.setTotal(transController.count(jobQuery));
+            export.exportTransactions(transController, jobQuery, fileName, job::rowsWritten);
+        });
+        return job;
+    }
+
+    /**
+     * Submits the export of the transactions matching a query to several
+     * files, which are written from one read of the database by an
+     * {@link com.csontaka.transaction_record_app.exporting.ExportPipeline}.
+     * The number of the transactions is counted first, so the progress has a
+     * total. Every file is deleted if the job fails.
+     *
+     * @param fileNames A Map of fully qualified file names by export type, as
+     * accepted by {@link ExportFactory#getRowSink(java.lang.String, java.lang.String)}.
+     * @param transController A <code>TransactionController</code> object to
+     * read the transactions with.
+     * @param query A <code>TransactionQuery</code> object describing the
+     * transactions to export. It is copied, so it can be changed afterwards.
+     * @param listener An <code>ExportJob.Listener</code> notified about the
+     * progress, or null.
+     * @return The submitted <code>ExportJob</code>.
+     */
+    public static ExportJob exportTransactions(Map<String, String> fileNames,
+            TransactionController transController, TransactionQuery query,
+            ExportJob.Listener listener) {
+        ExportJob job = new ExportJob(listener);
+        TransactionQuery jobQuery = new TransactionQuery(query);
+        List<RowSink> sinks = new ArrayList<>();
+        for (Map.Entry<String, String> entry : fileNames.entrySet()) {
+            RowSink sink = ExportFactory.getRowSink(entry.getKey(), entry.getValue());
+            if (sink == null) {
+                throw new IllegalArgumentException("Unknown export type: " + entry.getKey());
+            }
+            sinks.add(sink);
+        }
+        submit(job, new ArrayList<>(fileNames.values()), () -> {
+            job.setTotal(transController.count(jobQuery));
+            new ExportPipeline(sinks).run(transController, jobQuery, job::rowsWritten);
+        });
+        return job;
+    }
+
+    /**
+     * Submits the export of the values shown in a table. It has to be called
+     * on the Event Dispatch Thread: the shown values are copied there, and the copy
+     * is exported in the background.
+     *
+     * @param export The <code>TableExport</code> writing the file.
+     * @param table A <code>JTable</code> object containing the values to
+     * export.
+     * @param fileName A String object containing fully qualified file name of
+     * a file.
+     * @param listener An <code>ExportJob.Listener</code> notified about the
+     * progress, or null.
+     * @return The submitted <code>ExportJob</code>.
+     */
+    public static ExportJob exportTable(TableExport export, JTable table,
+            String fileName, ExportJob.Listener listener) {
+        ExportJob job = new ExportJob(listener);
+        JTable copy = copyValues(table);
+        submit(job, Collections.singletonList(fileName), () -> {
+            job.setTotal(copy.getRowCount());
+            export.export(copy, fileName, job::rowsWritten);
+        });
+        return job;
+    }
+
+    private static JTable copyValues(JTable table) {
+        int rows = table.getRowCount();
+        int columns = table.getColumnCount();
+        Object[] names = new Object[columns];
+        for (int column = 0; column < columns; column++) {
+            names[column] = table.getColumnName(column);
+        }
+        Object[][] values = new Object[rows][columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                values[row][column] = shownValue(table, row, column);
+            }
+        }
+        return new JTable(new DefaultTableModel(values, names));
+    }
+
+    /**
+     * Gets the text a cell is shown with, because the models may provide raw
+     * values, like amounts of money in pence, and leave formatting to the
+     * renderers.
+     */
+    private static Object shownValue(JTable table, int row, int column) {
+        Object value = table.getValueAt(row, column);
+        Component rendered = table.getCellRenderer(row, column)
+                .getTableCellRendererComponent(table, value, false, false, row, column);
+        if (rendered instanceof JLabel) {
+            return ((JLabel) rendered).getText();
+        }
+        return value;
+    }
+
+    private static void submit(ExportJob job, List<String> fileNames, ExportTask task) {
+        EXECUTOR.execute(() -> {
+            try {
+                job.checkCancelled();
+                task.run();
+                job.getResult().complete(job.getRowsWritten());
+            } catch (IOException | SQLException | RuntimeException ex) {
+                fileNames.forEach(ExportService::deleteQuietly);
+                job.getResult().completeExceptionally(ex);
+            }
+        });
+    }
+
+    private static void deleteQuietly(String fileName) {
+        try {
+            Files.deleteIfExists(Paths.get(fileName));
+        } catch (IOException ex) {
+            Logger.getLogger(ExportService.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+}
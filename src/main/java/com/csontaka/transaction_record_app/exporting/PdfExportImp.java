@@ -7,19 +7,29 @@ import com.itextpdf.text.Phrase;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
-import java.io.FileNotFoundException;
+import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.dao.TransactionQuery;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
 import javax.swing.JTable;
 
 /**
  * Exports the values shown in the table to a pdf file. Implements the
  * {@link com.csontaka.transaction_record_app.exporting.TableExport} interface export
- * method.
+ * method. The table is marked as not complete and added to the document after
+ * every {@value #FLUSH_ROWS} rows, so iText writes the finished rows out and
+ * only the rows of the last step are held in memory.
  *
  * @author Adrienn Csontak
  */
 public class PdfExportImp implements TableExport {
 
+    /**
+     * The number of rows added to the table between two writes.
+     */
+    public static final int FLUSH_ROWS = RowCounter.REPORT_STEP;
+
     /**
      * Constructs a new PdfExportImp.
      */
@@ -28,34 +38,67 @@ public class PdfExportImp implements TableExport {
     }
 
     @Override
-    public void export(JTable table, String fileName) {
+    public void export(JTable table, String fileName, ExportProgress progress)
+            throws IOException {
         Document doc = new Document();
-        try {
-            PdfWriter.getInstance(doc, new FileOutputStream(fileName));
+        try (FileOutputStream out = new FileOutputStream(fileName)) {
+            PdfWriter.getInstance(doc, out);
             doc.open();
-            PdfPTable pdfTable = new PdfPTable(table.getColumnCount());
+            PdfPTable pdfTable = createTable(table.getColumnCount());
             printHeader(table, pdfTable);
-            printRows(table, pdfTable);
+            RowCounter counter = new RowCounter(progress);
+            printRows(doc, table, pdfTable, counter);
+            pdfTable.setComplete(true);
             doc.add(pdfTable);
             doc.close();
-        } catch (DocumentException | FileNotFoundException ex) {
-            ex.printStackTrace();
+            counter.finish();
+        } catch (DocumentException ex) {
+            throw new IOException(ex);
         }
     }
-    
+
+    /**
+     * {@inheritDoc} The rows are written while they are read, so the heap
+     * usage does not depend on the number of transactions.
+     */
+    @Override
+    public void exportTransactions(TransactionController transController,
+            TransactionQuery query, String fileName, ExportProgress progress)
+            throws IOException, SQLException {
+        ExportPipeline.writeAll(transController, query, new PdfRowSink(fileName), progress);
+    }
+
+    /**
+     * Creates a table that is written in parts and repeats its header row on
+     * every page.
+     */
+    static PdfPTable createTable(int columns) {
+        PdfPTable pdfTable = new PdfPTable(columns);
+        pdfTable.setComplete(false);
+        pdfTable.setHeaderRows(1);
+        return pdfTable;
+    }
+
+    static void addHeaderCell(PdfPTable pdfTable, String name) {
+        PdfPCell pdfCell = new PdfPCell(new Phrase(name));
+        pdfCell.setBackgroundColor(BaseColor.LIGHT_GRAY);
+        pdfTable.addCell(pdfCell);
+    }
+
     private void printHeader(JTable table, PdfPTable pdfTable){
             for (int column = 0; column < table.getColumnCount(); column++) {
-                PdfPCell pdfCell = new PdfPCell(new Phrase(table.getColumnName(column)));
-                pdfCell.setBackgroundColor(BaseColor.LIGHT_GRAY);
-                pdfTable.addCell(pdfCell);
+                addHeaderCell(pdfTable, table.getColumnName(column));
             }
     }
-    private void printRows(JTable table, PdfPTable pdfTable){
+    private void printRows(Document doc, JTable table, PdfPTable pdfTable,
+            RowCounter counter) throws DocumentException {
             for (int row = 0; row < table.getRowCount(); row++) {
-                System.out.println("rows: " + row);
                 for (int column = 0; column < table.getColumnCount(); column++) {
                     pdfTable.addCell(table.getValueAt(row, column).toString());
                 }
+                if (counter.increment()) {
+                    doc.add(pdfTable);
+                }
             }
     }
 }
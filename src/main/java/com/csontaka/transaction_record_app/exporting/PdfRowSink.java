@@ -0,0 +1,87 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import com.csontaka.transaction_record_app.entity.TransactionRow;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes transaction rows to a pdf file with the columns of the transaction
+ * tables. The table is added to the document after every
+ * {@value PdfExportImp#FLUSH_ROWS} rows, like in
+ * {@link com.csontaka.transaction_record_app.exporting.PdfExportImp}.
+ *
+ * @author Adrienn Csontak
+ */
+class PdfRowSink implements RowSink {
+
+    private final String fileName;
+    private FileOutputStream out;
+    private Document doc;
+    private PdfPTable pdfTable;
+    private int rows;
+
+    /**
+     * Creates a PdfRowSink writing the specified file.
+     *
+     * @param fileName A String object containing fully qualified file name of
+     * a file.
+     */
+    PdfRowSink(String fileName) {
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void open() throws IOException {
+        out = new FileOutputStream(fileName);
+        doc = new Document();
+        try {
+            PdfWriter.getInstance(doc, out);
+        } catch (DocumentException ex) {
+            throw new IOException(ex);
+        }
+        doc.open();
+        pdfTable = PdfExportImp.createTable(TransactionColumns.NAMES.length);
+        for (String name : TransactionColumns.NAMES) {
+            PdfExportImp.addHeaderCell(pdfTable, name);
+        }
+    }
+
+    @Override
+    public void write(TransactionRow row) throws IOException {
+        for (Object value : TransactionColumns.values(row)) {
+            pdfTable.addCell(value.toString());
+        }
+        rows++;
+        if (rows % PdfExportImp.FLUSH_ROWS == 0) {
+            addTable();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) {
+            return;
+        }
+        try {
+            if (doc.isOpen()) {
+                pdfTable.setComplete(true);
+                addTable();
+                doc.close();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void addTable() throws IOException {
+        try {
+            doc.add(pdfTable);
+        } catch (DocumentException ex) {
+            throw new IOException(ex);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.csontaka.transaction_record_app.exporting;
+
+/**
+ * Counts the rows written by an export and reports them to an
+ * <code>ExportProgress</code> after every {@value #REPORT_STEP} rows.
+ *
+ * @author Adrienn Csontak
+ */
+class RowCounter {
+
+    /**
+     * The number of rows between two progress reports.
+     */
+    static final int REPORT_STEP = 500;
+    private final ExportProgress progress;
+    private int rows;
+
+    /**
+     * Creates a RowCounter reporting to the specified listener.
+     *
+     * @param progress The <code>ExportProgress</code> to notify.
+     */
+    RowCounter(ExportProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Counts a written row.
+     *
+     * @return True if the row completed a step, false if not.
+     */
+    boolean increment() {
+        rows++;
+        if (rows % REPORT_STEP == 0) {
+            progress.rowsWritten(rows);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reports the number of all written rows.
+     */
+    void finish() {
+        progress.rowsWritten(rows);
+    }
+}
@@ -0,0 +1,41 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import com.csontaka.transaction_record_app.entity.TransactionRow;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes transaction rows to a file in one format. A sink is opened, receives
+ * the rows one by one and is closed, which finishes the file. The methods are
+ * called on one thread, but it does not have to be the thread that created the
+ * sink, so an {@link com.csontaka.transaction_record_app.exporting.ExportPipeline}
+ * can feed several sinks in parallel.
+ *
+ * @author Adrienn Csontak
+ */
+public interface RowSink extends Closeable {
+
+    /**
+     * Creates the file and writes its header.
+     *
+     * @throws IOException If the file can not be written.
+     */
+    void open() throws IOException;
+
+    /**
+     * Writes a transaction row.
+     *
+     * @param row The <code>TransactionRow</code> to write.
+     * @throws IOException If the file can not be written.
+     */
+    void write(TransactionRow row) throws IOException;
+
+    /**
+     * Finishes the file and releases it. It is called even if the sink was not
+     * opened or a write failed.
+     *
+     * @throws IOException If the file can not be written.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,115 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import com.csontaka.transaction_record_app.controller.AssetController;
+import com.csontaka.transaction_record_app.controller.PeriodController;
+import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.entity.Asset;
+import com.csontaka.transaction_record_app.entity.AssetType;
+import com.csontaka.transaction_record_app.entity.Period;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports every asset, period and transaction to a binary snapshot file in the
+ * column-oriented {@link com.csontaka.transaction_record_app.exporting.SnapshotFormat},
+ * so a whole dataset can be moved to another database or restored quickly by
+ * {@link com.csontaka.transaction_record_app.importing.SnapshotImport}. The
+ * columns of a section are encoded in memory while the rows are read, which
+ * takes a few bytes per value, and written with a <code>FileChannel</code>.
+ *
+ * @author Adrienn Csontak
+ */
+public class SnapshotExport {
+
+    /**
+     * Constructs a new SnapshotExport.
+     */
+    public SnapshotExport() {
+
+    }
+
+    /**
+     * Exports the assets, the periods and the transactions to a file.
+     *
+     * @param assetController An <code>AssetController</code> object to read
+     * the assets with.
+     * @param periodController A <code>PeriodController</code> object to read
+     * the periods with.
+     * @param transController A <code>TransactionController</code> object to
+     * read the transactions with.
+     * @param fileName A String object containing fully qualified file name of
+     * a file.
+     * @param progress An <code>ExportProgress</code> object notified about
+     * the number of the written rows of all sections.
+     * @throws IOException If the file can not be written.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void export(AssetController assetController, PeriodController periodController,
+            TransactionController transController, String fileName, ExportProgress progress)
+            throws IOException, SQLException {
+        RowCounter counter = new RowCounter(progress);
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            SnapshotFormat.writeInts(channel, SnapshotFormat.MAGIC, SnapshotFormat.VERSION);
+            writeAssets(channel, assetController, counter);
+            writePeriods(channel, periodController, counter);
+            writeTransactions(channel, transController, counter);
+        }
+        counter.finish();
+    }
+
+    private void writeAssets(FileChannel channel, AssetController assetController,
+            RowCounter counter) throws IOException, SQLException {
+        List<Asset> assets = new ArrayList<>(assetController.findAllProducts());
+        assets.addAll(assetController.findAllEquipment());
+        SnapshotFormat.ColumnWriter[] columns =
+                SnapshotFormat.createColumns(SnapshotFormat.ASSET_COLUMNS);
+        for (Asset asset : assets) {
+            columns[0].writeInt(asset.getId());
+            columns[1].writeInt(asset.getType() == AssetType.PRODUCT ? 1 : 0);
+            columns[2].writeInt(asset.getStock());
+            columns[3].writeInt(asset.getMaterialCost());
+            columns[4].writeString(asset.getName());
+            columns[5].writeString(asset.getFeature());
+            counter.increment();
+        }
+        SnapshotFormat.writeSection(channel, assets.size(), columns);
+    }
+
+    private void writePeriods(FileChannel channel, PeriodController periodController,
+            RowCounter counter) throws IOException, SQLException {
+        List<Period> periods = periodController.findAllPeriods();
+        SnapshotFormat.ColumnWriter[] columns =
+                SnapshotFormat.createColumns(SnapshotFormat.PERIOD_COLUMNS);
+        for (Period period : periods) {
+            columns[0].writeInt(period.getId());
+            columns[1].writeInt(period.getDate().getYear() * 12 + period.getDate().getMonthValue() - 1);
+            columns[2].writeInt(period.getGoal());
+            counter.increment();
+        }
+        SnapshotFormat.writeSection(channel, periods.size(), columns);
+    }
+
+    private void writeTransactions(FileChannel channel, TransactionController transController,
+            RowCounter counter) throws IOException, SQLException {
+        SnapshotFormat.ColumnWriter[] columns =
+                SnapshotFormat.createColumns(SnapshotFormat.TRANSACTION_COLUMNS);
+        int[] rows = {0};
+        transController.forEach(transaction -> {
+            columns[0].writeInt(transaction.getId());
+            columns[1].writeInt(transaction.getPeriodId());
+            columns[2].writeInt(transaction.getAssetId());
+            columns[3].writeInt(transaction.getAmount());
+            columns[4].writeInt(transaction.getPrice());
+            rows[0]++;
+            counter.increment();
+        });
+        SnapshotFormat.writeSection(channel, rows[0], columns);
+    }
+}
@@ -0,0 +1,252 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Describes the binary snapshot files written by
+ * {@link com.csontaka.transaction_record_app.exporting.SnapshotExport} and
+ * read by {@link com.csontaka.transaction_record_app.importing.SnapshotImport}.
+ *
+ * <p>
+ * A file starts with the {@link #MAGIC} number and the {@link #VERSION}. The
+ * sections of the assets, the periods and the transactions follow in this
+ * order. A section starts with the number of its rows and columns and the
+ * length of every column in bytes, then the columns follow one after the
+ * other. The numbers of the headers are 4 byte big-endian ints.</p>
+ *
+ * <p>
+ * An int column stores the difference of every value from the previous value
+ * of the column, zigzag encoded as a variable-length int of 1 to 5 bytes, so
+ * the ids and other close values take a byte or two. A String column stores
+ * the length of the UTF-8 bytes plus one as a variable-length int, 0 for null,
+ * and the bytes.</p>
+ *
+ * <p>
+ * The transaction rows exported by an
+ * {@link com.csontaka.transaction_record_app.exporting.ExportPipeline} are
+ * written in the same way, but the file starts with {@link #ROWS_MAGIC} and
+ * has a section of {@link #ROW_COLUMNS} columns for every
+ * {@value #ROW_BLOCK_SIZE} rows, so the writer only keeps one block in
+ * memory. A section of 0 rows ends the file. The int columns of a block start
+ * from 0 again.</p>
+ *
+ * @author Adrienn Csontak
+ */
+public final class SnapshotFormat {
+
+    /**
+     * The first 4 bytes of a snapshot file.
+     */
+    public static final int MAGIC = 0x54524E53;
+
+    /**
+     * The version of the format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The number of columns of the asset section: id, type, stock, material
+     * cost, name and feature.
+     */
+    public static final int ASSET_COLUMNS = 6;
+
+    /**
+     * The number of columns of the period section: id, month index (year * 12
+     * + month - 1) and goal.
+     */
+    public static final int PERIOD_COLUMNS = 3;
+
+    /**
+     * The number of columns of the transaction section: id, period id, asset
+     * id, amount and price.
+     */
+    public static final int TRANSACTION_COLUMNS = 5;
+
+    /**
+     * The first 4 bytes of a file of transaction rows.
+     */
+    public static final int ROWS_MAGIC = 0x54524E52;
+
+    /**
+     * The number of columns of a file of transaction rows: id, month index,
+     * asset id, price, amount and asset name.
+     */
+    public static final int ROW_COLUMNS = 6;
+
+    /**
+     * The largest number of rows in a section of a file of transaction rows.
+     */
+    public static final int ROW_BLOCK_SIZE = 4096;
+
+    private SnapshotFormat() {
+    }
+
+    static ColumnWriter[] createColumns(int count) {
+        ColumnWriter[] columns = new ColumnWriter[count];
+        for (int i = 0; i < count; i++) {
+            columns[i] = new ColumnWriter();
+        }
+        return columns;
+    }
+
+    /**
+     * Writes the header of a section and its columns.
+     */
+    static void writeSection(FileChannel channel, int rows,
+            ColumnWriter[] columns) throws IOException {
+        int[] header = new int[columns.length + 2];
+        header[0] = rows;
+        header[1] = columns.length;
+        for (int i = 0; i < columns.length; i++) {
+            header[i + 2] = columns[i].size();
+        }
+        writeInts(channel, header);
+        for (ColumnWriter column : columns) {
+            column.writeTo(channel);
+        }
+    }
+
+    static void writeInts(FileChannel channel, int... values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Collects the encoded values of a column in memory until the column is
+     * written.
+     */
+    static final class ColumnWriter {
+
+        private byte[] bytes = new byte[64];
+        private int size;
+        private int previous;
+
+        void writeInt(int value) {
+            int delta = value - previous;
+            previous = value;
+            writeVarInt((delta << 1) ^ (delta >> 31));
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(utf8.length + 1);
+            ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Forgets the written values, keeping the allocated bytes.
+         */
+        void reset() {
+            size = 0;
+            previous = 0;
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, size);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void ensureCapacity(int more) {
+            if (size + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+            }
+        }
+    }
+
+    /**
+     * Reads the values of a column from a buffer, usually a part of a memory
+     * mapped file.
+     */
+    public static final class ColumnReader {
+
+        private final ByteBuffer buffer;
+        private int previous;
+
+        /**
+         * Creates a ColumnReader reading the specified buffer from its
+         * position to its limit.
+         *
+         * @param buffer The <code>ByteBuffer</code> holding the column.
+         */
+        public ColumnReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Reads the next value of an int column.
+         *
+         * @return An int containing the value.
+         * @throws IOException If the column ends or is corrupt.
+         */
+        public int readInt() throws IOException {
+            int zigzag = readVarInt();
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            return previous;
+        }
+
+        /**
+         * Reads the next value of a String column.
+         *
+         * @return A String containing the value, or null.
+         * @throws IOException If the column ends or is corrupt.
+         */
+        public String readString() throws IOException {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.remaining()) {
+                throw new IOException("The snapshot column ends in a value.");
+            }
+            byte[] utf8 = new byte[length];
+            buffer.get(utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (!buffer.hasRemaining()) {
+                    throw new IOException("The snapshot column ends in a value.");
+                }
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("The snapshot column contains a too long number.");
+        }
+    }
+}
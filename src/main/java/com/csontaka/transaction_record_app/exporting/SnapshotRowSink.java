@@ -0,0 +1,85 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import com.csontaka.transaction_record_app.entity.TransactionRow;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes transaction rows to a binary file in the column-oriented
+ * {@link com.csontaka.transaction_record_app.exporting.SnapshotFormat}. The
+ * file starts with {@link SnapshotFormat#ROWS_MAGIC}, the rows are encoded in
+ * blocks of {@link SnapshotFormat#ROW_BLOCK_SIZE} and every full block is
+ * written as a section, so the memory use does not depend on the number of
+ * rows. The file can be loaded by
+ * {@link com.csontaka.transaction_record_app.importing.SnapshotImport#importRows(java.nio.file.Path, com.csontaka.transaction_record_app.entity.AssetType)}.
+ *
+ * @author Adrienn Csontak
+ */
+class SnapshotRowSink implements RowSink {
+
+    private final String fileName;
+    private final SnapshotFormat.ColumnWriter[] columns =
+            SnapshotFormat.createColumns(SnapshotFormat.ROW_COLUMNS);
+    private FileChannel channel;
+    private int rows;
+
+    /**
+     * Creates a SnapshotRowSink writing the specified file.
+     *
+     * @param fileName A String object containing fully qualified file name of
+     * a file.
+     */
+    SnapshotRowSink(String fileName) {
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void open() throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        SnapshotFormat.writeInts(channel, SnapshotFormat.ROWS_MAGIC, SnapshotFormat.VERSION);
+    }
+
+    @Override
+    public void write(TransactionRow row) throws IOException {
+        columns[0].writeInt(row.getId());
+        columns[1].writeInt(row.getDate().getYear() * 12 + row.getDate().getMonthValue() - 1);
+        columns[2].writeInt(row.getAssetId());
+        columns[3].writeInt(row.getPrice());
+        columns[4].writeInt(row.getAmount());
+        columns[5].writeString(row.getAssetName());
+        rows++;
+        if (rows == SnapshotFormat.ROW_BLOCK_SIZE) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Writes the last block and the empty section ending the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (rows > 0) {
+                writeBlock();
+            }
+            writeBlock();
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        SnapshotFormat.writeSection(channel, rows, columns);
+        for (SnapshotFormat.ColumnWriter column : columns) {
+            column.reset();
+        }
+        rows = 0;
+    }
+}
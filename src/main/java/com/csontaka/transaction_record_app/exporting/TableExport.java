@@ -1,10 +1,15 @@
 
 package com.csontaka.transaction_record_app.exporting;
 
+import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.dao.TransactionQuery;
+import java.io.IOException;
+import java.sql.SQLException;
 import javax.swing.JTable;
 
-/** Interface for exporting the values of a <code>JTable</code> object. 
- *  The class that implements it has to to override its export method. 
+/** Interface for exporting the values of a <code>JTable</code> object or the
+ *  transactions read from the database. 
+ *  The class that implements it has to to override its export methods. 
  *
  * @author Adrienn Csontak
  */
@@ -14,7 +19,28 @@ public interface TableExport {
      *
      * @param table A <code>JTable</code> object containing the values to export.
      * @param fileName A String object containing fully qualified file name of a file.
+     * @param progress An <code>ExportProgress</code> object notified about
+     * the number of the written rows.
+     * @throws IOException If the file can not be written.
      */
-    public void export(JTable table, String fileName);
+    public void export(JTable table, String fileName, ExportProgress progress)
+            throws IOException;
+
+    /** Exports the transactions matching a query read from the database, with
+     * the columns and value formats of the transaction tables.
+     *
+     * @param transController A <code>TransactionController</code> object to
+     * read the transactions with.
+     * @param query A <code>TransactionQuery</code> object describing the
+     * transactions to export.
+     * @param fileName A String object containing fully qualified file name of a file.
+     * @param progress An <code>ExportProgress</code> object notified about
+     * the number of the written rows.
+     * @throws IOException If the file can not be written.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void exportTransactions(TransactionController transController,
+            TransactionQuery query, String fileName, ExportProgress progress)
+            throws IOException, SQLException;
     
 }
@@ -0,0 +1,33 @@
+package com.csontaka.transaction_record_app.exporting;
+
+import com.csontaka.transaction_record_app.entity.MoneyFormat;
+import com.csontaka.transaction_record_app.entity.TransactionRow;
+
+/**
+ * Turns a <code>TransactionRow</code> into the values of the transaction
+ * tables' columns, formatted the same way as the tables show them.
+ *
+ * @author Adrienn Csontak
+ */
+class TransactionColumns {
+
+    /**
+     * The names of the columns.
+     */
+    static final String[] NAMES = {"Id", "Date", "Name", "Price", "Amount"};
+
+    private TransactionColumns() {
+    }
+
+    /**
+     * Gets the column values of a transaction row.
+     *
+     * @param row The <code>TransactionRow</code> to get the values of.
+     * @return An array containing the values in the order of the columns.
+     */
+    static Object[] values(TransactionRow row) {
+        return new Object[]{row.getId(), row.getDate(),
+            row.getAssetName() + "(" + row.getAssetId() + ")",
+            MoneyFormat.format(row.getPrice()), row.getAmount()};
+    }
+}
@@ -1,6 +1,7 @@
 package com.csontaka.transaction_record_app.gui;
 
 import com.csontaka.transaction_record_app.controller.AssetController;
+import com.csontaka.transaction_record_app.controller.DataAccessExecutor;
 import com.csontaka.transaction_record_app.controller.TransactionController;
 import com.csontaka.transaction_record_app.entity.Asset;
 import com.csontaka.transaction_record_app.entity.AssetType;
@@ -13,13 +14,13 @@ import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.sql.SQLException;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.ButtonGroup;
@@ -77,6 +78,7 @@ public class AssetPanel extends JPanel implements ActionListener {
     private Locale locale = new Locale("en", "UK");
     private DecimalFormat decimalFormat = (DecimalFormat) NumberFormat.getNumberInstance(locale);
     Integer selectedIdToUpdate;
+    private int stockToUpdate;
 
     /**
      * Constructs an AssetPanel with the specified <code>AssetController</code>,
@@ -212,17 +214,11 @@ public class AssetPanel extends JPanel implements ActionListener {
     }
 
     private void tablePanelComponentSetUp() {
-        assets = null;
-        try {
-            if (type.equals(type.PRODUCT)) {
-                assets = assetController.findAllProducts();
-                showAddFormBtn = new JButton("Add new Product");
-            } else {
-                assets = assetController.findAllEquipment();
-                showAddFormBtn = new JButton("Add new Equipment");
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        assets = new ArrayList<>();
+        if (type.equals(AssetType.PRODUCT)) {
+            showAddFormBtn = new JButton("Add new Product");
+        } else {
+            showAddFormBtn = new JButton("Add new Equipment");
         }
 
         Utils.setButtonLook(showAddFormBtn, 12);
@@ -263,7 +259,23 @@ public class AssetPanel extends JPanel implements ActionListener {
         });
 
         tablePanelLayout();
+        reload();
+
+    }
 
+    /**
+     * Loads the assets of the panel's type on a background thread and
+     * refreshes the table with them.
+     */
+    public void reload() {
+        Utils.publish(loadAssets(), this, this::updateAssetsInModel);
+    }
+
+    private CompletableFuture<List<Asset>> loadAssets() {
+        if (type.equals(AssetType.PRODUCT)) {
+            return assetController.findAllProductsAsync();
+        }
+        return assetController.findAllEquipmentAsync();
     }
 
     private void tablePanelLayout() {
@@ -313,12 +325,12 @@ public class AssetPanel extends JPanel implements ActionListener {
         setFormButtonsEnabled(true);
         int row = assetTable.getSelectedRow();
         Integer selectedId = (Integer) assetTable.getValueAt(row, 0);
-        Asset asset = null;
-        try {
-            asset = assetController.findById(selectedId);
+        Utils.publish(assetController.findByIdAsync(selectedId), this, this::showDetails);
+    }
 
-        } catch (SQLException ex) {
-            Logger.getLogger(AssetPanel.class.getName()).log(Level.SEVERE, null, ex);
+    private void showDetails(Asset asset) {
+        if (asset == null) {
+            return;
         }
         assetFormPanel.setNameFieldText(asset.getName());
         assetFormPanel.setDescAreaText(asset.getFeature());
@@ -334,7 +346,9 @@ public class AssetPanel extends JPanel implements ActionListener {
         if (empty) {
             assetFormPanel.clearTextFields();
         } else {
-            selectedIdToUpdate = (Integer) assetTable.getValueAt(assetTable.getSelectedRow(), 0);
+            int row = assetTable.getSelectedRow();
+            selectedIdToUpdate = (Integer) assetTable.getValueAt(row, 0);
+            stockToUpdate = (int) assetTable.getValueAt(row, 2);
         }
         assetTable.clearSelection();
         setFormButtonsEnabled(false);
@@ -354,31 +368,30 @@ public class AssetPanel extends JPanel implements ActionListener {
     }
 
     private void doSaveAssetBtnAction() {
-        if (selectedIdToUpdate.equals(-1)) {
-            Asset asset = new Asset();
-            asset = saveAsset(asset.getId());
-
-            if (asset != null) {
-                insertToTable(asset);
-                backToOptions();
-            }
-        } else {
-            try {
-                Asset assetToUpdate = assetController.findById(selectedIdToUpdate);
-                assetToUpdate = saveAsset(assetToUpdate.getId());
-                if (assetToUpdate != null) {
-                    assetController.save(assetToUpdate);
-                    if (type.equals(AssetType.PRODUCT)) {
-                        assets = assetController.findAllProducts();
-                    } else {
-                        assets = assetController.findAllEquipment();
-                    }
-                    updateAssetsInModel(assets);
-                    backToOptions();
+        boolean isNew = selectedIdToUpdate.equals(-1);
+        Asset asset = createAssetFromForm(isNew ? null : selectedIdToUpdate);
+        if (asset != null) {
+            // The stock edit is saved as a change of the stock shown when the
+            // edit started, so the sales saved meanwhile are not overwritten.
+            int stockChange = isNew ? 0 : asset.getStock() - stockToUpdate;
+            CompletableFuture<Asset> saved = DataAccessExecutor.supply(() -> {
+                assetController.save(asset);
+                if (isNew) {
+                    return asset;
                 }
-            } catch (SQLException ex) {
-                Logger.getLogger(AssetPanel.class.getName()).log(Level.SEVERE, null, ex);
-            }
+                if (stockChange != 0) {
+                    assetController.adjustStock(asset.getId(), stockChange);
+                }
+                return assetController.refresh(asset.getId());
+            });
+            Utils.publish(saved, this, savedAsset -> {
+                if (isNew) {
+                    insertToTable(savedAsset);
+                } else {
+                    updateInTable(savedAsset);
+                }
+                backToOptions();
+            });
         }
     }
 
@@ -386,7 +399,7 @@ public class AssetPanel extends JPanel implements ActionListener {
         clearTextAndSelection();
     }
 
-    private Asset saveAsset(Integer assetId) {
+    private Asset createAssetFromForm(Integer assetId) {
         boolean save = assetFormPanel.checkInput();
         Asset asset = null;
         if (save) {
@@ -409,15 +422,6 @@ public class AssetPanel extends JPanel implements ActionListener {
             asset.setType(type);
             asset.setStock(stock);
             asset.setMaterialCost(price);
-            try {
-                assetController.save(asset);
-                if (asset.getId() == null) {
-                    Integer id = assetController.findLatest();
-                    asset.setId(id);
-                }
-            } catch (SQLException ex) {
-                Logger.getLogger(AssetPanel.class.getName()).log(Level.SEVERE, null, ex);
-            }
         }
         return asset;
     }
@@ -434,24 +438,17 @@ public class AssetPanel extends JPanel implements ActionListener {
                 if (num >= 0) {
                     int row = assetTable.getSelectedRow();
                     Integer id = (Integer) assetTable.getValueAt(row, 0);
-                    Asset asset;
-                    try {
-                        asset = assetController.findById(id);
-                        int increasedStock = asset.getStock() + num;
-                        asset.setStock(increasedStock);
-                        assetController.save(asset);
-                        List<Asset> refreshedAssets;
-                        if (type.equals(AssetType.PRODUCT)) {
-                            refreshedAssets = assetController.findAllProducts();
-                        } else {
-                            refreshedAssets = assetController.findAllEquipment();
+                    int added = num;
+                    CompletableFuture<Asset> changed = DataAccessExecutor.supply(() -> {
+                        assetController.adjustStock(id, added);
+                        return assetController.refresh(id);
+                    });
+                    Utils.publish(changed, this, asset -> {
+                        updateInTable(asset);
+                        if (row < assetTable.getRowCount()) {
+                            assetTable.setRowSelectionInterval(row, row);
                         }
-                        updateAssetsInModel(refreshedAssets);
-                        assetTable.setRowSelectionInterval(row, row);
-
-                    } catch (SQLException ex) {
-                        ex.printStackTrace();
-                    }
+                    });
 
                 } else {
                     popErrorDialog("Saving failed. Please enter a pozitive number!");
@@ -468,24 +465,29 @@ public class AssetPanel extends JPanel implements ActionListener {
         int deleteConfirm = JOptionPane.showConfirmDialog(getRootPane(),
                 "Are you sure you want to delete this item?", "Confirm delete", JOptionPane.OK_CANCEL_OPTION);
         if (deleteConfirm == JOptionPane.OK_OPTION) {
-            try {
+            AtomicBoolean used = new AtomicBoolean();
+            CompletableFuture<Asset> deleted = DataAccessExecutor.supply(() -> {
+                List<Transaction> trans = transactionController.findByAssetId(id);
+                if (!trans.isEmpty()) {
+                    used.set(true);
+                    return null;
+                }
                 Asset asset = assetController.findById(id);
-                List<Transaction> trans = transactionController.findByAssetId(asset.getId());
-                if (trans.isEmpty()) {
-                    boolean success = assetController.delete(asset);
-                    if (success) {
-                        tableModel.deleteAsset(asset);
-                        assetFormPanel.clearTextFields();
-                        assetTable.clearSelection();
-                    }
-                } else {
+                if (asset != null && assetController.delete(asset)) {
+                    return asset;
+                }
+                return null;
+            });
+            Utils.publish(deleted, this, asset -> {
+                if (asset != null) {
+                    tableModel.deleteAsset(asset);
+                    assetFormPanel.clearTextFields();
+                    assetTable.clearSelection();
+                } else if (used.get()) {
                     popErrorDialog("Not able to delete."
                             + "\nThere is saved transaction with this asset.");
                 }
-
-            } catch (SQLException ex) {
-                Logger.getLogger(AssetPanel.class.getName()).log(Level.SEVERE, null, ex);
-            }
+            });
         }
     }
 
@@ -566,6 +568,16 @@ public class AssetPanel extends JPanel implements ActionListener {
         tableModel.addAsset(asset);
     }
 
+    /**
+     * Invokes the <code>AssetTableModel</code> updateAsset method.
+     *
+     * @param asset An <code>Asset</code> object containing the changed values
+     * of an asset of the table.
+     */
+    public void updateInTable(Asset asset) {
+        tableModel.updateAsset(asset);
+    }
+
     /**
      * Invokes the <code>AssetTableModel</code> updateAssets method.
      *
@@ -1,7 +1,9 @@
 package com.csontaka.transaction_record_app.gui;
 
 import com.csontaka.transaction_record_app.entity.Asset;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.swing.table.AbstractTableModel;
 
 /**
@@ -14,6 +16,7 @@ import javax.swing.table.AbstractTableModel;
 public class AssetTableModel extends AbstractTableModel {
 
     private List<Asset> assets;
+    private final Map<Integer, Integer> rowsById = new HashMap<>();
     private final String[] COL_NAMES = {"Id", "Name", "Stock"};
 
     /**
@@ -24,6 +27,7 @@ public class AssetTableModel extends AbstractTableModel {
      */
     public AssetTableModel(List<Asset> assets) {
         this.assets = assets;
+        indexRows(0);
     }
 
     /**
@@ -35,6 +39,7 @@ public class AssetTableModel extends AbstractTableModel {
     public void addAsset(Asset asset) {
         assets.add(asset);
         int row = assets.size() - 1;
+        rowsById.put(asset.getId(), row);
         fireTableRowsInserted(row, row);
     }
 
@@ -47,26 +52,54 @@ public class AssetTableModel extends AbstractTableModel {
      */
     public void updateAssets(List<Asset> assets) {
         this.assets = assets;
+        rowsById.clear();
+        indexRows(0);
         fireTableDataChanged();
     }
 
+    /**
+     * Replaces the <code>Asset</code> object with the same id and invokes the
+     * fireTableRowsUpdated method of the <code>AbstractTableModel</code>. An
+     * asset that is not in the list yet is added to it.
+     *
+     * @param asset An <code>Asset</code> object containing the changed values.
+     */
+    public void updateAsset(Asset asset) {
+        Integer row = rowsById.get(asset.getId());
+        if (row == null) {
+            addAsset(asset);
+            return;
+        }
+        assets.set(row, asset);
+        fireTableRowsUpdated(row, row);
+    }
+
     /**
      * Removes a <code>Asset</code> object to the List class member and invokes
      * the fireTableRowsDeleted method of the <code>AbstractTableModel</code>.
+     * The row is found by the id of the asset.
      *
      * @param assetToDelete A <code>Asset</code> object to remove from the list.
      */
     public void deleteAsset(Asset assetToDelete) {
-        int row = -1;
-        for (int i = 0; i < assets.size() && row < 0; i++) {
-            if (assets.get(i).getId().equals(assetToDelete.getId())) {
-                row = i;
-            }
+        Integer row = rowsById.remove(assetToDelete.getId());
+        if (row == null) {
+            return;
         }
-        assets.remove(row);
+        assets.remove((int) row);
+        indexRows(row);
         fireTableRowsDeleted(row, row);
     }
 
+    private void indexRows(int from) {
+        if (assets == null) {
+            return;
+        }
+        for (int i = from; i < assets.size(); i++) {
+            rowsById.put(assets.get(i).getId(), i);
+        }
+    }
+
     @Override
     public String getColumnName(int column) {
         return COL_NAMES[column];
@@ -3,6 +3,7 @@ package com.csontaka.transaction_record_app.gui;
 import com.csontaka.transaction_record_app.controller.AssetController;
 import com.csontaka.transaction_record_app.controller.PeriodController;
 import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.controller.UnitOfWork;
 import com.csontaka.transaction_record_app.entity.AssetType;
 import com.csontaka.transaction_record_app.entity.Period;
 import java.awt.CardLayout;
@@ -31,7 +32,8 @@ public class ContentPanel extends JPanel {
 
     /**
      * Creates a ContentPanel with the specified <code>AssetController</code>,
-     * <code>PeriodController</code> and <code>TransactionController</code>.
+     * <code>PeriodController</code>, <code>TransactionController</code> and
+     * <code>UnitOfWork</code>.
      *
      * @param assetController An <code>AssetController</code> object to create a
      * connection with the <code>AssetRepository</code>.
@@ -39,8 +41,11 @@ public class ContentPanel extends JPanel {
      * connection with the <code>PeriodRepository</code>.
      * @param transController A <code>TransactionController</code> object to
      * create a connection with the <code>TransactionRepository</code>.
+     * @param unitOfWork A <code>UnitOfWork</code> object grouping the calls of
+     * the controllers in one database transaction.
      */
-    public ContentPanel(AssetController assetController, PeriodController perController, TransactionController transController) {
+    public ContentPanel(AssetController assetController, PeriodController perController,
+            TransactionController transController, UnitOfWork unitOfWork) {
         this.assetController = assetController;
         this.perController = perController;
         this.transController = transController;
@@ -48,9 +53,9 @@ public class ContentPanel extends JPanel {
         summaryTablePanel = new SummaryTablePanel(assetController,
                 perController, transController);
         incomeTablePanel = new TransactionTablePanel(assetController,
-                perController, transController, AssetType.PRODUCT);
+                perController, transController, unitOfWork, AssetType.PRODUCT);
         expenseTablePanel = new TransactionTablePanel(assetController,
-                perController, transController, AssetType.EQUIPMENT);
+                perController, transController, unitOfWork, AssetType.EQUIPMENT);
         goalFormPanel = new GoalFormPanel();
         incomeFormPanel = new TransactionFormPanel(AssetType.PRODUCT);
         expenseFormPanel = new TransactionFormPanel(AssetType.EQUIPMENT);
@@ -0,0 +1,73 @@
+package com.csontaka.transaction_record_app.gui;
+
+import com.csontaka.transaction_record_app.exporting.ExportJob;
+import java.awt.Component;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JOptionPane;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+
+/**
+ * Shows the progress of an {@link com.csontaka.transaction_record_app.exporting.ExportJob}
+ * in a <code>ProgressMonitor</code>, whose cancel button cancels the job. A
+ * failed export is reported in an error dialog.
+ *
+ * @author Adrienn Csontak
+ */
+class ExportMonitor implements ExportJob.Listener {
+
+    private final Component parent;
+    private final String fileName;
+    private final ProgressMonitor monitor;
+    private volatile ExportJob job;
+
+    /**
+     * Creates an ExportMonitor showing the progress over the specified
+     * component.
+     *
+     * @param parent The <code>Component</code> the monitor belongs to.
+     * @param fileName A String containing the name of the exported file.
+     */
+    ExportMonitor(Component parent, String fileName) {
+        this.parent = parent;
+        this.fileName = fileName;
+        monitor = new ProgressMonitor(parent, "Exporting " + fileName, null, 0, 100);
+        monitor.setMillisToDecideToPopup(300);
+    }
+
+    /**
+     * Follows the specified job until it finishes.
+     *
+     * @param job The <code>ExportJob</code> to follow.
+     */
+    void watch(ExportJob job) {
+        this.job = job;
+        job.getResult().whenCompleteAsync((rows, ex) -> {
+            monitor.close();
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            if (cause != null && !(cause instanceof CancellationException)) {
+                Logger.getLogger(ExportMonitor.class.getName()).log(Level.SEVERE, null, cause);
+                JOptionPane.showMessageDialog(parent, "Exporting " + fileName + " failed.",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    @Override
+    public void progressed(int rows, int total) {
+        SwingUtilities.invokeLater(() -> {
+            if (total > 0) {
+                monitor.setMaximum(total);
+                monitor.setNote(rows + " / " + total + " rows");
+            }
+            monitor.setProgress(rows);
+            ExportJob current = job;
+            if (monitor.isCanceled() && current != null) {
+                current.cancel();
+            }
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.csontaka.transaction_record_app.gui;
+
+import com.csontaka.transaction_record_app.importing.ImportJob;
+import java.awt.Component;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JOptionPane;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+
+/**
+ * Shows the progress of an {@link com.csontaka.transaction_record_app.importing.ImportJob}
+ * in a <code>ProgressMonitor</code>, whose cancel button cancels the job. A
+ * failed import is reported in an error dialog.
+ *
+ * @author Adrienn Csontak
+ */
+class ImportMonitor implements ImportJob.Listener {
+
+    private static final int SCALE = 1000;
+
+    private final Component parent;
+    private final String fileName;
+    private final ProgressMonitor monitor;
+    private volatile ImportJob job;
+
+    /**
+     * Creates an ImportMonitor showing the progress over the specified
+     * component.
+     *
+     * @param parent The <code>Component</code> the monitor belongs to.
+     * @param fileName A String containing the name of the imported file.
+     */
+    ImportMonitor(Component parent, String fileName) {
+        this.parent = parent;
+        this.fileName = fileName;
+        monitor = new ProgressMonitor(parent, "Importing " + fileName, null, 0, SCALE);
+        monitor.setMillisToDecideToPopup(300);
+    }
+
+    /**
+     * Follows the specified job until it finishes.
+     *
+     * @param job The <code>ImportJob</code> to follow.
+     */
+    void watch(ImportJob job) {
+        this.job = job;
+        job.getResult().whenCompleteAsync((report, ex) -> {
+            monitor.close();
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            if (cause != null && !(cause instanceof CancellationException)) {
+                Logger.getLogger(ImportMonitor.class.getName()).log(Level.SEVERE, null, cause);
+                JOptionPane.showMessageDialog(parent, "Importing " + fileName + " failed: "
+                        + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    @Override
+    public void progressed(long bytes, long total) {
+        SwingUtilities.invokeLater(() -> {
+            // The file may be larger than an int, so the progress is shown in
+            // thousandths.
+            if (total > 0) {
+                monitor.setNote(bytes * 100 / total + "%");
+                monitor.setProgress((int) Math.min(SCALE, bytes * SCALE / total));
+            }
+            ImportJob current = job;
+            if (monitor.isCanceled() && current != null) {
+                current.cancel();
+            }
+        });
+    }
+}
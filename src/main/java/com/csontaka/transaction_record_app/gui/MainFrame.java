@@ -1,8 +1,14 @@
 package com.csontaka.transaction_record_app.gui;
 
 import com.csontaka.transaction_record_app.controller.AssetController;
+import com.csontaka.transaction_record_app.controller.DataAccessExecutor;
 import com.csontaka.transaction_record_app.controller.PeriodController;
 import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.controller.UnitOfWork;
+import com.csontaka.transaction_record_app.dao.ConnectionPool;
+import com.csontaka.transaction_record_app.dao.SchemaMigrator;
+import com.csontaka.transaction_record_app.dao.TransactionalDataSource;
+import com.csontaka.transaction_record_app.dao.WriteBehindQueue;
 import com.csontaka.transaction_record_app.entity.Asset;
 import com.csontaka.transaction_record_app.entity.AssetType;
 import com.csontaka.transaction_record_app.entity.Period;
@@ -20,12 +26,12 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.FileReader;
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.BorderFactory;
@@ -34,7 +40,9 @@ import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 /**
  * The main window of the application. Inherits the javax.swing.JFrame class.
@@ -55,7 +63,9 @@ public class MainFrame extends JFrame {
     private JButton inventoryBtn;
     private JButton calculatorBtn;
     private ContentPanel contentPanel;
-    private Connection conn;
+    private ConnectionPool pool;
+    private WriteBehindQueue writeQueue;
+    private UnitOfWork unitOfWork;
     private AssetController assetController;
     private PeriodController periodController;
     private TransactionController transController;
@@ -63,7 +73,8 @@ public class MainFrame extends JFrame {
 
     /**
      * Creates a new frame, sets the size, the visibility, the closing
-     * operation, its component and the database connection.
+     * operation, its component and the database connection, and brings the
+     * database schema up to date.
      */
     public MainFrame() {
 
@@ -75,41 +86,45 @@ public class MainFrame extends JFrame {
         } catch (IOException ex) {
             Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
         }
-        try {
-            String server = PROP.getProperty("server");
-            String portNumber = PROP.getProperty("port_number");
-            String database = PROP.getProperty("database");
-            String user = PROP.getProperty("user");
-            String password = PROP.getProperty("password");
-            conn = DriverManager.getConnection("jdbc:mysql://"
-                    + server + ":" + portNumber + "/" + database, user, password);
-            assetController = new AssetController(conn);
-            periodController = new PeriodController(conn);
-            transController = new TransactionController(conn);
-            contentPanel = new ContentPanel(assetController,
-                    periodController, transController);
-
-            Period lastPeriod = periodController.findLatest();
-            YearMonth lastPeriodDate;
-            if (lastPeriod != null) {
-                lastPeriodDate = lastPeriod.getDate();
-            } else {
-                lastPeriodDate = YearMonth.now().minusMonths(2);
-            }
-
-            YearMonth monthsFromNow = YearMonth.now()
-                    .plusMonths(GoalFormPanel.MAX_PERIOD_DATE - 1);
-
-            while (!lastPeriodDate.equals(monthsFromNow)) {
-                YearMonth plusOneMonth = lastPeriodDate.plusMonths(1);
-                Period newPeriod = new Period(plusOneMonth);
-                periodController.save(newPeriod);
-                lastPeriodDate = plusOneMonth;
+        pool = ConnectionPool.fromProperties(PROP);
+        writeQueue = new WriteBehindQueue();
+        writeQueue.setErrorListener(ex -> {
+            Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                    "Saving the changes failed, they will be saved again with the next change.",
+                    "Error", JOptionPane.ERROR_MESSAGE));
+        });
+        TransactionalDataSource dataSource = new TransactionalDataSource(pool);
+        unitOfWork = new UnitOfWork(dataSource, writeQueue);
+        assetController = new AssetController(dataSource, writeQueue);
+        periodController = new PeriodController(dataSource);
+        transController = new TransactionController(dataSource);
+
+        // The schema is brought up to date and the periods are created before
+        // the first load of the panels.
+        SchemaMigrator migrator = new SchemaMigrator(pool);
+        DataAccessExecutor.initialize(migrator::migrate).exceptionally(ex -> {
+            Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                    "Updating the database schema failed, the records may not load or save.",
+                    "Error", JOptionPane.ERROR_MESSAGE));
+            return null;
+        });
+        YearMonth monthsFromNow = YearMonth.now()
+                .plusMonths(GoalFormPanel.MAX_PERIOD_DATE - 1);
+        DataAccessExecutor.initialize(() -> periodController.createPeriodsUntil(monthsFromNow))
+                .exceptionally(ex -> {
+                    Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
+                    return null;
+                });
+        DataAccessExecutor.run(() -> {
+            for (String warning : migrator.checkQueryPlans()) {
+                Logger.getLogger(MainFrame.class.getName()).log(Level.WARNING, warning);
             }
-
-        } catch (SQLException e) {
-            Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, e);
-        }
+        }).exceptionally(ex -> {
+            Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
+            return null;
+        });
 
         initComponents();
         setGoalPanelFormListener();
@@ -119,6 +134,8 @@ public class MainFrame extends JFrame {
         setExpenseTablePanelSaveFormListener();
         setIncomeTablePanelDeleteFormListener();
         setExpenseTablePanelDeleteFormListener();
+        setIncomeTablePanelImportFormListener();
+        setExpenseTablePanelImportFormListener();
         setCalculatorListener();
         incomeBtnActionPerformed(null);
         
@@ -128,11 +145,13 @@ public class MainFrame extends JFrame {
             @Override
             public void windowClosing(WindowEvent we) {
                 try {
+                    DataAccessExecutor.shutdown();
+                    writeQueue.close();
                     transController.close();
                     periodController.close();
                     assetController.close();
-                    conn.close();
-                } catch (SQLException ex) {
+                    pool.close();
+                } catch (SQLException | InterruptedException ex) {
                     Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
                 }
                 System.exit(0);
@@ -147,24 +166,18 @@ public class MainFrame extends JFrame {
 
             @Override
             public void formEventOccured(FormEvent e) {
-                try {
-                    int newGoal = e.getPeriod().getGoal();
-                    YearMonth yearMonth = e.getPeriod().getDate();
-
+                int newGoal = e.getPeriod().getGoal();
+                YearMonth yearMonth = e.getPeriod().getDate();
+                CompletableFuture<Void> saved = DataAccessExecutor.run(() -> {
                     Period periodToChange = periodController.findPeriodByDate(yearMonth);
                     periodToChange.setGoal(newGoal);
-
                     periodController.save(periodToChange);
-                    List<Period> periodsToGoals = periodController
-                            .findAfterADate(YearMonth.now().minusMonths(1));
-                    List<Period> periodsToSummaryTable = periodController.
-                            findBeforeADate(YearMonth.now().plusMonths(1));
-                    contentPanel.getGoalFormPanel().setPeriods(periodsToGoals);
-                    contentPanel.getSummaryTablePanel().refresh(periodsToSummaryTable);
-
-                } catch (SQLException ex) {
-                    Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
-                }
+                });
+                Utils.publish(saved, contentPanel, v -> {
+                    Utils.publish(periodController.findAfterADateAsync(YearMonth.now().minusMonths(1)),
+                            contentPanel, contentPanel.getGoalFormPanel()::setPeriods);
+                    contentPanel.getSummaryTablePanel().reload();
+                });
             }
         });
     }
@@ -200,79 +213,58 @@ public class MainFrame extends JFrame {
         if (e.getChangedTransaction() != null) {
             Transaction transToSave = e.getChangedTransaction();
             Asset assetToSave = e.getAsset();
-            try {
-                //transaction to insert
-                if (transToSave.getId() == null) {
-                    assetController.save(assetToSave);
-                    if (assetToSave.getId() == null) {
-                        insertNewAssetToTableAndTrans(assetToSave,
-                                assetPanel, transToSave);
-                    } else {
-                        refreshAssetTableAndAddToTrans(assetToSave,
-                                assetPanel, transToSave, type);
-                    }
-                    transController.save(transToSave);
-                    Integer id = transController.findLatest();
-                    transToSave.setId(id);
+            Transaction oldTransaction = e.getOldTransaction();
+            boolean insert = transToSave.getId() == null;
+            CompletableFuture<List<Asset>> saved = DataAccessExecutor.supply(()
+                    -> saveTransaction(transToSave, assetToSave, oldTransaction));
+            Utils.publish(saved, tablePanel, changedAssets -> {
+                for (Asset asset : changedAssets) {
+                    assetPanel.updateInTable(asset);
+                }
+                if (insert) {
                     tablePanel.insertToTable(transToSave);
-
                 } else {
-                    Transaction oldTransaction = e.getOldTransaction();
-                    Integer oldAssetId = oldTransaction.getAssetId();
-                    Integer newAssetId = assetToSave.getId();
-
-                    if (newAssetId != null && newAssetId.equals(oldAssetId)) {
-                        int stock = assetToSave.getStock();
-                        stock = stock + oldTransaction.getAmount() - transToSave.getAmount();
-                        assetToSave.setStock(stock);
-                    } else {
-                        Asset oldAsset = assetController.findById(oldAssetId);
-                        oldAsset.setStock(oldAsset.getStock() + oldTransaction.getAmount());
-                        assetController.save(oldAsset);
-                        assetToSave.setStock(assetToSave.getStock() - transToSave.getAmount());
-                    }
+                    tablePanel.updateInTable(transToSave);
+                }
+            });
+        }
+    }
 
+    /**
+     * Saves a new asset and the transaction in one unit of work, letting the
+     * database change the stock of the old and the new asset. Gets the changed
+     * assets read again after the commit.
+     */
+    private List<Asset> saveTransaction(Transaction transToSave, Asset assetToSave,
+            Transaction oldTransaction) throws SQLException {
+        boolean newAsset = assetToSave.getId() == null;
+        boolean insert = transToSave.getId() == null;
+        try {
+            unitOfWork.run(() -> {
+                if (newAsset) {
                     assetController.save(assetToSave);
-                    if (assetToSave.getId() == null) {
-                        insertNewAssetToTableAndTrans(assetToSave,
-                                assetPanel, transToSave);
-                    }
-                    refreshAssetTableAndAddToTrans(assetToSave,
-                            assetPanel, transToSave, type);
-                    transController.save(transToSave);
-                    List<Transaction> trans;
-                    if (type.equals(AssetType.EQUIPMENT)) {
-                        trans = transController.findAllExpense();
-                    } else {
-                        trans = transController.findAllIncome();
-                    }
-                    tablePanel.refresh(trans);
                 }
-            } catch (SQLException ex) {
-                Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
+                transToSave.setAssetId(assetToSave.getId());
+                transController.saveWithStock(transToSave);
+                return null;
+            });
+        } catch (SQLException | RuntimeException ex) {
+            if (newAsset) {
+                assetToSave.setId(null);
+            }
+            if (insert) {
+                transToSave.setId(null);
             }
+            throw ex;
         }
-    }
-
-    private void insertNewAssetToTableAndTrans(Asset assetToSave,
-            AssetPanel assetPanel, Transaction trans) throws SQLException {
-        Integer assetToSaveId = assetController.findLatest();
-        assetToSave.setId(assetToSaveId);
-        assetPanel.insertToTable(assetToSave);
-        trans.setAssetId(assetToSaveId);
-    }
 
-    private void refreshAssetTableAndAddToTrans(Asset asset,
-            AssetPanel assetPanel, Transaction trans, AssetType type) throws SQLException {
-        List<Asset> assets;
-        if (type.equals(AssetType.EQUIPMENT)) {
-            assets = assetController.findAllEquipment();
-        } else {
-            assets = assetController.findAllProducts();
+        List<Asset> changedAssets = new ArrayList<>();
+        changedAssets.add(assetController.refresh(assetToSave.getId()));
+        if (oldTransaction != null
+                && !oldTransaction.getAssetId().equals(assetToSave.getId())) {
+            changedAssets.add(assetController.refresh(oldTransaction.getAssetId()));
         }
-
-        assetPanel.updateAssetsInModel(assets);
-        trans.setAssetId(asset.getId());
+        return changedAssets;
     }
 
     private void setIncomeTablePanelSaveFormListener() {
@@ -300,32 +292,30 @@ public class MainFrame extends JFrame {
     private void doTablePanelAction(TransactionFormPanel formPanel, AssetType type, FormEvent e) {
         Period tempPeriod = e.getPeriod();
         Transaction tempTransaction = e.getChangedTransaction();
-        Asset tempAsset = null;
 
-        List<Period> periods = null;
-        List<Asset> equipment = null;
-        try {
-            periods = periodController.findBeforeADate(YearMonth.now().plusMonths(1));
-            if (type.equals(AssetType.PRODUCT)) {
-                equipment = assetController.findAllProducts();
-            } else {
-                equipment = assetController.findAllEquipment();
-            }
-            if (e.getAsset() != null) {
-                tempAsset = assetController.findById(e.getAsset().getId());
-            }
-        } catch (SQLException ex) {
-            Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
-        }
-
-        formPanel.setUpComboBoxesAndTitle(periods, equipment);
-        if (tempTransaction == null) {
-            formPanel.setUpForNew();
+        CompletableFuture<List<Period>> periods = periodController
+                .findBeforeADateAsync(YearMonth.now().plusMonths(1));
+        CompletableFuture<List<Asset>> equipment;
+        if (type.equals(AssetType.PRODUCT)) {
+            equipment = assetController.findAllProductsAsync();
         } else {
-            formPanel.setUpForUpdate(tempAsset,
-                    tempPeriod, tempTransaction);
+            equipment = assetController.findAllEquipmentAsync();
+        }
+        CompletableFuture<Asset> tempAsset = CompletableFuture.completedFuture(null);
+        if (e.getAsset() != null) {
+            tempAsset = assetController.findByIdAsync(e.getAsset().getId());
         }
 
+        CompletableFuture<Asset> selectedAsset = tempAsset;
+        Utils.publish(CompletableFuture.allOf(periods, equipment, selectedAsset), formPanel, v -> {
+            formPanel.setUpComboBoxesAndTitle(periods.join(), equipment.join());
+            if (tempTransaction == null) {
+                formPanel.setUpForNew();
+            } else {
+                formPanel.setUpForUpdate(selectedAsset.join(),
+                        tempPeriod, tempTransaction);
+            }
+        });
     }
 
     private void setIncomeTablePanelDeleteFormListener() {
@@ -333,16 +323,7 @@ public class MainFrame extends JFrame {
 
             @Override
             public void formEventOccured(FormEvent e) {
-                Asset asset = e.getAsset();
-                try {
-                    assetController.save(asset);
-                    List<Asset> assets = assetController.findAllProducts();
-                    contentPanel.getInventoryPanel().getProductPanel().updateAssetsInModel(assets);
-
-                } catch (SQLException ex) {
-                    Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
-                }
-
+                contentPanel.getInventoryPanel().getProductPanel().updateInTable(e.getAsset());
             }
         });
     }
@@ -352,14 +333,29 @@ public class MainFrame extends JFrame {
 
             @Override
             public void formEventOccured(FormEvent e) {
-                Asset asset = e.getAsset();
-                try {
-                    assetController.save(asset);
-                    List<Asset> assets = assetController.findAllEquipment();
-                    contentPanel.getInventoryPanel().getEquipmentPanel().updateAssetsInModel(assets);
-                } catch (SQLException ex) {
-                    Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
-                }
+                contentPanel.getInventoryPanel().getEquipmentPanel().updateInTable(e.getAsset());
+            }
+        });
+    }
+
+    private void setIncomeTablePanelImportFormListener() {
+        contentPanel.getIncomeTablePanel().setImportFormListener(new FormListener() {
+
+            @Override
+            public void formEventOccured(FormEvent e) {
+                contentPanel.getInventoryPanel().getProductPanel().reload();
+                contentPanel.getSummaryTablePanel().reload();
+            }
+        });
+    }
+
+    private void setExpenseTablePanelImportFormListener() {
+        contentPanel.getExpenseTablePanel().setImportFormListener(new FormListener() {
+
+            @Override
+            public void formEventOccured(FormEvent e) {
+                contentPanel.getInventoryPanel().getEquipmentPanel().reload();
+                contentPanel.getSummaryTablePanel().reload();
             }
         });
     }
@@ -370,17 +366,20 @@ public class MainFrame extends JFrame {
             public void formEventOccured(FormEvent e) {
                 Asset asset = e.getAsset();
                 if(asset != null){
-                    try {
-                        assetController.save(asset);
-                        List<Asset> assets = assetController.findAllProducts();
-                        contentPanel.getInventoryPanel().getProductPanel().updateAssetsInModel(assets);
-                    } catch (SQLException ex) {
-                        Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
-                    }
+                    saveAssetAndUpdate(asset,
+                            contentPanel.getInventoryPanel().getProductPanel());
                 }
             }
         });
     }
+
+    private void saveAssetAndUpdate(Asset asset, AssetPanel assetPanel) {
+        CompletableFuture<Asset> saved = DataAccessExecutor.supply(() -> {
+            assetController.save(asset);
+            return assetController.refresh(asset.getId());
+        });
+        Utils.publish(saved, assetPanel, assetPanel::updateInTable);
+    }
     
     private void incomeBtnActionPerformed(ActionEvent evt) {
         CardLayout cl = (CardLayout) contentPanel.getLayout();
@@ -406,14 +405,8 @@ public class MainFrame extends JFrame {
         CardLayout cl = (CardLayout) contentPanel.getLayout();
         cl.show(contentPanel, "goalFormPanel");
         contentPanel.getGoalFormPanel().emptySuccessLabel();
-        List<Period> periods = null;
-        try {
-            periods = periodController
-                    .findAfterADate(YearMonth.now().minusMonths(1));
-        } catch (SQLException ex) {
-            Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
-        }
-        contentPanel.getGoalFormPanel().setPeriods(periods);
+        Utils.publish(periodController.findAfterADateAsync(YearMonth.now().minusMonths(1)),
+                contentPanel, contentPanel.getGoalFormPanel()::setPeriods);
         clearPages();
     }
 
@@ -437,7 +430,8 @@ public class MainFrame extends JFrame {
     }
     
     private void initComponents() {
-        contentPanel = new ContentPanel(assetController, periodController, transController);
+        contentPanel = new ContentPanel(assetController, periodController, transController,
+                unitOfWork);
         Font labelFont = new Font("Lucida Sans Unicode", 0, 16);
         dataLabel = new JLabel("Transactions");
         dataLabel.setFont(labelFont);
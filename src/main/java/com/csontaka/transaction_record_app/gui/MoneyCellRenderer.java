@@ -0,0 +1,24 @@
+package com.csontaka.transaction_record_app.gui;
+
+import com.csontaka.transaction_record_app.entity.MoneyFormat;
+import javax.swing.table.DefaultTableCellRenderer;
+
+/**
+ * Shows the amounts of money that the table models provide in pence, formatted
+ * by {@link com.csontaka.transaction_record_app.entity.MoneyFormat}. The models
+ * keep the amounts as numbers, so the tables sort and compare them without
+ * parsing Strings.
+ *
+ * @author Adrienn Csontak
+ */
+class MoneyCellRenderer extends DefaultTableCellRenderer {
+
+    @Override
+    protected void setValue(Object value) {
+        if (value instanceof Number) {
+            setText(MoneyFormat.format(((Number) value).longValue()));
+        } else {
+            super.setValue(value);
+        }
+    }
+}
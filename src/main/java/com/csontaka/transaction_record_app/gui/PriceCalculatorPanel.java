@@ -15,13 +15,10 @@ import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.sql.SQLException;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.List;
 import java.util.Locale;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -391,50 +388,53 @@ public class PriceCalculatorPanel extends JPanel {
         if (materialListModel.getSize() == 0) {
             Utils.showWarningMessage(getRootPane(), "The list of costs is empty!");
         } else {
-            try {
-                List<Asset> products = assetController.findAllProducts();
-                if (!products.isEmpty()) {
-                    String firstValue = products.get(0).getId()
-                            + ") " + products.get(0).getName();
-                    String[] productNames = new String[products.size()];
-                    for (int i = 0; i < products.size(); i++) {
-                        Asset asset = products.get(i);
-                        productNames[i] = asset.getId() + ") " + asset.getName();
-                    }
-                    String s = (String) JOptionPane.showInputDialog(
-                            getRootPane(), "Choose a product!", "",
-                            JOptionPane.PLAIN_MESSAGE, null, productNames,
-                            firstValue);
-                    int idEnd = s.indexOf(")");
-                    Integer id = Integer.parseInt(s.substring(0, idEnd));
-                    Asset product = null;
-                    for (Asset tempProduct : products) {
-                        if (tempProduct.getId().equals(id)) {
-                            product = tempProduct;
-                        }
-                    }
-                    if (product.getMaterialCost() != 0) {
-                        int confirm = JOptionPane.showConfirmDialog(getRootPane(),
-                                "The selected product already has a material cost set."
-                                + "\nDo you want to overrite it?",
-                                "Confirm delete", JOptionPane.YES_NO_OPTION);
-                        if (confirm == JOptionPane.NO_OPTION) {
-                            return;
-                        }
-                    }
-                    product.setMaterialCost(totalMaterialCost);
-                    FormEvent event = new FormEvent(this);
-                    event.setAsset(product);
-                    if (formListener != null) {
-                        formListener.formEventOccured(event);
-                    }
-                } else {
-                    Utils.showWarningMessage(getRootPane(), "No saved products"
-                            + "in the database");
+            Utils.publish(assetController.findAllProductsAsync(), this,
+                    this::setMaterialCostOfChosenProduct);
+        }
+    }
+
+    private void setMaterialCostOfChosenProduct(List<Asset> products) {
+        if (!products.isEmpty()) {
+            String firstValue = products.get(0).getId()
+                    + ") " + products.get(0).getName();
+            String[] productNames = new String[products.size()];
+            for (int i = 0; i < products.size(); i++) {
+                Asset asset = products.get(i);
+                productNames[i] = asset.getId() + ") " + asset.getName();
+            }
+            String s = (String) JOptionPane.showInputDialog(
+                    getRootPane(), "Choose a product!", "",
+                    JOptionPane.PLAIN_MESSAGE, null, productNames,
+                    firstValue);
+            if (s == null) {
+                return;
+            }
+            int idEnd = s.indexOf(")");
+            Integer id = Integer.parseInt(s.substring(0, idEnd));
+            Asset product = null;
+            for (Asset tempProduct : products) {
+                if (tempProduct.getId().equals(id)) {
+                    product = tempProduct;
                 }
-            } catch (SQLException ex) {
-                Logger.getLogger(PriceCalculatorPanel.class.getName()).log(Level.SEVERE, null, ex);
             }
+            if (product.getMaterialCost() != 0) {
+                int confirm = JOptionPane.showConfirmDialog(getRootPane(),
+                        "The selected product already has a material cost set."
+                        + "\nDo you want to overrite it?",
+                        "Confirm delete", JOptionPane.YES_NO_OPTION);
+                if (confirm == JOptionPane.NO_OPTION) {
+                    return;
+                }
+            }
+            product.setMaterialCost(totalMaterialCost);
+            FormEvent event = new FormEvent(this);
+            event.setAsset(product);
+            if (formListener != null) {
+                formListener.formEventOccured(event);
+            }
+        } else {
+            Utils.showWarningMessage(getRootPane(), "No saved products"
+                    + "in the database");
         }
     }
 
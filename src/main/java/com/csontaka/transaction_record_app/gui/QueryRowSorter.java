@@ -0,0 +1,106 @@
+package com.csontaka.transaction_record_app.gui;
+
+import java.util.Collections;
+import java.util.List;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+
+/**
+ * A <code>RowSorter</code> that lets the header of a table of a
+ * {@link com.csontaka.transaction_record_app.gui.TransactionTableModel}
+ * change the order of the transactions. The model holds only some pages of
+ * the rows, so it can not be sorted in the table: a click on a column header
+ * makes the model load the transactions again in the order of the column,
+ * ascending first and descending on the next click. The rows of the view and
+ * the model are the same.
+ *
+ * @author Adrienn Csontak
+ */
+class QueryRowSorter extends RowSorter<TransactionTableModel> {
+
+    private final TransactionTableModel model;
+
+    /**
+     * Creates a QueryRowSorter ordering the specified model.
+     *
+     * @param model The <code>TransactionTableModel</code> to order.
+     */
+    QueryRowSorter(TransactionTableModel model) {
+        this.model = model;
+    }
+
+    @Override
+    public TransactionTableModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        SortOrder order = SortOrder.ASCENDING;
+        if (model.getSortColumn() == column && !model.isSortDescending()) {
+            order = SortOrder.DESCENDING;
+        }
+        setSortKeys(Collections.singletonList(new SortKey(column, order)));
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        if (keys == null || keys.isEmpty()) {
+            model.setSort(0, false);
+        } else {
+            SortKey key = keys.get(0);
+            model.setSort(key.getColumn(), key.getSortOrder() == SortOrder.DESCENDING);
+        }
+        fireSortOrderChanged();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return Collections.singletonList(new SortKey(model.getSortColumn(),
+                model.isSortDescending() ? SortOrder.DESCENDING : SortOrder.ASCENDING));
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        return index;
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        return index;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+    }
+
+    @Override
+    public void allRowsChanged() {
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+    }
+}
@@ -1,15 +1,9 @@
 package com.csontaka.transaction_record_app.gui;
 
-import com.csontaka.transaction_record_app.controller.AssetController;
-import com.csontaka.transaction_record_app.controller.TransactionController;
 import com.csontaka.transaction_record_app.entity.Period;
-import com.csontaka.transaction_record_app.entity.Transaction;
-import java.sql.SQLException;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
-import java.util.ArrayList;
+import com.csontaka.transaction_record_app.entity.PeriodTotals;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import javax.swing.table.AbstractTableModel;
 
 /**
@@ -23,42 +17,43 @@ import javax.swing.table.AbstractTableModel;
 class SummaryTableModel extends AbstractTableModel {
 
     private List<Period> periods;
-    private TransactionController transController;
-    private AssetController assetController;
+    private Map<Integer, PeriodTotals> totals;
     private final String[] COL_NAMES = {"Month", "Amount", "Income", "Goal"};
-    private final Locale LOCALE = new Locale("en", "UK");
-    private final DecimalFormat DECIMAL_FORMAT = (DecimalFormat) NumberFormat.getNumberInstance(LOCALE);
 
     /**
      * Construct a <code>SummaryTablePanel</code> with specified list of
-     * periods, TransactionController object and AssetController object.
+     * periods and the totals of the periods.
      *
      * @param periods A List of <code>Period</code> objects.
-     * @param transController A <code>TransactionController</code> object to
-     * create a connection with the <code>TransactionRepository</code>.
-     * @param assetController An <code>AssetController</code> object to create a
-     * connection with the <code>AssetRepository</code>.
+     * @param totals A Map of <code>PeriodTotals</code> objects by period id.
      */
-    public SummaryTableModel(List<Period> periods,
-            TransactionController transController, AssetController assetController) {
+    public SummaryTableModel(List<Period> periods, Map<Integer, PeriodTotals> totals) {
         this.periods = periods;
-        this.transController = transController;
-        this.assetController = assetController;
-        DECIMAL_FORMAT.applyPattern("##0.00");
+        this.totals = totals;
     }
 
     /**
      * Sets the List of <code>Period</code> objects to provide the data for
-     * displaying. Invokes the fireTableDataChanged method of the
-     * <code>AbstractTableModel</code>
+     * displaying and the totals of these periods. Invokes the
+     * fireTableDataChanged method of the <code>AbstractTableModel</code>
      *
      * @param periods List of <code>Period</code> to set the class member.
+     * @param totals A Map of <code>PeriodTotals</code> objects by period id.
      */
-    public void setData(List<Period> periods) {
+    public void setData(List<Period> periods, Map<Integer, PeriodTotals> totals) {
         this.periods = periods;
+        this.totals = totals;
         fireTableDataChanged();
     }
 
+    private PeriodTotals getTotals(Period p) {
+        PeriodTotals periodTotals = totals.get(p.getId());
+        if (periodTotals == null) {
+            periodTotals = new PeriodTotals();
+        }
+        return periodTotals;
+    }
+
     @Override
     public String getColumnName(int column) {
         return COL_NAMES[column];
@@ -92,36 +87,14 @@ class SummaryTableModel extends AbstractTableModel {
     public Object getValueAt(int row, int col) {
         Object temp = null;
         Period p = periods.get(row);
-        List<Transaction> incomes = new ArrayList<>();
-        try {
-            incomes = transController.findAllIncome();
-        } catch (SQLException ex) {
-            System.out.println(ex.getMessage());
-        }
         if (col == 0) {
             temp = p.getDate();
         } else if (col == 1) {
-            int toltalSold = 0;
-            for (Transaction t : incomes) {
-                if (t.getPeriodId().equals(p.getId())) {
-                    toltalSold += t.getAmount();
-                }
-            }
-            temp = toltalSold;
+            temp = getTotals(p).getAmount();
         } else if (col == 2) {
-            int totalInt = 0;
-            for (Transaction t : incomes) {
-                if (t.getPeriodId().equals(p.getId())) {
-                    totalInt = t.getAmount() * t.getPrice();
-                }
-            }
-            double total = totalInt / 100.0;
-            String totalStr = DECIMAL_FORMAT.format(total);
-            temp = totalStr;
+            temp = getTotals(p).getIncome();
         } else if (col == 3) {
-            double goal = p.getGoal() / 100.0;
-            String goalStr = DECIMAL_FORMAT.format(goal);
-            temp = goalStr;
+            temp = p.getGoal();
         }
         return temp;
     }
@@ -3,9 +3,12 @@ package com.csontaka.transaction_record_app.gui;
 import com.csontaka.transaction_record_app.controller.AssetController;
 import com.csontaka.transaction_record_app.controller.PeriodController;
 import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.entity.AssetType;
 import com.csontaka.transaction_record_app.entity.Period;
+import com.csontaka.transaction_record_app.entity.PeriodTotals;
 import com.csontaka.transaction_record_app.exporting.TableExport;
 import com.csontaka.transaction_record_app.exporting.ExportFactory;
+import com.csontaka.transaction_record_app.exporting.ExportService;
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.Font;
@@ -15,10 +18,12 @@ import java.awt.Insets;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.io.File;
-import java.sql.SQLException;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.BorderFactory;
 import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
@@ -73,13 +78,6 @@ public class SummaryTablePanel extends JPanel implements ItemListener {
         this.assetController = assetController;
         this.perController = perController;
         this.transController = transController;
-        List<Period> periods = new ArrayList<>();
-        try {
-            periods = perController.findBeforeADate(YearMonth.now().plusMonths(1));
-        } catch (SQLException ex) {
-            System.out.println(ex.getMessage());
-        }
-
         setLayout(new BorderLayout());
 
         titlePanel = new JPanel(new GridBagLayout());
@@ -95,13 +93,14 @@ public class SummaryTablePanel extends JPanel implements ItemListener {
         timeCombo.setSelectedIndex(4);
         timeCombo.addItemListener(this);
 
-        tableModel = new SummaryTableModel(periods,
-                transController, assetController);
+        tableModel = new SummaryTableModel(new ArrayList<>(), new HashMap<>());
         sorter = new TableRowSorter<>(tableModel);
         renderer = new TableColorCellRenderer();
         table = new JTable(tableModel);
         table.setRowSorter(sorter);
         table.setDefaultRenderer(Object.class, renderer);
+        table.getColumnModel().getColumn(2).setCellRenderer(renderer);
+        table.getColumnModel().getColumn(3).setCellRenderer(renderer);
         newFilter(YearMonth.now().minusMonths(4));
 
         JScrollPane scrollpane = new JScrollPane(table);
@@ -125,6 +124,16 @@ public class SummaryTablePanel extends JPanel implements ItemListener {
 
         add(titlePanel, BorderLayout.NORTH);
         add(scrollpane, BorderLayout.CENTER);
+        reload();
+    }
+
+    /**
+     * Loads the periods until the current month on a background thread and
+     * refreshes the table with them.
+     */
+    public void reload() {
+        Utils.publish(perController.findBeforeADateAsync(YearMonth.now().plusMonths(1)),
+                this, this::refresh);
     }
 
     private void newFilter(YearMonth startDate) {
@@ -154,13 +163,33 @@ public class SummaryTablePanel extends JPanel implements ItemListener {
     }
 
     /**
-     * Invokes the setData method of the <code>SummaryTableModel</code>.
+     * Sums the incomes of the specified periods on a background thread and
+     * invokes the setData method of the <code>SummaryTableModel</code> with
+     * the periods and their totals.
      *
      * @param periods A List of <code>Period</code> objects to show in the
      * table.
      */
     public void refresh(List<Period> periods) {
-        tableModel.setData(periods);
+        Utils.publish(summarize(periods), this,
+                totals -> tableModel.setData(periods, totals));
+    }
+
+    private CompletableFuture<Map<Integer, PeriodTotals>> summarize(List<Period> periods) {
+        if (periods == null || periods.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        YearMonth from = periods.get(0).getDate();
+        YearMonth to = from;
+        for (Period p : periods) {
+            if (p.getDate().isBefore(from)) {
+                from = p.getDate();
+            }
+            if (p.getDate().isAfter(to)) {
+                to = p.getDate();
+            }
+        }
+        return transController.summarizeByPeriodAsync(AssetType.PRODUCT, from, to);
     }
 
     @Override
@@ -233,7 +262,9 @@ public class SummaryTablePanel extends JPanel implements ItemListener {
             File file = getFileFromFileChooser(jfc, extension);
             if (file != null) {
                 TableExport export = ExportFactory.getExport(choosen);
-                export.export(table, file.getAbsolutePath());
+                ExportMonitor monitor = new ExportMonitor(this, file.getName());
+                monitor.watch(ExportService.exportTable(export, table,
+                        file.getAbsolutePath(), monitor));
             }
             exportCombo.setSelectedIndex(0);
         }
@@ -2,9 +2,6 @@ package com.csontaka.transaction_record_app.gui;
 
 import java.awt.Color;
 import java.awt.Component;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
-import java.util.Locale;
 import javax.swing.JTable;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableCellRenderer;
@@ -14,44 +11,42 @@ import javax.swing.table.TableCellRenderer;
  * to set the colours of the table of
  * {@link com.csontaka.transaction_records.gui.SummaryTablePanel}. If the goal
  * value is lower then the income value, than the cell of the goal is red, else
- * green.
+ * green. The income and the goal are compared as the numbers of pence the
+ * model provides, and shown formatted.
  *
  * @author Adrienn Csontak
  */
 public class TableColorCellRenderer implements TableCellRenderer {
 
     private static final TableCellRenderer RENDERER = new DefaultTableCellRenderer();
-    private final Locale LOCALE = new Locale("en", "UK");
-    private final DecimalFormat DECIMAL_FORMAT = (DecimalFormat) NumberFormat.getNumberInstance(LOCALE);
+    private static final TableCellRenderer MONEY_RENDERER = new MoneyCellRenderer();
+    private static final Color REACHED = new Color(173, 255, 47);
+    private static final Color MISSED = new Color(255, 99, 71);
+    private static final Color SELECTED = new Color(57, 105, 138);
 
     @Override
     public Component getTableCellRendererComponent(JTable table, Object value,
             boolean isSelected, boolean hasFocus, int row, int column) {
-        Component c = RENDERER.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+        int modelColumn = table.convertColumnIndexToModel(column);
+        TableCellRenderer renderer = modelColumn == 2 || modelColumn == 3
+                ? MONEY_RENDERER : RENDERER;
+        Component c = renderer.getTableCellRendererComponent(table, value, isSelected,
+                hasFocus, row, column);
         if (!isSelected) {
-            if (column == 3) {
-
-                DECIMAL_FORMAT.applyPattern("##0.00");
-                String sep = DECIMAL_FORMAT.getDecimalFormatSymbols().getDecimalSeparator() + "";
-                String goalStr = (String) table.getModel().getValueAt(row, column);
-                String incomeStr = (String) table.getModel().getValueAt(row, 2);
-                incomeStr = incomeStr.replace(sep, "");
-                goalStr = goalStr.replace(sep, "");
-                int income = Integer.parseInt(incomeStr);
-                int goal = Integer.parseInt(goalStr);
-                Color color = null;
-
+            if (modelColumn == 3) {
+                int modelRow = table.convertRowIndexToModel(row);
+                long income = ((Number) table.getModel().getValueAt(modelRow, 2)).longValue();
+                long goal = ((Number) value).longValue();
                 if (income >= goal) {
-                    color = new Color(173, 255, 47);
+                    c.setBackground(REACHED);
                 } else {
-                    color = new Color(255, 99, 71);
+                    c.setBackground(MISSED);
                 }
-                c.setBackground(color);
             } else {
                 c.setBackground(Color.white);
             }
         } else {
-            c.setBackground(new Color(57, 105, 138));
+            c.setBackground(SELECTED);
         }
 
         return c;
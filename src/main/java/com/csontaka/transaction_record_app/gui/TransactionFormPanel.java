@@ -310,9 +310,7 @@ public class TransactionFormPanel extends JPanel implements ItemListener {
                     }
                 }
                 if (enoughInStock) {
-                    if(oldTrans == null){
-                        asset.setStock(assetStock - amount);
-                    }else{
+                    if (oldTrans != null) {
                         changedTrans.setId(oldTrans.getId());
                     }
                     changedTrans.setAmount(amount);
@@ -1,15 +1,25 @@
 package com.csontaka.transaction_record_app.gui;
 
-import com.csontaka.transaction_record_app.controller.AssetController;
-import com.csontaka.transaction_record_app.controller.PeriodController;
-import com.csontaka.transaction_record_app.entity.Asset;
-import com.csontaka.transaction_record_app.entity.Period;
-import com.csontaka.transaction_record_app.entity.Transaction;
-import java.sql.SQLException;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.dao.TransactionQuery;
+import com.csontaka.transaction_record_app.entity.AssetType;
+import com.csontaka.transaction_record_app.entity.TransactionRow;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
 import javax.swing.table.AbstractTableModel;
 
 /**
@@ -18,79 +28,353 @@ import javax.swing.table.AbstractTableModel;
  * {@link com.csontaka.transaction_record_app.gui.TransactionTablePanel}'s
  * JTable member.
  *
+ * <p>
+ * The model only knows the number of the transactions and loads them page by
+ * page on a background thread when the table asks for their rows. A page is
+ * found from the last row of the closest loaded page before it: the query
+ * continues after its sort value and id, and skips the rows of the pages in
+ * between with an offset. The pages after the shown one are loaded in
+ * advance, so scrolling continues from the page before. A jump far ahead of
+ * every loaded page, like dragging the scroll bar to the end, makes the
+ * database read the skipped rows once. Only the recently used pages are kept,
+ * so the memory use does not depend on the number of transactions. A row of a
+ * page that is not loaded yet is shown empty, and a page that failed to load
+ * is requested again when its rows are shown.</p>
+ *
+ * <p>
+ * The transactions are ordered by the database, by id unless
+ * {@link #setSort(int, boolean)} chose another column, see
+ * {@link com.csontaka.transaction_record_app.dao.TransactionQuery.SortColumn}.
+ * The {@link com.csontaka.transaction_record_app.gui.QueryRowSorter} lets the
+ * header of the table change the order.</p>
+ *
  * @author Adrienn Csontak
  */
 public class TransactionTableModel extends AbstractTableModel {
 
+    /**
+     * The number of rows loaded together.
+     */
+    public static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 50;
+    private static final int PREFETCH_PAGES = 2;
+
     private final String[] COL_NAMES = {"Id", "Date", "Name", "Price", "Amount"};
+    private final Class<?>[] COL_CLASSES = {Integer.class, YearMonth.class,
+        String.class, Integer.class, Integer.class};
+    private final TransactionQuery.SortColumn[] COL_SORT_COLUMNS = {
+        TransactionQuery.SortColumn.ID, TransactionQuery.SortColumn.DATE,
+        TransactionQuery.SortColumn.NAME, TransactionQuery.SortColumn.PRICE,
+        TransactionQuery.SortColumn.AMOUNT};
     private final Locale LOCAL = new Locale("en", "UK");
-    private final DecimalFormat DECIMAL_FORMAT = (DecimalFormat) NumberFormat.getNumberInstance(LOCAL);
-    private PeriodController perController;
-    private AssetController assetController;
-    private List<Transaction> transactions;
+    private final TransactionController transController;
+    private final Map<Integer, List<TransactionRow>> pages;
+    private final TreeMap<Integer, TransactionRow> lastRows = new TreeMap<>();
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private final Map<Integer, Integer> rowsById = new HashMap<>();
+    private TransactionQuery query;
+    private int rowCount;
+    private int generation;
+
+    /**
+     * Construct a TransactionTableModel that loads the transactions of the
+     * specified asset type through the specified controller. The model shows
+     * every transaction of the asset type until
+     * {@link #setQuery(TransactionQuery)} is called.
+     *
+     * @param transController A <code>TransactionController</code> object to
+     * load the pages with.
+     * @param assetType The <code>AssetType</code> of the transactions' assets.
+     */
+    public TransactionTableModel(TransactionController transController, AssetType assetType) {
+        this.transController = transController;
+        this.query = new TransactionQuery(assetType);
+        this.pages = new LinkedHashMap<Integer, List<TransactionRow>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<TransactionRow>> eldest) {
+                if (size() > MAX_CACHED_PAGES) {
+                    forgetRows(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Sets the filters of the shown transactions and reloads the model. The
+     * model keeps a copy of the query, so later changes of the query do not
+     * affect it. The order chosen by {@link #setSort(int, boolean)} is kept.
+     *
+     * @param query A <code>TransactionQuery</code> object describing the
+     * filters of the shown transactions.
+     */
+    public void setQuery(TransactionQuery query) {
+        TransactionQuery sorted = new TransactionQuery(query);
+        sorted.setSortColumn(this.query.getSortColumn());
+        sorted.setDescending(this.query.isDescending());
+        this.query = sorted;
+        reload();
+    }
 
     /**
-     * Construct a TransactionTableModel with specified list of transactions,
-     * <code>AssetController</code> object and <code>PeriodController</code>
-     * object.
+     * Gets a copy of the query of the shown transactions, with their filters
+     * and order.
      *
-     * @param transactions A List of <code>Transaction</code> objects.
-     * @param assetController An <code>AssetController</code> object to create a
-     * connection with the <code>AssetRepository</code>.
-     * @param perController A <code>PeriodController</code> object to create a
-     * connection with the <code>PeriodRepository</code>.
+     * @return A <code>TransactionQuery</code> object.
      */
-    public TransactionTableModel(List<Transaction> transactions,
-            AssetController assetController, PeriodController perController) {
-        DECIMAL_FORMAT.applyPattern("##0.00");
-        this.assetController = assetController;
-        this.perController = perController;
-        this.transactions = transactions;
+    public TransactionQuery getQuery() {
+        return new TransactionQuery(query);
     }
 
     /**
-     * Inserts a <code>Transaction</code> object to the List class member and
-     * invokes the fireTableRowsInserted method of the
-     * <code>AbstractTableModel</code>.
+     * Orders the transactions by the specified column and reloads the model.
      *
-     * @param t A <code>Transaction</code> object to add to the List object.
+     * @param column An int containing the index of the column.
+     * @param descending True for descending, false for ascending order.
      */
-    public void addTransaction(Transaction t) {
-        transactions.add(t);
-        int row = transactions.size() - 1;
+    public void setSort(int column, boolean descending) {
+        query.setSortColumn(COL_SORT_COLUMNS[column]);
+        query.setDescending(descending);
+        reload();
+    }
+
+    /**
+     * Gets the index of the column the transactions are ordered by.
+     *
+     * @return An int containing the index of the column.
+     */
+    public int getSortColumn() {
+        return Arrays.asList(COL_SORT_COLUMNS).indexOf(query.getSortColumn());
+    }
+
+    /**
+     * Gets whether the transactions are in descending order.
+     *
+     * @return True if the order is descending, false if ascending.
+     */
+    public boolean isSortDescending() {
+        return query.isDescending();
+    }
+
+    /**
+     * Drops the loaded pages and counts the transactions again on a
+     * background thread. The table is notified when the count arrives.
+     */
+    public void reload() {
+        generation++;
+        pages.clear();
+        lastRows.clear();
+        loadingPages.clear();
+        rowsById.clear();
+        onEdt(transController.countAsync(query), count -> {
+            rowCount = count;
+            fireTableDataChanged();
+        });
+    }
+
+    /**
+     * Appends a <code>TransactionRow</code> object to the end of the model if
+     * it passes the filters and invokes the fireTableRowsInserted method of
+     * the <code>AbstractTableModel</code>. A new transaction has the highest
+     * id, so its place is after every loaded row. The model is reloaded if
+     * the transactions are not ordered by ascending id.
+     *
+     * @param t A <code>TransactionRow</code> object to add to the model.
+     */
+    public void addTransaction(TransactionRow t) {
+        if (!matchesFilter(t)) {
+            return;
+        }
+        if (query.getSortColumn() != TransactionQuery.SortColumn.ID || query.isDescending()) {
+            reload();
+            return;
+        }
+        int row = rowCount;
+        rowCount++;
+        int page = row / PAGE_SIZE;
+        List<TransactionRow> rows = pages.get(page);
+        if (rows != null && rows.size() == row % PAGE_SIZE) {
+            rows.add(t);
+            lastRows.put(page, t);
+            rowsById.put(t.getId(), row);
+        }
         fireTableRowsInserted(row, row);
+    }
 
+    /**
+     * Replaces the loaded <code>TransactionRow</code> object with the same id
+     * and invokes the fireTableRowsUpdated method of the
+     * <code>AbstractTableModel</code>. A transaction that does not pass the
+     * filters any more is removed from the model. A transaction whose page is
+     * not loaded is read with its page. The model is reloaded if the value the
+     * transactions are ordered by changed, because the row moves.
+     *
+     * @param t A <code>TransactionRow</code> object containing the changed
+     * values.
+     */
+    public void updateTransaction(TransactionRow t) {
+        if (!matchesFilter(t)) {
+            deleteFromModel(t.getId());
+            return;
+        }
+        Integer row = rowsById.get(t.getId());
+        if (row == null) {
+            return;
+        }
+        List<TransactionRow> rows = pages.get(row / PAGE_SIZE);
+        TransactionQuery.SortColumn sortColumn = query.getSortColumn();
+        if (!sortColumn.valueOf(rows.get(row % PAGE_SIZE)).equals(sortColumn.valueOf(t))) {
+            reload();
+            return;
+        }
+        rows.set(row % PAGE_SIZE, t);
+        fireTableRowsUpdated(row, row);
     }
 
     /**
-     * Removes a <code>Transaction</code> object to the List class member and
-     * invokes the fireTableRowsDeleted method of the
-     * <code>AbstractTableModel</code>.
+     * Removes the <code>TransactionRow</code> object with the specified id
+     * from the model and invokes the fireTableRowsDeleted method of the
+     * <code>AbstractTableModel</code>. The row is found by its id, and the
+     * pages from its page on are dropped, because their rows move, and loaded
+     * again when they are shown. The model is reloaded if the row is not
+     * loaded.
      *
-     * @param transToDelete A <code>Transaction</code> object to remove from the
-     * list.
+     * @param transId An Integer containing the id of the transaction to
+     * remove from the model.
      */
-    public void deleteFromModel(Transaction transToDelete) {
-        int row = -1;
-        for (int i = 0; i < transactions.size() && row < 0; i++) {
-            if (transactions.get(i).getId().equals(transToDelete.getId())) {
-                row = i;
+    public void deleteFromModel(Integer transId) {
+        Integer row = rowsById.get(transId);
+        if (row == null) {
+            reload();
+            return;
+        }
+        int page = row / PAGE_SIZE;
+        generation++;
+        loadingPages.clear();
+        for (Iterator<Map.Entry<Integer, List<TransactionRow>>> it = pages.entrySet().iterator();
+                it.hasNext();) {
+            Map.Entry<Integer, List<TransactionRow>> entry = it.next();
+            if (entry.getKey() >= page) {
+                forgetRows(entry.getValue());
+                it.remove();
             }
         }
-        transactions.remove(row);
+        lastRows.tailMap(page, true).clear();
+        rowCount--;
         fireTableRowsDeleted(row, row);
     }
 
     /**
-     * Sets the list of transactions to the received list. Invokes the
-     * fireTableDataChanged method of the <code>AbstractTableModel</code>.
+     * Gets the <code>TransactionRow</code> object shown in the specified row
+     * and requests the loading of its page and the pages after it when they
+     * are not loaded.
      *
-     * @param trans A List of <code>Transaction</code> object containing the
-     * updated values.
+     * @param row An int containing the index of the row in the model.
+     * @return A <code>TransactionRow</code> object, or null if its page is not
+     * loaded yet.
      */
-    public void updateTransactions(List<Transaction> trans) {
-        this.transactions = trans;
-        fireTableDataChanged();
+    public TransactionRow getRow(int row) {
+        int page = row / PAGE_SIZE;
+        List<TransactionRow> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+        }
+        for (int i = 1; i <= PREFETCH_PAGES; i++) {
+            requestPage(page + i);
+        }
+        int index = row % PAGE_SIZE;
+        if (rows == null || index >= rows.size()) {
+            return null;
+        }
+        return rows.get(index);
+    }
+
+    private void requestPage(int page) {
+        if (page * PAGE_SIZE >= rowCount || pages.containsKey(page)
+                || !loadingPages.add(page)) {
+            return;
+        }
+        TransactionRow after = null;
+        int offset = page * PAGE_SIZE;
+        Map.Entry<Integer, TransactionRow> anchor = lastRows.lowerEntry(page);
+        if (anchor != null) {
+            after = anchor.getValue();
+            offset = (page - anchor.getKey() - 1) * PAGE_SIZE;
+        }
+        TransactionQuery pageQuery = new TransactionQuery(query);
+        pageQuery.continueAfter(after);
+        pageQuery.setOffset(offset);
+        pageQuery.setLimit(PAGE_SIZE);
+        onEdt(transController.findAsync(pageQuery), rows -> {
+                    loadingPages.remove(page);
+                    pages.put(page, rows);
+                    for (int i = 0; i < rows.size(); i++) {
+                        rowsById.put(rows.get(i).getId(), page * PAGE_SIZE + i);
+                    }
+                    if (!rows.isEmpty()) {
+                        lastRows.put(page, rows.get(rows.size() - 1));
+                        int first = page * PAGE_SIZE;
+                        int last = Math.min(first + rows.size(), rowCount) - 1;
+                        if (first <= last) {
+                            fireTableRowsUpdated(first, last);
+                        }
+                    }
+                }, () -> loadingPages.remove(page));
+    }
+
+    private void forgetRows(List<TransactionRow> rows) {
+        for (TransactionRow row : rows) {
+            rowsById.remove(row.getId());
+        }
+    }
+
+    private <T> void onEdt(CompletableFuture<T> future, Consumer<T> action) {
+        onEdt(future, action, () -> {
+        });
+    }
+
+    /**
+     * Runs the action with the result of the future on the Event Dispatch
+     * Thread, or the failure action if the future failed, unless the model
+     * was reloaded meanwhile.
+     */
+    private <T> void onEdt(CompletableFuture<T> future, Consumer<T> action, Runnable failed) {
+        int loadGeneration = generation;
+        future.whenCompleteAsync((result, ex) -> {
+            if (loadGeneration != generation) {
+                return;
+            }
+            if (ex != null) {
+                Logger.getLogger(TransactionTableModel.class.getName()).log(Level.SEVERE, null, ex);
+                failed.run();
+            } else {
+                action.accept(result);
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    private boolean matchesFilter(TransactionRow t) {
+        if (query.getFromDate() != null && t.getDate().isBefore(query.getFromDate())) {
+            return false;
+        }
+        if (query.getToDate() != null && t.getDate().isAfter(query.getToDate())) {
+            return false;
+        }
+        if (!inRange(t.getPrice(), query.getMinPrice(), query.getMaxPrice())
+                || !inRange(t.getAmount(), query.getMinAmount(), query.getMaxAmount())) {
+            return false;
+        }
+        String namePrefix = query.getNamePrefix();
+        if (namePrefix != null && !namePrefix.isEmpty()) {
+            return t.getAssetName().toLowerCase(LOCAL)
+                    .startsWith(namePrefix.toLowerCase(LOCAL));
+        }
+        return true;
+    }
+
+    private boolean inRange(int value, Integer min, Integer max) {
+        return (min == null || value >= min) && (max == null || value <= max);
     }
 
     @Override
@@ -100,22 +384,12 @@ public class TransactionTableModel extends AbstractTableModel {
 
     @Override
     public Class<?> getColumnClass(int columnIndex) {
-        if (transactions.isEmpty()) {
-            return Object.class;
-        }
-        return getValueAt(0, columnIndex).getClass();
-
+        return COL_CLASSES[columnIndex];
     }
 
     @Override
     public int getRowCount() {
-        int size;
-        if (transactions == null) {
-            size = 0;
-        } else {
-            size = transactions.size();
-        }
-        return size;
+        return rowCount;
     }
 
     @Override
@@ -126,30 +400,18 @@ public class TransactionTableModel extends AbstractTableModel {
     @Override
     public Object getValueAt(int row, int col) {
         Object temp = null;
-        Transaction t = transactions.get(row);
+        TransactionRow t = getRow(row);
+        if (t == null) {
+            return null;
+        }
         if (col == 0) {
             temp = t.getId();
         } else if (col == 1) {
-            Integer periodId = t.getPeriodId();
-            Period p = null;
-            try {
-                p = perController.findById(periodId);
-            } catch (SQLException ex) {
-                System.out.println(ex.getMessage());
-            }
-            temp = p.getDate();
+            temp = t.getDate();
         } else if (col == 2) {
-            try {
-                Integer assetId = t.getAssetId();
-                Asset a = assetController.findById(assetId);
-                temp = a.getName() + "(" + a.getId() + ")";
-            } catch (SQLException ex) {
-                System.out.println(ex.getMessage());
-            }
+            temp = t.getAssetName() + "(" + t.getAssetId() + ")";
         } else if (col == 3) {
-            double price = t.getPrice() / 100.0;
-            String priceStr = DECIMAL_FORMAT.format(price);
-            temp = priceStr;
+            temp = t.getPrice();
         } else if (col == 4) {
             temp = t.getAmount();
         }
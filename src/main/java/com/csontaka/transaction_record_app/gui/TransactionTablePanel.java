@@ -1,9 +1,15 @@
 package com.csontaka.transaction_record_app.gui;
 
 import com.csontaka.transaction_record_app.controller.*;
+import com.csontaka.transaction_record_app.dao.TransactionQuery;
 import com.csontaka.transaction_record_app.entity.*;
 import com.csontaka.transaction_record_app.exporting.TableExport;
 import com.csontaka.transaction_record_app.exporting.ExportFactory;
+import com.csontaka.transaction_record_app.exporting.ExportService;
+import com.csontaka.transaction_record_app.importing.CsvImport;
+import com.csontaka.transaction_record_app.importing.ImportJob;
+import com.csontaka.transaction_record_app.importing.ImportService;
+import com.csontaka.transaction_record_app.importing.SnapshotImport;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -17,14 +23,13 @@ import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.io.File;
-import java.sql.SQLException;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import java.nio.file.Path;
 import java.time.YearMonth;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.BorderFactory;
 import javax.swing.Icon;
 import javax.swing.JButton;
@@ -36,12 +41,14 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
-import javax.swing.RowFilter;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.filechooser.FileSystemView;
-import javax.swing.table.TableRowSorter;
 
 /**
  * Contains a JTable to display information about transactions and buttons to
@@ -56,13 +63,13 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
     private AssetController assetController;
     private PeriodController perController;
     private TransactionController transController;
+    private UnitOfWork unitOfWork;
     private AssetType assetType;
 
     private JLabel title;
     private JPanel titlePanel;
     private JTable table;
     private TransactionTableModel tableModel;
-    private TableRowSorter<TransactionTableModel> sorter;
     private JPanel buttonPanel;
     private JButton addBtn;
     private JButton updateBtn;
@@ -71,13 +78,18 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
     private FormListener deleteFormListener;
     private JComboBox timeCombo;
     private JComboBox exportCombo;
+    private JButton importBtn;
+    private FormListener importFormListener;
     private JTextField searchField;
     private JButton searchBtn;
-    private final Locale LOCALE = new Locale("en", "UK");
-    private final DecimalFormat DECIMAL_FORMAT = (DecimalFormat) NumberFormat.getNumberInstance(LOCALE);
+    private Timer searchTimer;
+    private TransactionQuery query;
     private final String[] TIME_COMBO_OPTIONS = {"all", "past 1 year",
         "past 6 months", "past 3 months", "past 2 months", "this month"};
-    private final String[] EXPORT_COMBO_OPTIONS = {"Export", "csv", "pdf"};
+    private final String[] EXPORT_COMBO_OPTIONS = {"Export", "csv", "pdf", "all"};
+    private final String[] ALL_EXPORT_TYPES = {"csv", "pdf", "trs"};
+    private final int MAX_SHOWN_REJECTIONS = 10;
+    private final int SEARCH_DELAY = 300;
 
     /**
      * Constructs a SummaryTablePanel with specified
@@ -90,82 +102,37 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
      * connection with the <code>PeriodRepository</code>.
      * @param transController A <code>TransactionController</code> object to
      * create a connection with the <code>TransactionRepository</code>.
+     * @param unitOfWork A <code>UnitOfWork</code> object grouping the calls of
+     * the controllers in one database transaction.
      * @param assetType The <code>AssetType</code>s enum that defines the type
      * of assets.
      */
     public TransactionTablePanel(AssetController assetController,
             PeriodController perController,
             TransactionController transController,
+            UnitOfWork unitOfWork,
             AssetType assetType) {
         this.assetController = assetController;
         this.perController = perController;
         this.transController = transController;
+        this.unitOfWork = unitOfWork;
         this.assetType = assetType;
 
-        List<Transaction> trans = null;
-        try {
-            if (assetType.equals(assetType.PRODUCT)) {
-                trans = transController.findAllIncome();
-            } else {
-                trans = transController.findAllExpense();
-            }
-
-        } catch (SQLException ex) {
-            System.out.println(ex.getMessage());
-        }
-        DECIMAL_FORMAT.applyPattern("##0.00");
         setLayout(new BorderLayout());
-        setUpComponents(trans);
+        setUpComponents();
+        reload();
     }
 
-    private void newDateFilter(YearMonth startDate) {
-        RowFilter<TransactionTableModel, Integer> dateFilter = new RowFilter<TransactionTableModel, Integer>() {
-            @Override
-            public boolean include(RowFilter.Entry<? extends TransactionTableModel, ? extends Integer> entry) {
-                TransactionTableModel tableModel = entry.getModel();
-                int i = entry.getIdentifier();
-                YearMonth ym = (YearMonth) tableModel.getValueAt(i, 1);
-                if (ym.isAfter(startDate)) {
-                    return true;
-                }
-                return false;
-            }
-        };
-        sorter.setRowFilter(dateFilter);
-    }
-
-    private void newSearchFilter(String pattern) {
-        RowFilter<TransactionTableModel, Integer> dateFilter = new RowFilter<TransactionTableModel, Integer>() {
-            @Override
-            public boolean include(RowFilter.Entry<? extends TransactionTableModel, ? extends Integer> entry) {
-                TransactionTableModel tableModel = entry.getModel();
-                int i = entry.getIdentifier();
-                String id = tableModel.getValueAt(i, 0).toString();
-                String date = tableModel.getValueAt(i, 1).toString();
-                String name = (String) tableModel.getValueAt(i, 2);
-                String price = tableModel.getValueAt(i, 3).toString();
-                String amount = tableModel.getValueAt(i, 4).toString();
-                if (id.contains(pattern) || date.contains(pattern) || name.contains(pattern)
-                        || price.contains(pattern) || amount.contains(pattern)) {
-                    return true;
-                }
-                return false;
-            }
-        };
-        sorter.setRowFilter(dateFilter);
-    }
-
-    private void noFilter() {
-        RowFilter<TransactionTableModel, Integer> dateFilter = new RowFilter<TransactionTableModel, Integer>() {
-            @Override
-            public boolean include(RowFilter.Entry<? extends TransactionTableModel, ? extends Integer> entry) {
-                return true;
-            }
-        };
-        sorter.setRowFilter(dateFilter);
+    /**
+     * Reloads the table with the transactions of the panel's asset type that
+     * pass the chosen time and search filters. The rows are loaded page by
+     * page on a background thread.
+     */
+    public void reload() {
+        tableModel.setQuery(query);
     }
 
-    private void setUpComponents(List<Transaction> trans) {
+    private void setUpComponents() {
         Font lucida14 = new Font("Lucida Sans Unicode", 0, 14);
 
         title = new JLabel("");
@@ -183,6 +150,16 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
         exportCombo.setSelectedIndex(0);
         exportCombo.addItemListener(this);
 
+        importBtn = new JButton("Import");
+        importBtn.setPreferredSize(new Dimension(75, 26));
+        importBtn.setToolTipText("Import transactions from a csv file.");
+        importBtn.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                doImportBtnAction();
+            }
+        });
+
         searchField = new JTextField(10);
         searchField.setFont(lucida14);
         searchField.setBorder(null);
@@ -192,14 +169,14 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
         searchBtn.setBorder(BorderFactory.createMatteBorder(0, 1, 0, 0, new Color(112, 128, 160)));
         searchBtn.setBackground(Color.LIGHT_GRAY);
 
-        tableModel = new TransactionTableModel(trans,
-                assetController, perController);
-        sorter = new TableRowSorter<>(tableModel);
+        tableModel = new TransactionTableModel(transController, assetType);
         table = new JTable(tableModel);
-        table.setRowSorter(sorter);
-        newDateFilter(YearMonth.now().minusMonths(1));
+        table.setRowSorter(new QueryRowSorter(tableModel));
+        query = new TransactionQuery(assetType);
+        query.setFromDate(YearMonth.now());
         table.getColumnModel().getColumn(0).setMaxWidth(50);
         table.getColumnModel().getColumn(2).setMinWidth(120);
+        table.getColumnModel().getColumn(3).setCellRenderer(new MoneyCellRenderer());
 
         JScrollPane scrollpane = new JScrollPane(table);
 
@@ -270,6 +247,7 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
         JPanel controlPanel = new JPanel(new FlowLayout());
         controlPanel.add(timeCombo);
         controlPanel.add(exportCombo);
+        controlPanel.add(importBtn);
 
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
         searchPanel.setPreferredSize(new Dimension(156, 26));
@@ -287,35 +265,46 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
     }
 
     /**
-     * Invokes the updateTransactions method of the
+     * Invokes the deleteFromModel method of the
      * <code>TransactionTableModel</code>.
      *
-     * @param trans A List of <code>Transaction</code> object to refresh the
-     * table with.
+     * @param transId An Integer containing the id of the transaction to
+     * delete.
      */
-    public void refresh(List<Transaction> trans) {
-        tableModel.updateTransactions(trans);
+    private void deleteFromTable(Integer transId) {
+        tableModel.deleteFromModel(transId);
     }
 
     /**
-     * Invokes the deleteFromModel method of the
-     * <code>TransactionTableModel</code>.
+     * Loads the row of the saved transaction and invokes the addTransaction
+     * method of the <code>TransactionTableModel</code>.
      *
-     * @param transaction An <code>Transaction</code> object to delete.
+     * @param transaction The <code>Transaction</code> object to insert to the
+     * table.
      */
-    private void deleteFromTable(Transaction transaction) {
-        tableModel.deleteFromModel(transaction);
+    public void insertToTable(Transaction transaction) {
+        Utils.publish(transController.findRowByIdAsync(transaction.getId()), this, row -> {
+            if (row != null) {
+                tableModel.addTransaction(row);
+            }
+        });
     }
 
     /**
-     * Invokes the addTransaction method of the
-     * <code>TransactionTableModel</code>.
+     * Loads the row of the changed transaction and invokes the
+     * updateTransaction method of the <code>TransactionTableModel</code>.
      *
-     * @param transaction The <code>Transaction</code> object to insert to the
+     * @param transaction The <code>Transaction</code> object to update in the
      * table.
      */
-    public void insertToTable(Transaction transaction) {
-        tableModel.addTransaction(transaction);
+    public void updateInTable(Transaction transaction) {
+        Utils.publish(transController.findRowByIdAsync(transaction.getId()), this, row -> {
+            if (row != null) {
+                tableModel.updateTransaction(row);
+            } else {
+                tableModel.deleteFromModel(transaction.getId());
+            }
+        });
     }
 
     /**
@@ -347,6 +336,17 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
         this.deleteFormListener = deleteFormListener;
     }
 
+    /**
+     * Sets the importFormListener member of the class. It is notified after
+     * transactions were imported from a file.
+     *
+     * @param importFormListener A FormListener to set the importFormListener
+     * member of the class.
+     */
+    public void setImportFormListener(FormListener importFormListener) {
+        this.importFormListener = importFormListener;
+    }
+
     private void addActionListenerToBtns() {
         addBtn.addActionListener(new ActionListener() {
 
@@ -368,7 +368,7 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
                     showWarning();
                 } else {
                     FormEvent event = getSelectedRowValues(row);
-                    if (saveFormListener != null) {
+                    if (event != null && saveFormListener != null) {
                         saveFormListener.formEventOccured(event);
                     }
                 }
@@ -386,11 +386,33 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
         ActionListener searchAction = new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String pattern = searchField.getText();
-                newSearchFilter(pattern);
+                searchTimer.stop();
+                String namePrefix = searchField.getText().trim();
+                if (!namePrefix.equals(query.getNamePrefix())) {
+                    query.setNamePrefix(namePrefix);
+                    reload();
+                }
             }
         };
 
+        searchTimer = new Timer(SEARCH_DELAY, searchAction);
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
         searchField.addActionListener(searchAction);
         searchBtn.addActionListener(searchAction);
     }
@@ -404,26 +426,26 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
                     "Are you sure you want to delete this item?", "Confirm delete", JOptionPane.OK_CANCEL_OPTION);
             if (deleteConfirm == JOptionPane.OK_OPTION) {
                 Integer transId = (Integer) table.getValueAt(row, 0);
-                Asset asset = new Asset();
-                try {
-                    Transaction trans = transController.findById(transId);
-                    boolean success = transController.delete(transId);
-                    if (success) {
-                        deleteFromTable(trans);
-                        Integer assetId = trans.getAssetId();
-                        asset = assetController.findById(assetId);
-                        asset.setId(assetId);
-                        asset.setStock(asset.getStock() + trans.getAmount());
-                    }
-                } catch (SQLException ex) {
-                    Logger.getLogger(TransactionTablePanel.class.getName()).log(Level.SEVERE, null, ex);
-                }
-
-                FormEvent event = new FormEvent(this);
-                event.setAsset(asset);
-                if (deleteFormListener != null) {
-                    deleteFormListener.formEventOccured(event);
+                if (transId == null) {
+                    return;
                 }
+                CompletableFuture<Asset> restored = DataAccessExecutor.supply(() -> {
+                    Transaction trans = transController.deleteWithStock(transId);
+                    if (trans != null) {
+                        return assetController.refresh(trans.getAssetId());
+                    }
+                    return null;
+                });
+                Utils.publish(restored, this, asset -> {
+                    if (asset != null) {
+                        deleteFromTable(transId);
+                        FormEvent event = new FormEvent(this);
+                        event.setAsset(asset);
+                        if (deleteFormListener != null) {
+                            deleteFormListener.formEventOccured(event);
+                        }
+                    }
+                });
             }
         }
     }
@@ -435,19 +457,15 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
     private FormEvent getSelectedRowValues(int row) {
         FormEvent formEvent = new FormEvent(this);
 
-        Integer transId = (Integer) table.getModel().getValueAt(row, 0);
-        YearMonth date = (YearMonth) table.getModel().getValueAt(row, 1);
-        String assetNameAndId = (String) table.getModel().getValueAt(row, 2);
-        int idStart = assetNameAndId.indexOf("(") + 1;
-        Integer assetId = Integer.parseInt(assetNameAndId.substring(idStart,
-                assetNameAndId.length() - 1));
-
-        String sep = DECIMAL_FORMAT.getDecimalFormatSymbols().getDecimalSeparator() + "";
-        String priceStr = (String) table.getModel().getValueAt(row, 3);
-        priceStr = priceStr.replace(sep, "");
-
-        int price = Integer.parseInt(priceStr);
-        int amount = (int) table.getModel().getValueAt(row, 4);
+        TransactionRow selected = tableModel.getRow(table.convertRowIndexToModel(row));
+        if (selected == null) {
+            return null;
+        }
+        Integer transId = selected.getId();
+        YearMonth date = selected.getDate();
+        Integer assetId = selected.getAssetId();
+        int price = selected.getPrice();
+        int amount = selected.getAmount();
 
         Asset tempAsset = new Asset();
         tempAsset.setId(assetId);
@@ -479,42 +497,39 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
 
     private void doTimeComboEvent() {
         YearMonth now = YearMonth.now();
-        YearMonth startDate = null;
         int index = timeCombo.getSelectedIndex();
-        String regex = null;
 
         switch (index) {
             case 1:
-                startDate = now.minusYears(1).minusMonths(1);
-                newDateFilter(startDate);
+                query.setFromDate(now.minusYears(1));
                 break;
             case 2:
-                startDate = now.minusMonths(7);
-                newDateFilter(startDate);
+                query.setFromDate(now.minusMonths(6));
                 break;
             case 3:
-                startDate = now.minusMonths(4);
-                newDateFilter(startDate);
+                query.setFromDate(now.minusMonths(3));
                 break;
             case 4:
-                startDate = now.minusMonths(3);
-                newDateFilter(startDate);
+                query.setFromDate(now.minusMonths(2));
                 break;
             case 5:
-                startDate = now.minusMonths(1);
-                newDateFilter(startDate);
+                query.setFromDate(now);
                 break;
 
             default:
-                noFilter();
+                query.setFromDate(null);
         }
+        reload();
     }
 
     private void doExportComboEvent() {
         String choosen = (String) exportCombo.getSelectedItem();
         choosen = choosen.toLowerCase();
 
-        if (!choosen.equalsIgnoreCase(EXPORT_COMBO_OPTIONS[0])) {
+        if (choosen.equals(EXPORT_COMBO_OPTIONS[3])) {
+            doExportAll();
+            exportCombo.setSelectedIndex(0);
+        } else if (!choosen.equalsIgnoreCase(EXPORT_COMBO_OPTIONS[0])) {
             JFileChooser jfc = new JFileChooser(FileSystemView.getFileSystemView().getHomeDirectory());
             jfc.setDialogTitle("Export");
             jfc.setAcceptAllFileFilterUsed(false);
@@ -532,13 +547,92 @@ public class TransactionTablePanel extends JPanel implements ItemListener {
             File file = getFileFromFileChooser(jfc, extension);
             if (file != null) {
                 TableExport export = ExportFactory.getExport(choosen);
-                export.export(table, file.getAbsolutePath());
+                String fileName = file.getAbsolutePath();
+                ExportMonitor monitor = new ExportMonitor(this, file.getName());
+                monitor.watch(ExportService.exportTransactions(export, transController,
+                        tableModel.getQuery(), fileName, monitor));
             }
             exportCombo.setSelectedIndex(0);
         }
 
     }
 
+    /**
+     * Exports the transactions to a csv, a pdf and a binary trs file with the
+     * chosen name from one read of the database.
+     */
+    private void doExportAll() {
+        JFileChooser jfc = new JFileChooser(FileSystemView.getFileSystemView().getHomeDirectory());
+        jfc.setDialogTitle("Export to csv, pdf and trs");
+        if (jfc.showSaveDialog(getRootPane()) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        String path = jfc.getSelectedFile().getAbsolutePath();
+        for (String type : ALL_EXPORT_TYPES) {
+            if (path.toLowerCase().endsWith("." + type)) {
+                path = path.substring(0, path.length() - type.length() - 1);
+            }
+        }
+        Map<String, String> fileNames = new LinkedHashMap<>();
+        boolean exists = false;
+        for (String type : ALL_EXPORT_TYPES) {
+            String fileName = path + "." + type;
+            fileNames.put(type, fileName);
+            exists |= new File(fileName).exists();
+        }
+        if (exists) {
+            int overWriteConfirm = JOptionPane.showConfirmDialog(getRootPane(),
+                    "Some of the files already exist. Do you want to overwrite them?",
+                    "Confirm", JOptionPane.YES_NO_OPTION);
+            if (overWriteConfirm == JOptionPane.NO_OPTION) {
+                return;
+            }
+        }
+        ExportMonitor monitor = new ExportMonitor(this, new File(path).getName());
+        monitor.watch(ExportService.exportTransactions(fileNames, transController,
+                tableModel.getQuery(), monitor));
+    }
+
+    private void doImportBtnAction() {
+        JFileChooser jfc = new JFileChooser(FileSystemView.getFileSystemView().getHomeDirectory());
+        jfc.setDialogTitle("Import");
+        jfc.setAcceptAllFileFilterUsed(false);
+        jfc.addChoosableFileFilter(new FileNameExtensionFilter("CSV(*.csv)", "csv"));
+        jfc.addChoosableFileFilter(new FileNameExtensionFilter("Transaction rows(*.trs)", "trs"));
+        if (jfc.showOpenDialog(getRootPane()) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = jfc.getSelectedFile().toPath();
+        boolean rows = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".trs");
+        CsvImport csvImport = new CsvImport(assetController, perController,
+                transController, unitOfWork, assetType);
+        SnapshotImport snapshotImport = new SnapshotImport(assetController, perController,
+                transController, unitOfWork);
+        ImportMonitor monitor = new ImportMonitor(this, file.getFileName().toString());
+        ImportJob job = rows
+                ? ImportService.importRows(snapshotImport, file, assetType, monitor)
+                : ImportService.importTransactions(csvImport, file, monitor);
+        monitor.watch(job);
+        // A cancelled import keeps the batches saved before, so the table is
+        // loaded again whether the import finished or not.
+        job.getResult().whenCompleteAsync((report, ex) -> {
+            reload();
+            if (importFormListener != null) {
+                importFormListener.formEventOccured(new FormEvent(this));
+            }
+            if (report == null) {
+                return;
+            }
+            StringBuilder message = new StringBuilder(report.toString());
+            List<String> rejections = report.getRejections();
+            for (int i = 0; i < rejections.size() && i < MAX_SHOWN_REJECTIONS; i++) {
+                message.append("\n").append(rejections.get(i));
+            }
+            JOptionPane.showMessageDialog(getRootPane(), message, "Import",
+                    JOptionPane.INFORMATION_MESSAGE);
+        }, SwingUtilities::invokeLater);
+    }
+
     private File getFileFromFileChooser(JFileChooser jfc, String extension) {
         File file = null;
         int option = jfc.showOpenDialog(getRootPane());
@@ -2,12 +2,18 @@ package com.csontaka.transaction_record_app.gui;
 
 import java.awt.Color;
 import java.awt.Component;
+import java.awt.Cursor;
 import java.awt.Font;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.border.BevelBorder;
 import javax.swing.border.Border;
 
@@ -78,4 +84,29 @@ public class Utils {
                 "Error", JOptionPane.WARNING_MESSAGE);
     }
 
+    /**
+     * Shows the wait cursor on the specified component until the specified
+     * background call is finished, then passes its result to the specified
+     * action on the Event Dispatch Thread. If the call failed, the exception
+     * is logged and the action is not invoked.
+     *
+     * @param <T> The type of the result of the call.
+     * @param future A <code>CompletableFuture</code> of the background call.
+     * @param component The <code>Component</code> that shows the loading
+     * state.
+     * @param action A <code>Consumer</code> using the result of the call.
+     */
+    public static <T> void publish(CompletableFuture<T> future,
+            Component component, Consumer<T> action) {
+        component.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        future.whenCompleteAsync((result, ex) -> {
+            component.setCursor(Cursor.getDefaultCursor());
+            if (ex != null) {
+                Logger.getLogger(component.getClass().getName()).log(Level.SEVERE, null, ex);
+            } else {
+                action.accept(result);
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
 }
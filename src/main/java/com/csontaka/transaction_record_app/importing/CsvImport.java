@@ -0,0 +1,350 @@
+package com.csontaka.transaction_record_app.importing;
+
+import com.csontaka.transaction_record_app.controller.AssetController;
+import com.csontaka.transaction_record_app.controller.PeriodController;
+import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.controller.UnitOfWork;
+import com.csontaka.transaction_record_app.entity.Asset;
+import com.csontaka.transaction_record_app.entity.AssetType;
+import com.csontaka.transaction_record_app.exporting.CsvExportImpl;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Imports transactions and assets of one asset type from csv files. The files
+ * are read line by line and the rows are saved in batches, so the memory use
+ * does not depend on the size of the file. The first line has to contain the
+ * column names, the values are separated by
+ * {@link com.csontaka.transaction_record_app.exporting.CsvExportImpl#separator}.
+ *
+ * <p>
+ * A transaction file needs the Date (yyyy-MM), Name, Price and Amount
+ * columns, so a file exported from a transaction table can be imported again.
+ * The Name can be the name of an existing asset or the exported "name(id)"
+ * form. An asset file needs the Name and Stock columns and may contain
+ * Feature and Material cost columns.</p>
+ *
+ * @author Adrienn Csontak
+ */
+public class CsvImport {
+
+    /**
+     * The number of rows saved together.
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    private final AssetController assetController;
+    private final PeriodController periodController;
+    private final TransactionController transController;
+    private final UnitOfWork unitOfWork;
+    private final AssetType assetType;
+
+    /**
+     * Creates a CsvImport for the specified asset type.
+     *
+     * @param assetController An <code>AssetController</code> object to reach
+     * the assets.
+     * @param periodController A <code>PeriodController</code> object to reach
+     * the periods.
+     * @param transController A <code>TransactionController</code> object to
+     * save the transactions.
+     * @param unitOfWork The <code>UnitOfWork</code> of the controllers, saving
+     * a batch of transactions together with the stock changes.
+     * @param assetType The <code>AssetType</code> of the imported assets and
+     * transactions.
+     */
+    public CsvImport(AssetController assetController, PeriodController periodController,
+            TransactionController transController, UnitOfWork unitOfWork,
+            AssetType assetType) {
+        this.assetController = assetController;
+        this.periodController = periodController;
+        this.transController = transController;
+        this.unitOfWork = unitOfWork;
+        this.assetType = assetType;
+    }
+
+    /**
+     * Imports the transactions of a csv file. A row is rejected if its asset
+     * is not found or there is not enough of it in stock, the same way as when
+     * a transaction is inserted in the form. The stock of the assets is
+     * decreased by the amount of the imported transactions in the database,
+     * in the same database transaction as the batch of transactions, so the
+     * stock changes made meanwhile are kept. The missing periods are created.
+     *
+     * @param file The Path of the csv file.
+     * @return An <code>ImportReport</code> object.
+     * @throws IOException If the file can not be read or has no header.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public ImportReport importTransactions(Path file) throws IOException, SQLException {
+        return importTransactions(file, ImportProgress.NONE);
+    }
+
+    /**
+     * Imports the transactions of a csv file like
+     * {@link #importTransactions(java.nio.file.Path)}, reporting the progress
+     * after every {@value #BATCH_SIZE} lines. The read bytes are counted from
+     * the characters of the lines, so they are only exact for ASCII files with
+     * single character line separators.
+     *
+     * @param file The Path of the csv file.
+     * @param progress The <code>ImportProgress</code> to notify.
+     * @return An <code>ImportReport</code> object.
+     * @throws IOException If the file can not be read or has no header.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public ImportReport importTransactions(Path file, ImportProgress progress)
+            throws IOException, SQLException {
+        ImportReport report = new ImportReport();
+        long start = System.nanoTime();
+
+        TransactionBatch batch = new TransactionBatch(assetController, periodController,
+                transController, unitOfWork, findAssets());
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<String, Integer> columns = readHeader(reader);
+            int dateCol = requireColumn(columns, "date");
+            int nameCol = requireColumn(columns, "name");
+            int priceCol = requireColumn(columns, "price");
+            int amountCol = requireColumn(columns, "amount");
+
+            String line;
+            long lineNumber = 1;
+            long bytesRead = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                bytesRead += line.length() + 1;
+                if (lineNumber % BATCH_SIZE == 0) {
+                    progress.bytesRead(bytesRead);
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                report.rowRead();
+                try {
+                    List<String> values = splitLine(line);
+                    YearMonth date = YearMonth.parse(value(values, dateCol));
+                    Asset asset = batch.findAsset(value(values, nameCol));
+                    int price = parseMoney(value(values, priceCol));
+                    int amount = Integer.parseInt(value(values, amountCol));
+                    batch.add(date, asset, price, amount);
+                    report.rowImported();
+                } catch (IllegalArgumentException | DateTimeParseException
+                        | ArithmeticException ex) {
+                    report.rowRejected(lineNumber, ex.getMessage());
+                }
+            }
+            batch.flush();
+            progress.bytesRead(bytesRead);
+        }
+
+        return finish(report, start, "transactions", file);
+    }
+
+    /**
+     * Imports the assets of a csv file. An asset with the name of an existing
+     * asset of the same type updates that asset, the others are inserted. The
+     * stock of an existing asset is changed by the difference from its stock
+     * read at the start, so the stock changes made meanwhile are kept.
+     *
+     * @param file The Path of the csv file.
+     * @return An <code>ImportReport</code> object.
+     * @throws IOException If the file can not be read or has no header.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public ImportReport importAssets(Path file) throws IOException, SQLException {
+        ImportReport report = new ImportReport();
+        long start = System.nanoTime();
+
+        Map<String, Asset> assetsByName = new HashMap<>();
+        for (Asset asset : findAssets()) {
+            assetsByName.put(asset.getName(), asset);
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<String, Integer> columns = readHeader(reader);
+            int nameCol = requireColumn(columns, "name");
+            int stockCol = requireColumn(columns, "stock");
+            Integer featureCol = columns.get("feature");
+            Integer costCol = columns.get("material cost");
+
+            Map<String, Asset> batch = new LinkedHashMap<>();
+            Map<Integer, Integer> stockChanges = new LinkedHashMap<>();
+            String line;
+            long lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                report.rowRead();
+                try {
+                    List<String> values = splitLine(line);
+                    String name = value(values, nameCol);
+                    if (name.isEmpty()) {
+                        throw new IllegalArgumentException("The name is empty.");
+                    }
+                    int stock = Integer.parseInt(value(values, stockCol));
+                    if (stock < 0) {
+                        throw new IllegalArgumentException("The stock can not be negative.");
+                    }
+
+                    Asset asset = assetsByName.get(name);
+                    if (asset == null) {
+                        asset = new Asset(name, "", assetType);
+                        assetsByName.put(name, asset);
+                    }
+                    if (featureCol != null) {
+                        asset.setFeature(value(values, featureCol));
+                    }
+                    if (costCol != null) {
+                        asset.setMaterialCost(parseMoney(value(values, costCol)));
+                    }
+                    if (asset.getId() != null) {
+                        stockChanges.merge(asset.getId(), stock - asset.getStock(),
+                                Integer::sum);
+                    }
+                    asset.setStock(stock);
+                    batch.put(name, asset);
+                    report.rowImported();
+                } catch (IllegalArgumentException | ArithmeticException ex) {
+                    report.rowRejected(lineNumber, ex.getMessage());
+                }
+
+                if (batch.size() >= BATCH_SIZE) {
+                    flushAssets(batch, stockChanges);
+                }
+            }
+            flushAssets(batch, stockChanges);
+        }
+
+        return finish(report, start, "assets", file);
+    }
+
+    private List<Asset> findAssets() throws SQLException {
+        if (assetType.equals(AssetType.PRODUCT)) {
+            return assetController.findAllProducts();
+        }
+        return assetController.findAllEquipment();
+    }
+
+    private void flushAssets(Map<String, Asset> batch, Map<Integer, Integer> stockChanges)
+            throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        unitOfWork.run(() -> {
+            assetController.saveAll(batch.values());
+            for (Map.Entry<Integer, Integer> change : stockChanges.entrySet()) {
+                if (change.getValue() != 0) {
+                    assetController.adjustStock(change.getKey(), change.getValue());
+                }
+            }
+            return null;
+        });
+        batch.clear();
+        stockChanges.clear();
+    }
+
+    private ImportReport finish(ImportReport report, long start, String what, Path file) {
+        report.setElapsedNanos(System.nanoTime() - start);
+        Logger.getLogger(CsvImport.class.getName()).log(Level.INFO,
+                "Import of {0} from {1}: {2}", new Object[]{what, file, report});
+        return report;
+    }
+
+    private Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IOException("The file is empty.");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+
+    private int requireColumn(Map<String, Integer> columns, String name) throws IOException {
+        Integer index = columns.get(name);
+        if (index == null) {
+            throw new IOException("The file has no " + name + " column.");
+        }
+        return index;
+    }
+
+    private String value(List<String> values, int column) {
+        if (column >= values.size()) {
+            throw new IllegalArgumentException("Missing value in column " + (column + 1) + ".");
+        }
+        return values.get(column).trim();
+    }
+
+    private int parseMoney(String text) {
+        String normalized = text;
+        if (normalized.indexOf('.') < 0) {
+            normalized = normalized.replace(',', '.');
+        }
+        int cents = new BigDecimal(normalized).movePointRight(2).intValueExact();
+        if (cents < 0) {
+            throw new IllegalArgumentException("The price can not be negative.");
+        }
+        return cents;
+    }
+
+    /**
+     * Splits a csv line at the separators. A value may be enclosed in double
+     * quotes to contain the separator, a doubled quote stands for one quote.
+     */
+    static List<String> splitLine(String line) {
+        char separator = CsvExportImpl.separator.charAt(0);
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unclosed quote.");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
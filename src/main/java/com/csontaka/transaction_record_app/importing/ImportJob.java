@@ -0,0 +1,119 @@
+package com.csontaka.transaction_record_app.importing;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An import running on the background thread of the
+ * {@link com.csontaka.transaction_record_app.importing.ImportService}. It
+ * knows the number of the bytes of the file read so far and the size of the
+ * file, and can be cancelled. A cancelled import stops at the next progress
+ * report, the batches saved before stay in the database.
+ *
+ * @author Adrienn Csontak
+ */
+public class ImportJob {
+
+    /**
+     * Listener notified on the import thread about the progress of the job.
+     */
+    public interface Listener {
+
+        /**
+         * Called when the number of the read bytes changes.
+         *
+         * @param bytes A long containing the number of bytes read so far.
+         * @param total A long containing the size of the file, or -1 if it is
+         * not known yet.
+         */
+        void progressed(long bytes, long total);
+    }
+
+    private final Listener listener;
+    private final CompletableFuture<ImportReport> result = new CompletableFuture<>();
+    private volatile boolean cancelled;
+    private volatile long bytesRead;
+    private volatile long total = -1;
+
+    /**
+     * Creates an ImportJob notifying the specified listener.
+     *
+     * @param listener The <code>Listener</code> to notify, or null.
+     */
+    ImportJob(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Asks the job to stop. The result of the job is completed with a
+     * <code>CancellationException</code> when it stopped.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Gets whether the job was asked to stop.
+     *
+     * @return True if the job was cancelled, false if not.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the number of the bytes of the file read so far.
+     *
+     * @return A long representing the number of read bytes.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Gets the size of the imported file.
+     *
+     * @return A long representing the size of the file in bytes, or -1 if it
+     * is not known yet.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the result of the job, completed with the report of the import, or
+     * exceptionally with the exception stopping the job.
+     *
+     * @return A <code>CompletableFuture</code> of the <code>ImportReport</code>.
+     */
+    public CompletableFuture<ImportReport> getResult() {
+        return result;
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+        notifyListener();
+    }
+
+    /**
+     * Records the read bytes. Used as the <code>ImportProgress</code> of the
+     * importer, so it stops the import of a cancelled job.
+     */
+    void bytesRead(long bytes) {
+        bytesRead = bytes;
+        notifyListener();
+        checkCancelled();
+    }
+
+    void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("The import was cancelled.");
+        }
+    }
+
+    private void notifyListener() {
+        if (listener != null) {
+            listener.progressed(bytesRead, total);
+        }
+    }
+}
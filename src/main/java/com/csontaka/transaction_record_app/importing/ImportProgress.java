@@ -0,0 +1,25 @@
+package com.csontaka.transaction_record_app.importing;
+
+/**
+ * Listener notified about the progress of an import. It is called on the
+ * thread running the import, between the batches of the import.
+ *
+ * @author Adrienn Csontak
+ */
+public interface ImportProgress {
+
+    /**
+     * A listener that ignores the progress.
+     */
+    public static final ImportProgress NONE = bytes -> {
+    };
+
+    /**
+     * Called after a part of the file was imported and when the import is
+     * finished.
+     *
+     * @param bytes A long containing the number of bytes of the file read so
+     * far.
+     */
+    public void bytesRead(long bytes);
+}
@@ -0,0 +1,109 @@
+package com.csontaka.transaction_record_app.importing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores the outcome of an import: the number of read, imported and rejected
+ * rows, the reason of the first rejections and the time the import took.
+ *
+ * @author Adrienn Csontak
+ */
+public class ImportReport {
+
+    /**
+     * The maximum number of rejection messages kept in the report.
+     */
+    public static final int MAX_REJECTION_MESSAGES = 100;
+
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private long elapsedNanos;
+    private final List<String> rejections = new ArrayList<>();
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void rowImported() {
+        imported++;
+    }
+
+    void rowRejected(long lineNumber, String reason) {
+        rejected++;
+        if (rejections.size() < MAX_REJECTION_MESSAGES) {
+            rejections.add("Line " + lineNumber + ": " + reason);
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of data rows read from the file.
+     *
+     * @return A long representing the number of rows.
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Gets the number of rows saved to the database.
+     *
+     * @return A long representing the number of imported rows.
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * Gets the number of rows skipped because they were not valid.
+     *
+     * @return A long representing the number of rejected rows.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the reason of the first rejected rows, at most
+     * {@link #MAX_REJECTION_MESSAGES} of them.
+     *
+     * @return An unmodifiable List of messages.
+     */
+    public List<String> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    /**
+     * Gets the time the import took in milliseconds.
+     *
+     * @return A long representing the elapsed milliseconds.
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Gets the number of rows read in a second.
+     *
+     * @return A double representing the import speed.
+     */
+    public double getRowsPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return rowsRead * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows read, %d imported, %d rejected in %d ms (%.0f rows/s)",
+                rowsRead, imported, rejected, getElapsedMillis(), getRowsPerSecond());
+    }
+}
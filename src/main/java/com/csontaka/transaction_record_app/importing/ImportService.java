@@ -0,0 +1,84 @@
+package com.csontaka.transaction_record_app.importing;
+
+import com.csontaka.transaction_record_app.entity.AssetType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the imports of csv and transaction row files as
+ * {@link com.csontaka.transaction_record_app.importing.ImportJob}s on a
+ * background thread of their own, so a long import does not hold up the
+ * paging of the tables and the loading of the forms on the threads of the
+ * {@link com.csontaka.transaction_record_app.controller.DataAccessExecutor}.
+ * The jobs run one by one in the order they were submitted.
+ *
+ * @author Adrienn Csontak
+ */
+public final class ImportService {
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * An import reading a file.
+     */
+    private interface ImportTask {
+
+        ImportReport run() throws IOException, SQLException;
+    }
+
+    private ImportService() {
+    }
+
+    /**
+     * Submits the import of the transactions of a csv file.
+     *
+     * @param csvImport The <code>CsvImport</code> reading the file.
+     * @param file The Path of the csv file.
+     * @param listener An <code>ImportJob.Listener</code> notified about the
+     * progress, or null.
+     * @return The submitted <code>ImportJob</code>.
+     */
+    public static ImportJob importTransactions(CsvImport csvImport, Path file,
+            ImportJob.Listener listener) {
+        ImportJob job = new ImportJob(listener);
+        submit(job, file, () -> csvImport.importTransactions(file, job::bytesRead));
+        return job;
+    }
+
+    /**
+     * Submits the import of a file of transaction rows.
+     *
+     * @param snapshotImport The <code>SnapshotImport</code> reading the file.
+     * @param file The Path of the file of transaction rows.
+     * @param type The <code>AssetType</code> of the assets of the rows.
+     * @param listener An <code>ImportJob.Listener</code> notified about the
+     * progress, or null.
+     * @return The submitted <code>ImportJob</code>.
+     */
+    public static ImportJob importRows(SnapshotImport snapshotImport, Path file,
+            AssetType type, ImportJob.Listener listener) {
+        ImportJob job = new ImportJob(listener);
+        submit(job, file, () -> snapshotImport.importRows(file, type, job::bytesRead));
+        return job;
+    }
+
+    private static void submit(ImportJob job, Path file, ImportTask task) {
+        EXECUTOR.execute(() -> {
+            try {
+                job.checkCancelled();
+                job.setTotal(Files.size(file));
+                job.getResult().complete(task.run());
+            } catch (IOException | SQLException | RuntimeException ex) {
+                job.getResult().completeExceptionally(ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,405 @@
+package com.csontaka.transaction_record_app.importing;
+
+import com.csontaka.transaction_record_app.controller.AssetController;
+import com.csontaka.transaction_record_app.controller.PeriodController;
+import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.controller.UnitOfWork;
+import com.csontaka.transaction_record_app.entity.Asset;
+import com.csontaka.transaction_record_app.entity.AssetType;
+import com.csontaka.transaction_record_app.entity.Period;
+import com.csontaka.transaction_record_app.entity.Transaction;
+import com.csontaka.transaction_record_app.exporting.SnapshotFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads a binary snapshot written by
+ * {@link com.csontaka.transaction_record_app.exporting.SnapshotExport} into
+ * the repositories of the controllers. The file is memory mapped and the
+ * columns of a section are read side by side, so the rows are built without
+ * copying the file. The rows are saved in batches.
+ *
+ * <p>
+ * The saved rows get new ids, and the transactions are saved with the new ids
+ * of their asset and period. An asset with the type and name of an existing
+ * asset and a period with the date of an existing period update them. The
+ * stock of an existing asset is changed by the difference from its stock read
+ * at the start. The transactions are always inserted, and the stock of the
+ * assets is not changed by them, because the snapshot contains the stock
+ * after the transactions.</p>
+ *
+ * <p>
+ * A file of transaction rows, written by the export of a transaction table,
+ * holds no assets and periods. Its rows are imported like the rows of a csv
+ * file by {@link CsvImport#importTransactions(java.nio.file.Path)}: they
+ * belong to the existing assets with the same name, and decrease their
+ * stock.</p>
+ *
+ * @author Adrienn Csontak
+ */
+public class SnapshotImport {
+
+    /**
+     * The number of rows saved together.
+     */
+    public static final int BATCH_SIZE = CsvImport.BATCH_SIZE;
+
+    private final AssetController assetController;
+    private final PeriodController periodController;
+    private final TransactionController transController;
+    private final UnitOfWork unitOfWork;
+
+    /**
+     * Creates a SnapshotImport saving with the specified controllers.
+     *
+     * @param assetController An <code>AssetController</code> object to save
+     * the assets.
+     * @param periodController A <code>PeriodController</code> object to save
+     * the periods.
+     * @param transController A <code>TransactionController</code> object to
+     * save the transactions.
+     * @param unitOfWork The <code>UnitOfWork</code> of the controllers, saving
+     * a batch of transaction rows together with the stock changes.
+     */
+    public SnapshotImport(AssetController assetController, PeriodController periodController,
+            TransactionController transController, UnitOfWork unitOfWork) {
+        this.assetController = assetController;
+        this.periodController = periodController;
+        this.transController = transController;
+        this.unitOfWork = unitOfWork;
+    }
+
+    /**
+     * Imports the assets, the periods and the transactions of a snapshot file.
+     * A transaction is rejected if its asset or period is not in the file.
+     *
+     * @param file The Path of the snapshot file.
+     * @return An <code>ImportReport</code> object.
+     * @throws IOException If the file can not be read or is not a snapshot.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public ImportReport importSnapshot(Path file) throws IOException, SQLException {
+        ImportReport report = new ImportReport();
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = map(channel, SnapshotFormat.MAGIC);
+            Map<Integer, Integer> assetIds = importAssets(
+                    readSection(buffer, SnapshotFormat.ASSET_COLUMNS), report);
+            Map<Integer, Integer> periodIds = importPeriods(
+                    readSection(buffer, SnapshotFormat.PERIOD_COLUMNS), report);
+            importTransactions(readSection(buffer, SnapshotFormat.TRANSACTION_COLUMNS),
+                    assetIds, periodIds, report);
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        Logger.getLogger(SnapshotImport.class.getName()).log(Level.INFO,
+                "Import of snapshot {0}: {1}", new Object[]{file, report});
+        return report;
+    }
+
+    /**
+     * Imports the transaction rows of a file written by the export of a
+     * transaction table. A row is rejected if no asset of the specified type
+     * has its asset name or there is not enough of it in stock. The stock of
+     * the assets is decreased by the amount of the imported rows, in the same
+     * database transaction as the batch of the rows. The missing periods are
+     * created.
+     *
+     * @param file The Path of the file of transaction rows.
+     * @param type The <code>AssetType</code> of the assets of the rows.
+     * @return An <code>ImportReport</code> object.
+     * @throws IOException If the file can not be read or is not a file of
+     * transaction rows.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public ImportReport importRows(Path file, AssetType type) throws IOException, SQLException {
+        return importRows(file, type, ImportProgress.NONE);
+    }
+
+    /**
+     * Imports the transaction rows of a file like
+     * {@link #importRows(java.nio.file.Path, AssetType)}, reporting the
+     * progress after every section of the file.
+     *
+     * @param file The Path of the file of transaction rows.
+     * @param type The <code>AssetType</code> of the assets of the rows.
+     * @param progress The <code>ImportProgress</code> to notify.
+     * @return An <code>ImportReport</code> object.
+     * @throws IOException If the file can not be read or is not a file of
+     * transaction rows.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public ImportReport importRows(Path file, AssetType type, ImportProgress progress)
+            throws IOException, SQLException {
+        ImportReport report = new ImportReport();
+        long start = System.nanoTime();
+        List<Asset> assets = type.equals(AssetType.PRODUCT)
+                ? assetController.findAllProducts() : assetController.findAllEquipment();
+        TransactionBatch batch = new TransactionBatch(assetController, periodController,
+                transController, unitOfWork, assets);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = map(channel, SnapshotFormat.ROWS_MAGIC);
+            long rowNumber = 0;
+            Section section;
+            while ((section = readSection(buffer, SnapshotFormat.ROW_COLUMNS)).rows > 0) {
+                SnapshotFormat.ColumnReader[] columns = section.columns;
+                for (int row = 0; row < section.rows; row++) {
+                    rowNumber++;
+                    report.rowRead();
+                    columns[0].readInt();
+                    int monthIndex = columns[1].readInt();
+                    columns[2].readInt();
+                    int price = columns[3].readInt();
+                    int amount = columns[4].readInt();
+                    String name = columns[5].readString();
+                    try {
+                        YearMonth date = YearMonth.of(Math.floorDiv(monthIndex, 12),
+                                Math.floorMod(monthIndex, 12) + 1);
+                        batch.add(date, batch.findAsset(name), price, amount);
+                        report.rowImported();
+                    } catch (IllegalArgumentException | DateTimeException ex) {
+                        report.rowRejected(rowNumber, ex.getMessage());
+                    }
+                }
+                progress.bytesRead(buffer.position());
+            }
+            batch.flush();
+            progress.bytesRead(buffer.position());
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        Logger.getLogger(SnapshotImport.class.getName()).log(Level.INFO,
+                "Import of transaction rows {0}: {1}", new Object[]{file, report});
+        return report;
+    }
+
+    /**
+     * Maps a file and reads its magic number and version. The buffer is moved
+     * to the first section.
+     */
+    private MappedByteBuffer map(FileChannel channel, int magic) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The snapshot is too large to map: " + size + " bytes.");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != magic) {
+            throw new IOException(magic == SnapshotFormat.MAGIC ? "The file is not a snapshot."
+                    : "The file does not contain transaction rows.");
+        }
+        int version = buffer.getInt();
+        if (version != SnapshotFormat.VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        return buffer;
+    }
+
+    private Map<Integer, Integer> importAssets(Section section, ImportReport report)
+            throws IOException, SQLException {
+        Map<String, Asset> existing = new HashMap<>();
+        for (Asset asset : assetController.findAllProducts()) {
+            existing.put(assetKey(asset.getType(), asset.getName()), asset);
+        }
+        for (Asset asset : assetController.findAllEquipment()) {
+            existing.put(assetKey(asset.getType(), asset.getName()), asset);
+        }
+
+        Map<Integer, Integer> newIds = new HashMap<>();
+        List<Integer> oldIds = new ArrayList<>();
+        List<Asset> batch = new ArrayList<>();
+        Map<Integer, Integer> stockChanges = new LinkedHashMap<>();
+        SnapshotFormat.ColumnReader[] columns = section.columns;
+        for (int row = 0; row < section.rows; row++) {
+            report.rowRead();
+            int oldId = columns[0].readInt();
+            AssetType type = columns[1].readInt() == 1 ? AssetType.PRODUCT : AssetType.EQUIPMENT;
+            int stock = columns[2].readInt();
+            int materialCost = columns[3].readInt();
+            String name = columns[4].readString();
+            String feature = columns[5].readString();
+
+            Asset asset = existing.get(assetKey(type, name));
+            if (asset == null) {
+                asset = new Asset(name, feature, type);
+            } else {
+                asset.setFeature(feature);
+                stockChanges.merge(asset.getId(), stock - asset.getStock(), Integer::sum);
+            }
+            asset.setStock(stock);
+            asset.setMaterialCost(materialCost);
+            oldIds.add(oldId);
+            batch.add(asset);
+            report.rowImported();
+            if (batch.size() >= BATCH_SIZE) {
+                flushAssets(batch, stockChanges, oldIds, newIds);
+            }
+        }
+        flushAssets(batch, stockChanges, oldIds, newIds);
+        return newIds;
+    }
+
+    private void flushAssets(List<Asset> batch, Map<Integer, Integer> stockChanges,
+            List<Integer> oldIds, Map<Integer, Integer> newIds) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        unitOfWork.run(() -> {
+            assetController.saveAll(batch);
+            for (Map.Entry<Integer, Integer> change : stockChanges.entrySet()) {
+                if (change.getValue() != 0) {
+                    assetController.adjustStock(change.getKey(), change.getValue());
+                }
+            }
+            return null;
+        });
+        stockChanges.clear();
+        for (int i = 0; i < batch.size(); i++) {
+            newIds.put(oldIds.get(i), batch.get(i).getId());
+        }
+        batch.clear();
+        oldIds.clear();
+    }
+
+    private Map<Integer, Integer> importPeriods(Section section, ImportReport report)
+            throws IOException, SQLException {
+        Map<YearMonth, Period> existing = new HashMap<>();
+        for (Period period : periodController.findAllPeriods()) {
+            existing.put(period.getDate(), period);
+        }
+
+        Map<Integer, Integer> newIds = new HashMap<>();
+        List<Integer> oldIds = new ArrayList<>();
+        List<Period> batch = new ArrayList<>();
+        SnapshotFormat.ColumnReader[] columns = section.columns;
+        for (int row = 0; row < section.rows; row++) {
+            report.rowRead();
+            int oldId = columns[0].readInt();
+            int monthIndex = columns[1].readInt();
+            int goal = columns[2].readInt();
+
+            YearMonth date = YearMonth.of(Math.floorDiv(monthIndex, 12),
+                    Math.floorMod(monthIndex, 12) + 1);
+            Period period = existing.get(date);
+            if (period == null) {
+                period = new Period(date);
+            }
+            period.setGoal(goal);
+            oldIds.add(oldId);
+            batch.add(period);
+            report.rowImported();
+            if (batch.size() >= BATCH_SIZE) {
+                flushPeriods(batch, oldIds, newIds);
+            }
+        }
+        flushPeriods(batch, oldIds, newIds);
+        return newIds;
+    }
+
+    private void flushPeriods(List<Period> batch, List<Integer> oldIds,
+            Map<Integer, Integer> newIds) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        periodController.saveAll(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            newIds.put(oldIds.get(i), batch.get(i).getId());
+        }
+        batch.clear();
+        oldIds.clear();
+    }
+
+    private void importTransactions(Section section, Map<Integer, Integer> assetIds,
+            Map<Integer, Integer> periodIds, ImportReport report)
+            throws IOException, SQLException {
+        List<Transaction> batch = new ArrayList<>();
+        SnapshotFormat.ColumnReader[] columns = section.columns;
+        for (int row = 0; row < section.rows; row++) {
+            report.rowRead();
+            columns[0].readInt();
+            int periodId = columns[1].readInt();
+            int assetId = columns[2].readInt();
+            int amount = columns[3].readInt();
+            int price = columns[4].readInt();
+
+            Integer newAssetId = assetIds.get(assetId);
+            Integer newPeriodId = periodIds.get(periodId);
+            if (newAssetId == null || newPeriodId == null) {
+                report.rowRejected(row + 1, "Unknown asset or period of transaction.");
+                continue;
+            }
+            Transaction transaction = new Transaction(amount, price);
+            transaction.setAssetId(newAssetId);
+            transaction.setPeriodId(newPeriodId);
+            batch.add(transaction);
+            report.rowImported();
+            if (batch.size() >= BATCH_SIZE) {
+                transController.saveAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            transController.saveAll(batch);
+        }
+    }
+
+    /**
+     * Reads the header of a section and gets a reader for each of its columns.
+     * The buffer is moved to the next section.
+     */
+    private Section readSection(ByteBuffer buffer, int expectedColumns) throws IOException {
+        if (buffer.remaining() < 2 * Integer.BYTES) {
+            throw new IOException("The snapshot ends in a section header.");
+        }
+        int rows = buffer.getInt();
+        int columnCount = buffer.getInt();
+        if (rows < 0 || columnCount < expectedColumns
+                || buffer.remaining() < (long) columnCount * Integer.BYTES) {
+            throw new IOException("The snapshot has a corrupt section header.");
+        }
+        int[] lengths = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            lengths[i] = buffer.getInt();
+        }
+        SnapshotFormat.ColumnReader[] columns = new SnapshotFormat.ColumnReader[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            if (lengths[i] < 0 || lengths[i] > buffer.remaining()) {
+                throw new IOException("The snapshot ends in a column.");
+            }
+            ByteBuffer column = buffer.slice();
+            column.limit(lengths[i]);
+            columns[i] = new SnapshotFormat.ColumnReader(column);
+            buffer.position(buffer.position() + lengths[i]);
+        }
+        return new Section(rows, columns);
+    }
+
+    private static String assetKey(AssetType type, String name) {
+        return type + ":" + name;
+    }
+
+    /**
+     * The number of rows and the column readers of a section.
+     */
+    private static final class Section {
+
+        private final int rows;
+        private final SnapshotFormat.ColumnReader[] columns;
+
+        Section(int rows, SnapshotFormat.ColumnReader[] columns) {
+            this.rows = rows;
+            this.columns = columns;
+        }
+    }
+}
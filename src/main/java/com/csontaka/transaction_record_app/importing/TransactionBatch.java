@@ -0,0 +1,135 @@
+package com.csontaka.transaction_record_app.importing;
+
+import com.csontaka.transaction_record_app.controller.AssetController;
+import com.csontaka.transaction_record_app.controller.PeriodController;
+import com.csontaka.transaction_record_app.controller.TransactionController;
+import com.csontaka.transaction_record_app.controller.UnitOfWork;
+import com.csontaka.transaction_record_app.entity.Asset;
+import com.csontaka.transaction_record_app.entity.Period;
+import com.csontaka.transaction_record_app.entity.Transaction;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects imported transactions of existing assets and saves them in batches
+ * of {@value CsvImport#BATCH_SIZE}. A transaction is rejected with an
+ * <code>IllegalArgumentException</code> if its amount is not positive or there
+ * is not enough of its asset in stock, the same way as when a transaction is
+ * inserted in the form. A batch is saved in one unit of work together with the
+ * stock changes of its assets, which are applied as differences, so the stock
+ * changes made meanwhile are kept. The missing periods are created.
+ *
+ * @author Adrienn Csontak
+ */
+class TransactionBatch {
+
+    private static final Pattern NAME_WITH_ID = Pattern.compile("^(.*)\\((\\d+)\\)$");
+
+    private final AssetController assetController;
+    private final PeriodController periodController;
+    private final TransactionController transController;
+    private final UnitOfWork unitOfWork;
+    private final Map<Integer, Asset> assetsById = new HashMap<>();
+    private final Map<String, Asset> assetsByName = new HashMap<>();
+    private final Map<YearMonth, Period> periodsByDate = new HashMap<>();
+    private final List<Transaction> batch = new ArrayList<>(CsvImport.BATCH_SIZE);
+    private final Map<Integer, Integer> stockChanges = new LinkedHashMap<>();
+
+    /**
+     * Creates a TransactionBatch for transactions of the specified assets.
+     *
+     * @param assets The List of the assets the transactions can belong to.
+     */
+    TransactionBatch(AssetController assetController, PeriodController periodController,
+            TransactionController transController, UnitOfWork unitOfWork, List<Asset> assets)
+            throws SQLException {
+        this.assetController = assetController;
+        this.periodController = periodController;
+        this.transController = transController;
+        this.unitOfWork = unitOfWork;
+        for (Asset asset : assets) {
+            assetsById.put(asset.getId(), asset);
+            assetsByName.put(asset.getName(), asset);
+        }
+        for (Period period : periodController.findAllPeriods()) {
+            periodsByDate.put(period.getDate(), period);
+        }
+    }
+
+    /**
+     * Finds an asset by its name or by the exported "name(id)" form.
+     *
+     * @throws IllegalArgumentException If the asset is not found.
+     */
+    Asset findAsset(String name) {
+        Asset asset = assetsByName.get(name);
+        if (asset == null && name != null) {
+            Matcher matcher = NAME_WITH_ID.matcher(name);
+            if (matcher.matches()) {
+                asset = assetsById.get(Integer.valueOf(matcher.group(2)));
+            }
+        }
+        if (asset == null) {
+            throw new IllegalArgumentException("Unknown asset: " + name);
+        }
+        return asset;
+    }
+
+    /**
+     * Adds a transaction to the batch and saves the batch when it is full.
+     *
+     * @throws IllegalArgumentException If the transaction is rejected.
+     */
+    void add(YearMonth date, Asset asset, int price, int amount) throws SQLException {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("The amount has to be positive.");
+        }
+        if (amount > asset.getStock()) {
+            throw new IllegalArgumentException("Not enough " + asset.getName()
+                    + " in stock.");
+        }
+
+        Period period = periodsByDate.get(date);
+        if (period == null) {
+            period = new Period(date);
+            periodController.save(period);
+            periodsByDate.put(date, period);
+        }
+
+        // The local stock only checks the following transactions.
+        asset.setStock(asset.getStock() - amount);
+        stockChanges.merge(asset.getId(), -amount, Integer::sum);
+        Transaction transaction = new Transaction(amount, price);
+        transaction.setAssetId(asset.getId());
+        transaction.setPeriodId(period.getId());
+        batch.add(transaction);
+        if (batch.size() >= CsvImport.BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Saves the collected transactions and the stock changes of their assets.
+     */
+    void flush() throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        unitOfWork.run(() -> {
+            transController.saveAll(batch);
+            for (Map.Entry<Integer, Integer> change : stockChanges.entrySet()) {
+                assetController.adjustStock(change.getKey(), change.getValue());
+            }
+            return null;
+        });
+        batch.clear();
+        stockChanges.clear();
+    }
+}